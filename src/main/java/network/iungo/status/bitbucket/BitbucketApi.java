@@ -29,25 +29,45 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import network.iungo.status.bitbucket.auth.OauthCredentials;
 import network.iungo.status.bitbucket.response.auth.AccessTokenResponse;
+import network.iungo.status.bitbucket.response.commits.Commit;
 import network.iungo.status.bitbucket.response.commits.Commits;
-import org.apache.oltu.oauth2.client.OAuthClient;
-import org.apache.oltu.oauth2.client.URLConnectionClient;
+import network.iungo.status.http.HttpTransport;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
 import org.apache.oltu.oauth2.client.request.OAuthClientRequest;
-import org.apache.oltu.oauth2.client.response.OAuthResourceResponse;
 import org.apache.oltu.oauth2.common.OAuth;
 import org.apache.oltu.oauth2.common.message.types.GrantType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.StreamUtils;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Bitbucket REST API OAuth 2 client
+ * <p>
+ * All requests, token requests included, go through one pooled transport keeping connections alive,
+ * so pages and repositories fetched one after another share a few connections and their handshakes.
+ * Responses are asked for gzip compressed and decoded here, counting the bytes received and decoded.
  */
 public class BitbucketApi {
 
@@ -58,6 +78,12 @@ public class BitbucketApi {
     private final static String TOKEN_LOCATION = "https://bitbucket.org/site/oauth2/access_token";
     private final static int READ_TIMEOUT = 10000;
     private final static int CONNECT_TIMEOUT = 10000;
+    private final static int MAX_ATTEMPTS = 3;
+    private final static long DEFAULT_RETRY_AFTER = 60;
+    private final static long DEFAULT_CACHE_SIZE = 8 * 1024 * 1024;
+    private final static int DEFAULT_CONNECTIONS = 8;
+    private final static long IDLE_TIMEOUT = 90000;
+    private final static long PAGE_MARK_SIZE = 160;
 
     private String account;
     private byte[] consumerAuth;
@@ -66,7 +92,18 @@ public class BitbucketApi {
     private String accessToken;
     private Long expiresSeconds;
 
-    private void checkAuth() throws Exception {
+    private final ExecutorService pageFetcher;
+
+    private TokenBucket limiter;
+
+    private ResponseCache cache;
+
+    private HttpTransport transport;
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong decoded = new AtomicLong();
+
+    private synchronized void checkAuth() throws Exception {
         if (accessToken == null) {
             LOG.info("Access Token does not exist, authenticating");
             authorize();
@@ -82,6 +119,10 @@ public class BitbucketApi {
     private BitbucketApi() {
         objectMapper.registerModule(new JavaTimeModule());
         objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        CustomizableThreadFactory threads = new CustomizableThreadFactory("BitbucketPages-");
+        threads.setDaemon(true);
+        pageFetcher = Executors.newCachedThreadPool(threads);
     }
 
     /**
@@ -90,34 +131,188 @@ public class BitbucketApi {
      * @param credentials the credentials
      */
     public BitbucketApi(OauthCredentials credentials) {
+        this(credentials, new TokenBucket(10, 1000.0 / 3600));
+    }
+
+    /**
+     * Instantiates a new Bitbucket api sending requests no faster than the limiter allows.
+     *
+     * @param credentials the credentials
+     * @param limiter     the rate limiter shared by all requests
+     */
+    public BitbucketApi(OauthCredentials credentials, TokenBucket limiter) {
+        this(credentials, limiter, new ResponseCache(DEFAULT_CACHE_SIZE));
+    }
+
+    /**
+     * Instantiates a new Bitbucket api sending requests no faster than the limiter allows,
+     * asking for cached responses only if they were modified.
+     *
+     * @param credentials the credentials
+     * @param limiter     the rate limiter shared by all requests
+     * @param cache       the response cache
+     */
+    public BitbucketApi(OauthCredentials credentials, TokenBucket limiter, ResponseCache cache) {
+        this(credentials, limiter, cache, DEFAULT_CONNECTIONS);
+    }
+
+    /**
+     * Instantiates a new Bitbucket api sending requests no faster than the limiter allows,
+     * asking for cached responses only if they were modified, over at most the given number of connections.
+     *
+     * @param credentials    the credentials
+     * @param limiter        the rate limiter shared by all requests
+     * @param cache          the response cache
+     * @param maxConnections maximum number of open connections
+     */
+    public BitbucketApi(OauthCredentials credentials, TokenBucket limiter, ResponseCache cache, int maxConnections) {
         this();
+        this.limiter = limiter;
+        this.cache = cache;
+        this.transport = new HttpTransport(maxConnections, maxConnections, IDLE_TIMEOUT, CONNECT_TIMEOUT,
+                READ_TIMEOUT, false);
         this.account = credentials.getAccount();
         byte[] unencodedConsumerAuth = (credentials.getKey() + ":" + credentials.getSecret()).getBytes(StandardCharsets.UTF_8);
         consumerAuth = Base64.getEncoder().encode(unencodedConsumerAuth);
     }
 
-    private String httpGet(String url) throws Exception {
-        checkAuth();
+    /**
+     * Decodes the body of a response.
+     *
+     * @param <T> the decoded type
+     */
+    @FunctionalInterface
+    private interface Decoder<T> {
 
-        URL u = new URL(url);
+        T decode(InputStream in) throws IOException;
 
-        HttpURLConnection con = (HttpURLConnection) u.openConnection();
-        con.setRequestMethod("GET");
-        con.setRequestProperty("Authorization", "Bearer " + accessToken);
-        con.setConnectTimeout(CONNECT_TIMEOUT);
-        con.setReadTimeout(READ_TIMEOUT);
-        con.setInstanceFollowRedirects(false);
+    }
 
-        BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()));
-        String inputLine;
-        StringBuilder content = new StringBuilder();
-        while ((inputLine = in.readLine()) != null) {
-            content.append(inputLine);
+    /**
+     * Gets a resource, a cached one only if it was modified since. A response which was not modified
+     * is the value decoded before, the decoder is not called then.
+     */
+    private <T> T httpGet(String url, Class<T> type, Decoder<T> decoder) throws Exception {
+        return httpGet(url, type, decoder, value -> true, -1);
+    }
+
+    /**
+     * Gets a resource, a cached one only if it was modified since and the caller can use the cached value,
+     * otherwise it is downloaded unconditionally.
+     *
+     * @param reusable tells if a cached value can stand for the response
+     * @param weight   size the value is charged with in the cache, -1 for the size of the body
+     */
+    private <T> T httpGet(String url, Class<T> type, Decoder<T> decoder, Predicate<T> reusable,
+                          long weight) throws Exception {
+        ResponseCache.Entry cached = cache.get(url);
+        if (cached != null && (!type.isInstance(cached.getValue()) || !reusable.test(type.cast(cached.getValue())))) {
+            cached = null;
+        }
+        try (CloseableHttpResponse response = open(url, cached)) {
+            int status = response.getStatusLine().getStatusCode();
+            if (cached != null && status == HttpStatus.SC_NOT_MODIFIED) {
+                cache.hit();
+                return type.cast(cached.getValue());
+            }
+            HttpEntity entity = response.getEntity();
+            try {
+                if (status != HttpStatus.SC_OK || entity == null) {
+                    throw new IOException("Bitbucket answered " + status + " for " + url);
+                }
+                CountingInputStream in = new CountingInputStream(content(response, entity));
+                try {
+                    T value = decoder.decode(in);
+                    cache.miss();
+                    cache.put(url, header(response, "ETag"), header(response, "Last-Modified"), value,
+                            weight < 0 ? in.count : weight);
+                    return value;
+                } finally {
+                    decoded.addAndGet(in.count);
+                    in.close();
+                }
+            } finally {
+                EntityUtils.consumeQuietly(entity);
+            }
+        }
+    }
+
+    /**
+     * Gets the body of a response, counting the bytes received and decoding gzip.
+     */
+    private InputStream content(HttpResponse response, HttpEntity entity) throws IOException {
+        InputStream in = new CountingInputStream(entity.getContent()) {
+            @Override
+            void counted(int n) {
+                received.addAndGet(n);
+            }
+        };
+        String encoding = header(response, HttpHeaders.CONTENT_ENCODING);
+        return encoding != null && encoding.equalsIgnoreCase("gzip") ? new GZIPInputStream(in) : in;
+    }
+
+    private static String header(HttpResponse response, String name) {
+        Header header = response.getFirstHeader(name);
+        return header == null ? null : header.getValue();
+    }
+
+    /**
+     * Sends a request once the limiter lets it through, requests rejected for the rate limit
+     * are retried after the time the API asks for.
+     */
+    private CloseableHttpResponse open(String url, ResponseCache.Entry cached) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            checkAuth();
+            limiter.acquire();
+
+            HttpGet request = new HttpGet(url);
+            request.setHeader(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken);
+            request.setHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+            if (cached != null && cached.getEtag() != null) {
+                request.setHeader(HttpHeaders.IF_NONE_MATCH, cached.getEtag());
+            }
+            if (cached != null && cached.getLastModified() != null) {
+                request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, cached.getLastModified());
+            }
+
+            CloseableHttpResponse response = transport.execute(request);
+            int status = response.getStatusLine().getStatusCode();
+            long remaining = headerLong(response, "X-RateLimit-Remaining", -1);
+            if (remaining >= 0) {
+                limiter.update(remaining, resetMillis(headerLong(response, "X-RateLimit-Reset", -1)));
+            }
+            if (status != 429 || attempt == MAX_ATTEMPTS) {
+                return response;
+            }
+            long retryAfter = headerLong(response, HttpHeaders.RETRY_AFTER, DEFAULT_RETRY_AFTER);
+            LOG.warn("Rate limited on {}, retrying in {} s", url, retryAfter);
+            EntityUtils.consumeQuietly(response.getEntity());
+            response.close();
+            limiter.pause(retryAfter * 1000);
+        }
+    }
+
+    private static long headerLong(HttpResponse response, String name, long defaultValue) {
+        String value = header(response, name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
         }
-        in.close();
-        con.disconnect();
+    }
 
-        return content.toString();
+    /**
+     * Converts the reset header, either epoch seconds or seconds from now, to milliseconds from now.
+     */
+    private static long resetMillis(long reset) {
+        if (reset < 0) {
+            return -1;
+        }
+        long now = System.currentTimeMillis();
+        return reset > now / 1000 / 2 ? Math.max(reset * 1000 - now, 0) : reset * 1000;
     }
 
     /**
@@ -130,8 +325,8 @@ public class BitbucketApi {
      * @throws Exception the exception
      */
     public <T> T get(String url, Class<T> tClass) throws Exception {
-        String response = httpGet(String.format("https://api.bitbucket.org/2.0/repositories/%s/" + url, account));
-        return objectMapper.readValue(response, tClass);
+        return httpGet(String.format("https://api.bitbucket.org/2.0/repositories/%s/" + url, account), tClass,
+                in -> objectMapper.readValue(in, tClass));
     }
 
     /**
@@ -142,8 +337,110 @@ public class BitbucketApi {
      * @throws Exception the exception
      */
     public Commits getCommits(String repo) throws Exception {
-        String response = httpGet(String.format("https://api.bitbucket.org/2.0/repositories/%s/%s/commits", account, repo));
-        return objectMapper.readValue(response, Commits.class);
+        return httpGet(String.format("https://api.bitbucket.org/2.0/repositories/%s/%s/commits", account, repo),
+                Commits.class, in -> objectMapper.readValue(in, Commits.class));
+    }
+
+    /**
+     * Gets all commits, newest first, up to the given commit, page by page. Pages are decoded on fetching
+     * threads and their commits handed over to the caller of the iterator, the next page is requested as soon
+     * as its link is decoded, so it is already on its way while the caller works on the commits of the previous one.
+     * <p>
+     * Only the validators and the first commit of a page are cached. A page which was not modified
+     * and starts with the commit to stop at holds nothing new and ends the reading without a download,
+     * any other page is downloaded in full.
+     *
+     * @param repo      the repo
+     * @param from      url of the page to start from, null for the newest commits
+     * @param until     hash of the commit to stop at, it is not returned, null to read all
+     * @param maxPages  maximum number of pages
+     * @param timeLimit time limit in milliseconds
+     * @return the commits
+     */
+    public PageIterator<Commit> getCommitPages(String repo, String from, String until, int maxPages, long timeLimit) {
+        String first = from != null ? from
+                : String.format("https://api.bitbucket.org/2.0/repositories/%s/%s/commits", account, repo);
+        return new PageIterator<>(first, (url, sink) -> getCommitPage(url, until, sink), pageFetcher, maxPages,
+                timeLimit);
+    }
+
+    /**
+     * Gets a page of commits into the sink, decoding stops at the given commit.
+     *
+     * @return the next page url
+     */
+    private String getCommitPage(String url, String until, PageIterator.Sink<Commit> sink) throws Exception {
+        Commits result = new Commits();
+        httpGet(url, PageMark.class, in -> {
+            PageMark decoded = new PageMark();
+            PageDecoder.decode(in, objectMapper, Commit.class, result, c -> {
+                if (decoded.first == null) {
+                    decoded.first = c.getHash();
+                }
+                return !c.getHash().equals(until) && sink.accept(c);
+            }, sink::next);
+            return decoded;
+        }, mark -> mark.first != null && mark.first.equals(until), PAGE_MARK_SIZE);
+        return result.getNext();
+    }
+
+    /**
+     * What is cached of a commit page: its first commit, enough to tell that an unchanged page holds nothing new.
+     */
+    private static final class PageMark {
+
+        private String first;
+
+    }
+
+    /**
+     * Gets statistics of the response cache and the transport.
+     *
+     * @return the statistics
+     */
+    public BitbucketStatistics getStatistics() {
+        return new BitbucketStatistics(cache.getStatistics(), transport.getStatistics(), received.get(), decoded.get());
+    }
+
+    /**
+     * Stops fetching pages and closes all connections.
+     */
+    public void close() {
+        pageFetcher.shutdownNow();
+        try {
+            transport.close();
+        } catch (IOException e) {
+            LOG.warn("Could not close Bitbucket connections: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Posts a token request built by the OAuth client and reads the token from the response.
+     */
+    private AccessTokenResponse requestToken(OAuthClientRequest request) throws Exception {
+        HttpPost post = new HttpPost(request.getLocationUri());
+        post.setHeader(HttpHeaders.AUTHORIZATION, "Basic " + new String(consumerAuth, StandardCharsets.UTF_8));
+        post.setHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        post.setEntity(new StringEntity(request.getBody(),
+                ContentType.create(OAuth.ContentType.URL_ENCODED, StandardCharsets.UTF_8)));
+        try (CloseableHttpResponse response = transport.execute(post)) {
+            HttpEntity entity = response.getEntity();
+            try {
+                int status = response.getStatusLine().getStatusCode();
+                if (entity == null) {
+                    throw new IOException("Bitbucket answered " + status + " without a body for the token");
+                }
+                try (InputStream in = content(response, entity)) {
+                    if (status != HttpStatus.SC_OK) {
+                        throw new IOException("Bitbucket answered " + status + " for the token: "
+                                + StreamUtils.copyToString(in, StandardCharsets.UTF_8));
+                    }
+                    return objectMapper.readValue(in, AccessTokenResponse.class);
+                }
+            } finally {
+                EntityUtils.consumeQuietly(entity);
+            }
+        }
     }
 
     private void refresh() throws Exception {
@@ -154,12 +451,7 @@ public class BitbucketApi {
                 .setRefreshToken(refreshToken)
                 .buildBodyMessage();
 
-        request.setHeader("Authorization", "Basic " + new String(consumerAuth, StandardCharsets.UTF_8));
-
-        OAuthClient oAuthClient = new OAuthClient(new URLConnectionClient());
-        OAuthResourceResponse resource = oAuthClient.resource(request, OAuth.HttpMethod.POST, OAuthResourceResponse.class);
-
-        AccessTokenResponse response = objectMapper.readValue(resource.getBody(), AccessTokenResponse.class);
+        AccessTokenResponse response = requestToken(request);
         expiresSeconds = (System.currentTimeMillis() / 1000) + response.getExpiresIn();
         accessToken = response.getAccessToken();
         refreshToken = response.getRefreshToken();
@@ -173,16 +465,55 @@ public class BitbucketApi {
                 .setGrantType(GrantType.CLIENT_CREDENTIALS)
                 .buildBodyMessage();
 
-        request.setHeader("Authorization", "Basic " + new String(consumerAuth, StandardCharsets.UTF_8));
-
-        OAuthClient oAuthClient = new OAuthClient(new URLConnectionClient());
-        OAuthResourceResponse resource = oAuthClient.resource(request, OAuth.HttpMethod.POST, OAuthResourceResponse.class);
-
-        AccessTokenResponse response = objectMapper.readValue(resource.getBody(), AccessTokenResponse.class);
+        AccessTokenResponse response = requestToken(request);
         expiresSeconds = (System.currentTimeMillis() / 1000) + response.getExpiresIn();
         accessToken = response.getAccessToken();
         refreshToken = response.getRefreshToken();
         LOG.info("AUTH: {}", response);
     }
 
+    /**
+     * Counts the bytes read from a response body.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+                counted(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+                counted(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            counted((int) skipped);
+            return skipped;
+        }
+
+        void counted(int n) {
+        }
+
+    }
+
 }
@@ -0,0 +1,228 @@
+/*
+ * BitbucketProperties.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.bitbucket;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The type Bitbucket properties.
+ */
+@ConfigurationProperties(prefix = "bitbucket")
+@Configuration
+public class BitbucketProperties {
+
+    private int maxPages = 100;
+    private long fetchTimeout = 5 * 60 * 1000;
+    private long syncInterval = 60 * 1000;
+    private int syncConcurrency = 4;
+    private int rateLimit = 1000;
+    private int rateBurst = 10;
+    private boolean keepMessages;
+    private String logDirectory = "data/commits";
+    private long cacheSize = 8 * 1024 * 1024;
+    private int maxConnections = 8;
+
+    /**
+     * Gets maximum number of commit pages read from one repository per sync, the rest is backfilled later.
+     *
+     * @return the max pages
+     */
+    public int getMaxPages() {
+        return maxPages;
+    }
+
+    /**
+     * Sets max pages.
+     *
+     * @param maxPages the max pages
+     */
+    public void setMaxPages(int maxPages) {
+        this.maxPages = maxPages;
+    }
+
+    /**
+     * Gets time in milliseconds the commits of one repository may take to read.
+     *
+     * @return the fetch timeout
+     */
+    public long getFetchTimeout() {
+        return fetchTimeout;
+    }
+
+    /**
+     * Sets fetch timeout.
+     *
+     * @param fetchTimeout the fetch timeout
+     */
+    public void setFetchTimeout(long fetchTimeout) {
+        this.fetchTimeout = fetchTimeout;
+    }
+
+    /**
+     * Gets time in milliseconds between the end of a sync of all repositories and the start of the next one.
+     *
+     * @return the sync interval
+     */
+    public long getSyncInterval() {
+        return syncInterval;
+    }
+
+    /**
+     * Sets sync interval.
+     *
+     * @param syncInterval the sync interval
+     */
+    public void setSyncInterval(long syncInterval) {
+        this.syncInterval = syncInterval;
+    }
+
+    /**
+     * Gets number of repositories synced at the same time.
+     *
+     * @return the sync concurrency
+     */
+    public int getSyncConcurrency() {
+        return syncConcurrency;
+    }
+
+    /**
+     * Sets sync concurrency.
+     *
+     * @param syncConcurrency the sync concurrency
+     */
+    public void setSyncConcurrency(int syncConcurrency) {
+        this.syncConcurrency = syncConcurrency;
+    }
+
+    /**
+     * Gets requests per hour sent until the API reports its own limit.
+     *
+     * @return the rate limit
+     */
+    public int getRateLimit() {
+        return rateLimit;
+    }
+
+    /**
+     * Sets rate limit.
+     *
+     * @param rateLimit the rate limit
+     */
+    public void setRateLimit(int rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    /**
+     * Gets maximum number of requests sent in a burst.
+     *
+     * @return the rate burst
+     */
+    public int getRateBurst() {
+        return rateBurst;
+    }
+
+    /**
+     * Sets rate burst.
+     *
+     * @param rateBurst the rate burst
+     */
+    public void setRateBurst(int rateBurst) {
+        this.rateBurst = rateBurst;
+    }
+
+    /**
+     * Is keep messages, whether commit messages are kept in memory.
+     *
+     * @return the boolean
+     */
+    public boolean isKeepMessages() {
+        return keepMessages;
+    }
+
+    /**
+     * Sets keep messages.
+     *
+     * @param keepMessages the keep messages
+     */
+    public void setKeepMessages(boolean keepMessages) {
+        this.keepMessages = keepMessages;
+    }
+
+    /**
+     * Gets directory of the commit log, empty to keep commits in memory only.
+     *
+     * @return the log directory
+     */
+    public String getLogDirectory() {
+        return logDirectory;
+    }
+
+    /**
+     * Sets log directory.
+     *
+     * @param logDirectory the log directory
+     */
+    public void setLogDirectory(String logDirectory) {
+        this.logDirectory = logDirectory;
+    }
+
+    /**
+     * Gets maximum total size in bytes of the API responses kept for conditional requests, 0 keeps none.
+     *
+     * @return the cache size
+     */
+    public long getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * Sets cache size.
+     *
+     * @param cacheSize the cache size
+     */
+    public void setCacheSize(long cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Gets maximum number of open connections to the API, kept alive between requests.
+     *
+     * @return the max connections
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Sets max connections.
+     *
+     * @param maxConnections the max connections
+     */
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * BitbucketStatistics.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.bitbucket;
+
+import network.iungo.status.http.TransportStatistics;
+
+/**
+ * The type Bitbucket statistics.
+ */
+public class BitbucketStatistics {
+
+    private final CacheStatistics cache;
+    private final TransportStatistics transport;
+    private final long received;
+    private final long decoded;
+
+    /**
+     * Instantiates a new Bitbucket statistics.
+     *
+     * @param cache     the response cache statistics
+     * @param transport the connection pool statistics
+     * @param received  response body bytes received, compressed
+     * @param decoded   response body bytes decoded
+     */
+    BitbucketStatistics(CacheStatistics cache, TransportStatistics transport, long received, long decoded) {
+        this.cache = cache;
+        this.transport = transport;
+        this.received = received;
+        this.decoded = decoded;
+    }
+
+    /**
+     * Gets cache.
+     *
+     * @return the cache
+     */
+    public CacheStatistics getCache() {
+        return cache;
+    }
+
+    /**
+     * Gets transport.
+     *
+     * @return the transport
+     */
+    public TransportStatistics getTransport() {
+        return transport;
+    }
+
+    /**
+     * Gets received.
+     *
+     * @return the received
+     */
+    public long getReceived() {
+        return received;
+    }
+
+    /**
+     * Gets decoded.
+     *
+     * @return the decoded
+     */
+    public long getDecoded() {
+        return decoded;
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * CacheStatistics.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.bitbucket;
+
+/**
+ * The type Cache statistics.
+ */
+public class CacheStatistics {
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final int entries;
+    private final long bytes;
+    private final long maxBytes;
+
+    /**
+     * Instantiates a new Cache statistics.
+     *
+     * @param hits      responses not modified and taken from the cache
+     * @param misses    responses downloaded
+     * @param evictions responses evicted for room
+     * @param entries   responses cached
+     * @param bytes     size of the cached response bodies
+     * @param maxBytes  maximum size of the cached response bodies
+     */
+    CacheStatistics(long hits, long misses, long evictions, int entries, long bytes, long maxBytes) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.entries = entries;
+        this.bytes = bytes;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Gets hits.
+     *
+     * @return the hits
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets misses.
+     *
+     * @return the misses
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets share of responses taken from the cache.
+     *
+     * @return the hit ratio, 0 before the first response
+     */
+    public double getHitRatio() {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    /**
+     * Gets evictions.
+     *
+     * @return the evictions
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Gets entries.
+     *
+     * @return the entries
+     */
+    public int getEntries() {
+        return entries;
+    }
+
+    /**
+     * Gets bytes.
+     *
+     * @return the bytes
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Gets max bytes.
+     *
+     * @return the max bytes
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+}
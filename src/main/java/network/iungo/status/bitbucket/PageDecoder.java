@@ -0,0 +1,118 @@
+/*
+ * PageDecoder.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.bitbucket;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import network.iungo.status.bitbucket.response.PagedResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Decodes a page of a paged resource straight from the response stream.
+ * <p>
+ * Values are bound one at a time and handed to a consumer as soon as they are parsed,
+ * the page keeps only its length and next link, so memory does not grow with the page size.
+ * A consumer returning false stops the decoding, the rest of the page is not read
+ * and the page gets no next link.
+ * The next link is also told to a listener the moment it is parsed, so the next page can be requested
+ * while the rest of the page is still being consumed.
+ */
+class PageDecoder {
+
+    private PageDecoder() {
+    }
+
+    /**
+     * Decodes a page.
+     *
+     * @param <T>       the value type
+     * @param <P>       the page type
+     * @param in        the response body
+     * @param mapper    the object mapper
+     * @param valueType the value type
+     * @param page      the page to be filled, its values are left empty
+     * @param consumer  called with every value, false to stop
+     * @return the page
+     * @throws IOException if the body is not a page
+     */
+    static <T, P extends PagedResource<T>> P decode(InputStream in, ObjectMapper mapper, Class<T> valueType,
+                                                    P page, Predicate<? super T> consumer) throws IOException {
+        return decode(in, mapper, valueType, page, consumer, next -> {
+        });
+    }
+
+    /**
+     * Decodes a page, telling its next link as soon as it is parsed.
+     *
+     * @param <T>       the value type
+     * @param <P>       the page type
+     * @param in        the response body
+     * @param mapper    the object mapper
+     * @param valueType the value type
+     * @param page      the page to be filled, its values are left empty
+     * @param consumer  called with every value, false to stop
+     * @param listener  called with the next link when it is parsed
+     * @return the page
+     * @throws IOException if the body is not a page
+     */
+    static <T, P extends PagedResource<T>> P decode(InputStream in, ObjectMapper mapper, Class<T> valueType,
+                                                    P page, Predicate<? super T> consumer,
+                                                    Consumer<String> listener) throws IOException {
+        ObjectReader reader = mapper.readerFor(valueType);
+        try (JsonParser parser = mapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a page object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if ("values".equals(field) && token == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        if (!consumer.test(reader.readValue(parser))) {
+                            page.setNext(null);
+                            return page;
+                        }
+                    }
+                } else if ("next".equals(field)) {
+                    page.setNext(token == JsonToken.VALUE_NULL ? null : parser.getText());
+                    listener.accept(page.getNext());
+                } else if ("pagelen".equals(field)) {
+                    page.setPageLength(parser.getText());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return page;
+    }
+
+}
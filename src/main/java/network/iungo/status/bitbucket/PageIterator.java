@@ -0,0 +1,387 @@
+/*
+ * PageIterator.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.bitbucket;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.*;
+
+/**
+ * Iterates the values of a paged resource by following the next links of its pages.
+ * <p>
+ * Pages are decoded on fetching threads which hand their values over to the caller through a bounded buffer.
+ * Page N+1 is requested as soon as the next link of page N is decoded, so it travels while the caller
+ * still works on the values of page N and a long history costs one round trip per page only once.
+ * Iteration stops after the page limit or when the time limit passes, the iterator is truncated then
+ * and remembers the url of the first page left out or not read to the end, to resume from later.
+ * Fetches are never interrupted: a stopped page rejects its next value and the iteration waits
+ * until every fetch it started is over, so nothing is still decoding after it ends.
+ *
+ * @param <T> the value type
+ */
+public class PageIterator<T> implements Iterator<T>, AutoCloseable {
+
+    private final static int BUFFER = 256;
+    private final static Object END = new Object();
+
+    private final Fetcher<T> fetcher;
+    private final ExecutorService executor;
+    private final int maxPages;
+    private final long deadline;
+
+    private final List<Page> started = new ArrayList<>();
+    private Page current;
+    private T value;
+    private int requested;
+    private boolean truncated;
+    private String resumeUrl;
+    private boolean closed;
+
+    /**
+     * Receives the values and the next link of a page while it is decoded.
+     *
+     * @param <T> the value type
+     */
+    public interface Sink<T> {
+
+        /**
+         * Hands a value over to the caller, waiting while the buffer is full.
+         *
+         * @param value the value
+         * @return false if the iteration stopped and the page should not be read any further
+         */
+        boolean accept(T value);
+
+        /**
+         * Tells the next link as soon as it is decoded, so that the next page is requested early.
+         *
+         * @param url the next page url, may be null
+         */
+        void next(String url);
+
+    }
+
+    /**
+     * Fetches and decodes one page.
+     *
+     * @param <T> the value type
+     */
+    @FunctionalInterface
+    public interface Fetcher<T> {
+
+        /**
+         * Fetches the page, passing its values to the sink.
+         *
+         * @param url  the page url
+         * @param sink receives the values and the next link
+         * @return the next page url, null if the page is the last one or was not read to the end
+         * @throws Exception the exception
+         */
+        String fetch(String url, Sink<T> sink) throws Exception;
+
+    }
+
+    /**
+     * Instantiates a new Page iterator, the first page is requested right away.
+     *
+     * @param url       url of the first page
+     * @param fetcher   the fetcher
+     * @param executor  runs the page requests
+     * @param maxPages  maximum number of pages
+     * @param timeLimit time limit of the whole iteration in milliseconds
+     */
+    public PageIterator(String url, Fetcher<T> fetcher, ExecutorService executor, int maxPages, long timeLimit) {
+        this.fetcher = fetcher;
+        this.executor = executor;
+        this.maxPages = maxPages;
+        this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeLimit);
+        current = request(url);
+    }
+
+    /**
+     * Requests a page unless a limit is reached.
+     *
+     * @return the page, null if not requested
+     */
+    private synchronized Page request(String url) {
+        if (url == null || url.isEmpty() || closed) {
+            return null;
+        }
+        if (requested >= maxPages || System.nanoTime() >= deadline) {
+            truncated = true;
+            resumeUrl = url;
+            return null;
+        }
+        requested++;
+        Page page = new Page(url);
+        started.add(page);
+        page.task = executor.submit(page);
+        return page;
+    }
+
+    /**
+     * Waits for the next value, at most until the time limit.
+     *
+     * @return true if there is a next value
+     * @throws IllegalStateException if a page could not be fetched
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean hasNext() {
+        if (value != null) {
+            return true;
+        }
+        while (current != null) {
+            Object next;
+            try {
+                next = current.values.poll(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException ex) {
+                stop();
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            if (next == null) {
+                stop();
+                return false;
+            }
+            if (next != END) {
+                current.room.release();
+                value = (T) next;
+                return true;
+            }
+            try {
+                current.task.get();
+            } catch (ExecutionException ex) {
+                String url = current.url;
+                stop();
+                throw new IllegalStateException("Could not fetch " + url + ": " + ex.getCause().getMessage(),
+                        ex.getCause());
+            } catch (InterruptedException ex) {
+                stop();
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            synchronized (this) {
+                current = current.following;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T next = value;
+        value = null;
+        return next;
+    }
+
+    /**
+     * Ends the iteration early, the page being read is the one to resume from.
+     * Returns once the fetches still running are over.
+     */
+    private void stop() {
+        synchronized (this) {
+            if (current != null) {
+                truncated = true;
+                resumeUrl = current.url;
+                current = null;
+            }
+        }
+        close();
+    }
+
+    /**
+     * Is truncated, true if pages were left out because of the page or time limit.
+     *
+     * @return the boolean
+     */
+    public synchronized boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Gets url of the first page left out or not read to the end, null unless truncated.
+     *
+     * @return the resume url
+     */
+    public synchronized String getResumeUrl() {
+        return resumeUrl;
+    }
+
+    /**
+     * Gets number of requested pages.
+     *
+     * @return the requested pages
+     */
+    public synchronized int getRequested() {
+        return requested;
+    }
+
+    /**
+     * Stops the pages still being fetched and waits until their fetches are over.
+     */
+    @Override
+    public void close() {
+        List<Page> pages;
+        synchronized (this) {
+            closed = true;
+            pages = new ArrayList<>(started);
+        }
+        for (Page page : pages) {
+            page.cancel();
+        }
+        boolean interrupted = false;
+        for (Page page : pages) {
+            interrupted |= page.await();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A page being fetched, its values are buffered until the caller takes them.
+     */
+    private final class Page implements Callable<String>, Sink<T> {
+
+        private final String url;
+        private final BlockingQueue<Object> values = new LinkedBlockingQueue<>();
+        private final Semaphore room = new Semaphore(BUFFER);
+        private volatile boolean cancelled;
+        private boolean running;
+        private Future<String> task;
+        private Page following;
+        private boolean followed;
+        private String hint;
+
+        private Page(String url) {
+            this.url = url;
+        }
+
+        @Override
+        public String call() throws Exception {
+            synchronized (this) {
+                if (cancelled) {
+                    return null;
+                }
+                running = true;
+            }
+            try {
+                String next = fetcher.fetch(url, this);
+                follow(next, true);
+                return next;
+            } finally {
+                values.add(END);
+                synchronized (this) {
+                    running = false;
+                    notifyAll();
+                }
+            }
+        }
+
+        @Override
+        public boolean accept(T value) {
+            if (cancelled) {
+                return false;
+            }
+            try {
+                room.acquire();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            if (cancelled) {
+                return false;
+            }
+            values.add(value);
+            return true;
+        }
+
+        @Override
+        public void next(String url) {
+            follow(url, false);
+        }
+
+        /**
+         * Requests the following page once. When the page was stopped after its next link was decoded
+         * the following page is dropped again.
+         */
+        private void follow(String next, boolean last) {
+            synchronized (PageIterator.this) {
+                if (cancelled) {
+                    return;
+                }
+                if (!followed) {
+                    followed = next != null || last;
+                    hint = next;
+                    following = request(next);
+                } else if (last && next == null && hint != null) {
+                    if (following != null) {
+                        following.cancel();
+                        following = null;
+                    } else if (hint.equals(resumeUrl)) {
+                        truncated = false;
+                        resumeUrl = null;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Stops the page, a fetch not started yet never runs and a running one stops at its next value.
+         */
+        private void cancel() {
+            synchronized (this) {
+                cancelled = true;
+            }
+            room.release(BUFFER);
+            task.cancel(false);
+        }
+
+        /**
+         * Waits until a running fetch is over, whatever its outcome.
+         *
+         * @return true if the caller was interrupted meanwhile
+         */
+        private synchronized boolean await() {
+            boolean interrupted = false;
+            while (running) {
+                try {
+                    wait();
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+            return interrupted;
+        }
+
+    }
+
+}
@@ -0,0 +1,167 @@
+/*
+ * ResponseCache.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.bitbucket;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Decoded API responses by URL with their validators, for conditional requests.
+ * <p>
+ * A response is kept only if it came with an ETag or a Last-Modified header. When the API answers
+ * a conditional request with 304 Not Modified the decoded value is used again without downloading
+ * or parsing the body. The cache is bounded by the total size charged for the values, the size of the body
+ * they were decoded from unless the caller knows better, the least recently used responses are evicted first.
+ * All methods are thread safe.
+ */
+public class ResponseCache {
+
+    private final long maxBytes;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Instantiates a new Response cache.
+     *
+     * @param maxBytes maximum total size charged for the cached values, 0 caches nothing
+     */
+    public ResponseCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Gets the cached response of a URL.
+     *
+     * @param url the url
+     * @return the entry, null if none
+     */
+    public synchronized Entry get(String url) {
+        return entries.get(url);
+    }
+
+    /**
+     * Stores a decoded response, replacing the one before. Responses without validators or larger than
+     * the cache only remove the one before.
+     *
+     * @param url          the url
+     * @param etag         the ETag header, may be null
+     * @param lastModified the Last-Modified header, may be null
+     * @param value        the decoded value
+     * @param size         size charged for the value in bytes
+     */
+    public synchronized void put(String url, String etag, String lastModified, Object value, long size) {
+        Entry old = entries.remove(url);
+        if (old != null) {
+            bytes -= old.size;
+        }
+        if ((etag == null && lastModified == null) || size > maxBytes) {
+            return;
+        }
+        entries.put(url, new Entry(etag, lastModified, value, size));
+        bytes += size;
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (bytes > maxBytes) {
+            bytes -= eldest.next().size;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Counts a response which was not modified and came from the cache.
+     */
+    public synchronized void hit() {
+        hits++;
+    }
+
+    /**
+     * Counts a response which was downloaded.
+     */
+    public synchronized void miss() {
+        misses++;
+    }
+
+    /**
+     * Gets statistics.
+     *
+     * @return the statistics
+     */
+    public synchronized CacheStatistics getStatistics() {
+        return new CacheStatistics(hits, misses, evictions, entries.size(), bytes, maxBytes);
+    }
+
+    /**
+     * A cached response.
+     */
+    public static final class Entry {
+
+        private final String etag;
+        private final String lastModified;
+        private final Object value;
+        private final long size;
+
+        private Entry(String etag, String lastModified, Object value, long size) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.value = value;
+            this.size = size;
+        }
+
+        /**
+         * Gets ETag.
+         *
+         * @return the etag, may be null
+         */
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * Gets Last-Modified.
+         *
+         * @return the last modified, may be null
+         */
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Gets decoded value.
+         *
+         * @return the value
+         */
+        public Object getValue() {
+            return value;
+        }
+
+    }
+
+}
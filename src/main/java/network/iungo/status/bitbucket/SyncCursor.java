@@ -0,0 +1,117 @@
+/*
+ * SyncCursor.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.bitbucket;
+
+import java.time.OffsetDateTime;
+
+/**
+ * High-water mark of a repository: its newest known commit and when it was last synced.
+ * <p>
+ * When a sync was cut short by the page or time limit the older history is still missing. The cursor then
+ * also holds the url of the next page to backfill from and the hash the backfill stops at, null when it
+ * reads up to the last page.
+ */
+public class SyncCursor {
+
+    private final String hash;
+    private final OffsetDateTime date;
+    private final long synced;
+    private final String backfill;
+    private final String until;
+
+    /**
+     * Instantiates a new Sync cursor of a complete history.
+     *
+     * @param hash   hash of the newest known commit
+     * @param date   date of the newest known commit
+     * @param synced time of the sync in milliseconds
+     */
+    public SyncCursor(String hash, OffsetDateTime date, long synced) {
+        this(hash, date, synced, null, null);
+    }
+
+    /**
+     * Instantiates a new Sync cursor.
+     *
+     * @param hash     hash of the newest known commit
+     * @param date     date of the newest known commit
+     * @param synced   time of the sync in milliseconds
+     * @param backfill url of the next page to backfill from, null if the history is complete
+     * @param until    hash of the commit the backfill stops at, null to read up to the last page
+     */
+    public SyncCursor(String hash, OffsetDateTime date, long synced, String backfill, String until) {
+        this.hash = hash;
+        this.date = date;
+        this.synced = synced;
+        this.backfill = backfill;
+        this.until = backfill == null ? null : until;
+    }
+
+    /**
+     * Gets hash.
+     *
+     * @return the hash
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    /**
+     * Gets date.
+     *
+     * @return the date
+     */
+    public OffsetDateTime getDate() {
+        return date;
+    }
+
+    /**
+     * Gets synced.
+     *
+     * @return the synced
+     */
+    public long getSynced() {
+        return synced;
+    }
+
+    /**
+     * Gets url of the next page to backfill from.
+     *
+     * @return the url, null if the history is complete
+     */
+    public String getBackfill() {
+        return backfill;
+    }
+
+    /**
+     * Gets hash of the commit the backfill stops at.
+     *
+     * @return the hash, null to read up to the last page
+     */
+    public String getUntil() {
+        return until;
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * TokenBucket.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.bitbucket;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket spacing API requests so they stay within the rate limit.
+ * <p>
+ * Starts with the configured rate and burst. Rate limit headers of every response replace the rate
+ * with the remaining requests spread over the time left until the limit resets, so the bucket speeds up
+ * when there is quota to spare and stops when there is none. A rejected request pauses the bucket.
+ */
+public class TokenBucket {
+
+    private final static long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private final static long MIN_SLEEP = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final double capacity;
+    private final double defaultRate;
+
+    private double rate;
+    private double tokens;
+    private long refilled = System.nanoTime();
+
+    /**
+     * Instantiates a new Token bucket, full.
+     *
+     * @param capacity  maximum number of requests sent in a burst
+     * @param perSecond requests per second until the API reports its limit
+     */
+    public TokenBucket(int capacity, double perSecond) {
+        this.capacity = Math.max(capacity, 1);
+        this.defaultRate = perSecond / SECOND;
+        this.rate = defaultRate;
+        this.tokens = this.capacity;
+    }
+
+    /**
+     * Waits for a token.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    public void acquire() throws InterruptedException {
+        while (true) {
+            long delay;
+            synchronized (this) {
+                long now = System.nanoTime();
+                refill(now);
+                if (now - refilled < 0) {
+                    delay = refilled - now;
+                } else if (tokens >= 1) {
+                    tokens -= 1;
+                    return;
+                } else {
+                    delay = (long) Math.ceil((1 - tokens) / rate);
+                }
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.max(delay, MIN_SLEEP));
+        }
+    }
+
+    /**
+     * Adjusts the rate to the limit reported by the API.
+     *
+     * @param remaining requests left in the current window
+     * @param reset     milliseconds until the window resets, negative if unknown
+     */
+    public synchronized void update(long remaining, long reset) {
+        long now = System.nanoTime();
+        refill(now);
+        tokens = Math.min(tokens, remaining);
+        if (reset < 0) {
+            return;
+        }
+        if (remaining <= 0) {
+            pause(reset);
+        } else {
+            rate = Math.max((double) remaining / TimeUnit.MILLISECONDS.toNanos(Math.max(reset, 1)), defaultRate / 100);
+        }
+    }
+
+    /**
+     * Stops handing out tokens for a while, after the API rejected a request.
+     * One request goes through when the pause is over, then the default rate applies.
+     *
+     * @param millis the pause in milliseconds
+     */
+    public synchronized void pause(long millis) {
+        long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        if (until - refilled > 0) {
+            refilled = until;
+        }
+        tokens = 1;
+        rate = defaultRate;
+    }
+
+    /**
+     * Gets current rate in requests per second.
+     *
+     * @return the rate
+     */
+    public synchronized double getRate() {
+        return rate * SECOND;
+    }
+
+    private void refill(long now) {
+        if (now - refilled > 0) {
+            tokens = Math.min(capacity, tokens + (now - refilled) * rate);
+            refilled = now;
+        }
+    }
+
+}
@@ -40,6 +40,8 @@ public class Commit {
 
     private String message;
 
+    private Author author;
+
     private String type;
 
     /**
@@ -96,6 +98,24 @@ public class Commit {
         this.message = message;
     }
 
+    /**
+     * Gets author.
+     *
+     * @return the author
+     */
+    public Author getAuthor() {
+        return author;
+    }
+
+    /**
+     * Sets author.
+     *
+     * @param author the author
+     */
+    public void setAuthor(Author author) {
+        this.author = author;
+    }
+
     /**
      * Gets type.
      *
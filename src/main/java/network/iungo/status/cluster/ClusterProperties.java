@@ -0,0 +1,212 @@
+/*
+ * ClusterProperties.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.cluster;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The type Cluster properties.
+ */
+@ConfigurationProperties(prefix = "cluster")
+@Configuration
+public class ClusterProperties {
+
+    private String url = "";
+    private List<String> peers = new ArrayList<>();
+    private int replication = 2;
+    private int quorum;
+    private int virtualNodes = 64;
+    private long heartbeat = 5 * 1000;
+    private long failureTimeout = 15 * 1000;
+    private long observationTtl = 30 * 60 * 1000;
+    private String secret = "";
+
+    /**
+     * Gets base URL other nodes reach this node at, it is also the id of the node.
+     *
+     * @return the url
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Sets url.
+     *
+     * @param url the url
+     */
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    /**
+     * Gets base URLs of the other nodes, empty to run alone and probe every endpoint.
+     *
+     * @return the peers
+     */
+    public List<String> getPeers() {
+        return peers;
+    }
+
+    /**
+     * Sets peers.
+     *
+     * @param peers the peers
+     */
+    public void setPeers(List<String> peers) {
+        this.peers = peers;
+    }
+
+    /**
+     * Gets number of nodes probing every endpoint.
+     *
+     * @return the replication
+     */
+    public int getReplication() {
+        return replication;
+    }
+
+    /**
+     * Sets replication.
+     *
+     * @param replication the replication
+     */
+    public void setReplication(int replication) {
+        this.replication = replication;
+    }
+
+    /**
+     * Gets number of probing nodes which have to see an endpoint offline, 0 for a majority of the replication.
+     *
+     * @return the quorum
+     */
+    public int getQuorum() {
+        return quorum;
+    }
+
+    /**
+     * Sets quorum.
+     *
+     * @param quorum the quorum
+     */
+    public void setQuorum(int quorum) {
+        this.quorum = quorum;
+    }
+
+    /**
+     * Gets number of points every node has on the hash ring.
+     *
+     * @return the virtual nodes
+     */
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    /**
+     * Sets virtual nodes.
+     *
+     * @param virtualNodes the virtual nodes
+     */
+    public void setVirtualNodes(int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+    }
+
+    /**
+     * Gets interval in milliseconds of checking whether the peers are alive.
+     *
+     * @return the heartbeat
+     */
+    public long getHeartbeat() {
+        return heartbeat;
+    }
+
+    /**
+     * Sets heartbeat.
+     *
+     * @param heartbeat the heartbeat
+     */
+    public void setHeartbeat(long heartbeat) {
+        this.heartbeat = heartbeat;
+    }
+
+    /**
+     * Gets time in milliseconds after which a silent peer leaves the ring.
+     *
+     * @return the failure timeout
+     */
+    public long getFailureTimeout() {
+        return failureTimeout;
+    }
+
+    /**
+     * Sets failure timeout.
+     *
+     * @param failureTimeout the failure timeout
+     */
+    public void setFailureTimeout(long failureTimeout) {
+        this.failureTimeout = failureTimeout;
+    }
+
+    /**
+     * Gets time in milliseconds an observation of another node counts in the quorum.
+     *
+     * @return the observation ttl
+     */
+    public long getObservationTtl() {
+        return observationTtl;
+    }
+
+    /**
+     * Sets observation ttl.
+     *
+     * @param observationTtl the observation ttl
+     */
+    public void setObservationTtl(long observationTtl) {
+        this.observationTtl = observationTtl;
+    }
+
+    /**
+     * Gets secret shared by the nodes, required when peers are set.
+     *
+     * @return the secret
+     */
+    public String getSecret() {
+        return secret;
+    }
+
+    /**
+     * Sets secret.
+     *
+     * @param secret the secret
+     */
+    public void setSecret(String secret) {
+        this.secret = secret;
+    }
+
+}
@@ -0,0 +1,315 @@
+/*
+ * ClusterService.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Splits the monitored endpoints between several status nodes.
+ * <p>
+ * The nodes are configured as a static list of peers, a peer takes part while it answers heartbeats.
+ * Alive nodes form a consistent hash ring and every endpoint is probed by the replication
+ * number of nodes next to it on the ring, the ring is rebuilt whenever a node joins or leaves.
+ * Every node sends its observations to all alive peers in batches, so every node
+ * shows all endpoints, and an endpoint is offline only if a quorum of its probing nodes sees it offline.
+ * <p>
+ * Without peers the node is alone and probes every endpoint, decisions are its own probe results.
+ * Observations are accepted only from nodes sending the shared secret, a node without peers accepts none.
+ */
+@Service
+public class ClusterService {
+
+    private static Logger LOG = LoggerFactory.getLogger(ClusterService.class);
+
+    /**
+     * Header carrying the shared secret.
+     */
+    public final static String SECRET_HEADER = "X-Cluster-Secret";
+
+    private final static long PUSH_INTERVAL = 1000;
+    private final static int OUTBOX = 10000;
+    private final static int TIMEOUT = 2000;
+
+    private final String node;
+    private final List<String> peers;
+    private final int replication;
+    private final int quorum;
+    private final int virtualNodes;
+    private final long failureTimeout;
+    private final byte[] secret;
+
+    private final QuorumTracker tracker;
+    private final Map<String, Long> lastSeen = new ConcurrentHashMap<>();
+    private final BlockingQueue<Observation> outbox = new ArrayBlockingQueue<>(OUTBOX);
+    private final RestTemplate rest;
+    private final ScheduledExecutorService timer;
+
+    private volatile HashRing ring;
+    private volatile Consumer<Observation> receiver = o -> {
+    };
+
+    /**
+     * Instantiates a new Cluster service.
+     *
+     * @param properties the cluster properties
+     */
+    @Autowired
+    public ClusterService(ClusterProperties properties) {
+        this.node = trim(properties.getUrl());
+        List<String> others = new ArrayList<>();
+        for (String peer : properties.getPeers()) {
+            String url = trim(peer);
+            if (!url.isEmpty() && !url.equals(node) && !others.contains(url)) {
+                others.add(url);
+            }
+        }
+        this.peers = Collections.unmodifiableList(others);
+        if (!peers.isEmpty() && node.isEmpty()) {
+            throw new IllegalArgumentException("cluster.url is required when cluster.peers are set");
+        }
+        this.replication = Math.max(1, properties.getReplication());
+        this.quorum = properties.getQuorum() > 0 ? properties.getQuorum() : replication / 2 + 1;
+        this.virtualNodes = properties.getVirtualNodes();
+        this.failureTimeout = properties.getFailureTimeout();
+        this.secret = (properties.getSecret() == null ? "" : properties.getSecret()).getBytes(StandardCharsets.UTF_8);
+        if (!peers.isEmpty() && secret.length == 0) {
+            throw new IllegalArgumentException("cluster.secret is required when cluster.peers are set");
+        }
+        this.tracker = new QuorumTracker(properties.getObservationTtl());
+        this.ring = new HashRing(Collections.singleton(node), virtualNodes);
+
+        SimpleClientHttpRequestFactory requests = new SimpleClientHttpRequestFactory();
+        requests.setConnectTimeout(TIMEOUT);
+        requests.setReadTimeout(TIMEOUT);
+        this.rest = new RestTemplate(requests);
+
+        if (peers.isEmpty()) {
+            timer = null;
+            return;
+        }
+        CustomizableThreadFactory threads = new CustomizableThreadFactory("Cluster-");
+        threads.setDaemon(true);
+        timer = Executors.newScheduledThreadPool(2, threads);
+        timer.scheduleWithFixedDelay(this::heartbeat, 0, properties.getHeartbeat(), TimeUnit.MILLISECONDS);
+        timer.scheduleWithFixedDelay(this::push, PUSH_INTERVAL, PUSH_INTERVAL, TimeUnit.MILLISECONDS);
+        LOG.info("Node {} joining peers {}, replication {}, quorum {}", node, peers, replication, quorum);
+    }
+
+    private static String trim(String url) {
+        String u = url == null ? "" : url.trim();
+        return u.endsWith("/") ? u.substring(0, u.length() - 1) : u;
+    }
+
+    /**
+     * Is enabled boolean, true if there are peers.
+     *
+     * @return the boolean
+     */
+    public boolean isEnabled() {
+        return !peers.isEmpty();
+    }
+
+    /**
+     * Gets id of this node.
+     *
+     * @return the node
+     */
+    public String getNode() {
+        return node;
+    }
+
+    /**
+     * Sets the receiver of observations made by other nodes.
+     *
+     * @param receiver the receiver
+     */
+    public void setReceiver(Consumer<Observation> receiver) {
+        this.receiver = receiver;
+    }
+
+    /**
+     * Is assigned boolean, true if this node probes the endpoint.
+     *
+     * @param endpointId the endpoint id
+     * @return the boolean
+     */
+    public boolean isAssigned(int endpointId) {
+        return !isEnabled() || ring.owners(endpointId, replication).contains(node);
+    }
+
+    /**
+     * Records an observation of this node and queues it for the peers.
+     *
+     * @param observation the observation
+     */
+    public void record(Observation observation) {
+        if (!isEnabled()) {
+            return;
+        }
+        tracker.record(observation);
+        while (!outbox.offer(observation)) {
+            outbox.poll();
+        }
+    }
+
+    /**
+     * Decides whether the endpoint is online from the latest observations of its probing nodes.
+     *
+     * @param endpointId the endpoint id
+     * @param fallback   the decision if there are no fresh observations, the latest result
+     * @return the boolean
+     */
+    public boolean isOnline(int endpointId, boolean fallback) {
+        if (!isEnabled()) {
+            return fallback;
+        }
+        return tracker.isOnline(endpointId, ring.owners(endpointId, replication), quorum,
+                System.currentTimeMillis(), fallback);
+    }
+
+    /**
+     * Accepts observations sent by another node.
+     *
+     * @param observations the observations
+     * @param secret       the secret sent with them
+     * @return false if the secret does not match or this node is not part of a cluster
+     */
+    public boolean receive(List<Observation> observations, String secret) {
+        if (!isEnabled() || !matches(secret)) {
+            return false;
+        }
+        for (Observation o : observations) {
+            if (o.getNode() == null || o.getNode().equals(node)) {
+                continue;
+            }
+            tracker.record(o);
+            try {
+                receiver.accept(o);
+            } catch (RuntimeException ex) {
+                LOG.error("Observation of {} from {} failed: {}", o.getEndpointId(), o.getNode(), ex.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares digests of the secrets, so the time taken depends neither on the common prefix nor on the length.
+     */
+    private boolean matches(String secret) {
+        if (this.secret.length == 0 || secret == null) {
+            return false;
+        }
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            byte[] expected = sha.digest(this.secret);
+            return MessageDigest.isEqual(expected, sha.digest(secret.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void heartbeat() {
+        long now = System.currentTimeMillis();
+        for (String peer : peers) {
+            try {
+                rest.getForObject(peer + "/cluster", Map.class);
+                lastSeen.put(peer, now);
+            } catch (RestClientException ex) {
+                LOG.debug("Peer {} did not answer: {}", peer, ex.getMessage());
+            }
+        }
+
+        Set<String> alive = new TreeSet<>();
+        alive.add(node);
+        for (Map.Entry<String, Long> seen : lastSeen.entrySet()) {
+            if (now - seen.getValue() <= failureTimeout) {
+                alive.add(seen.getKey());
+            }
+        }
+        if (!ring.getNodes().equals(new ArrayList<>(alive))) {
+            ring = new HashRing(alive, virtualNodes);
+            LOG.info("Cluster members changed to {}", alive);
+        }
+    }
+
+    private void push() {
+        List<Observation> batch = new ArrayList<>();
+        outbox.drainTo(batch);
+        if (batch.isEmpty()) {
+            return;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(SECRET_HEADER, new String(secret, StandardCharsets.UTF_8));
+        HttpEntity<List<Observation>> request = new HttpEntity<>(batch, headers);
+        for (String member : ring.getNodes()) {
+            if (member.equals(node)) {
+                continue;
+            }
+            try {
+                rest.exchange(member + "/cluster/observations", HttpMethod.POST, request, Void.class);
+            } catch (RestClientException ex) {
+                LOG.debug("Could not send {} observations to {}: {}", batch.size(), member, ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Gets status.
+     *
+     * @return the status
+     */
+    public ClusterStatus getStatus() {
+        return new ClusterStatus(node, ring.getNodes(), peers, replication, quorum);
+    }
+
+    /**
+     * Stops the heartbeat and sending.
+     */
+    @PreDestroy
+    public void close() {
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+    }
+
+}
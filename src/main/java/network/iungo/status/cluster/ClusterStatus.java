@@ -0,0 +1,102 @@
+/*
+ * ClusterStatus.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.cluster;
+
+import java.util.List;
+
+/**
+ * View of the cluster from one node.
+ */
+public class ClusterStatus {
+
+    private final String node;
+    private final List<String> members;
+    private final List<String> peers;
+    private final int replication;
+    private final int quorum;
+
+    /**
+     * Instantiates a new Cluster status.
+     *
+     * @param node        the node
+     * @param members     the nodes on the ring
+     * @param peers       the configured peers
+     * @param replication the replication
+     * @param quorum      the quorum
+     */
+    ClusterStatus(String node, List<String> members, List<String> peers, int replication, int quorum) {
+        this.node = node;
+        this.members = members;
+        this.peers = peers;
+        this.replication = replication;
+        this.quorum = quorum;
+    }
+
+    /**
+     * Gets node.
+     *
+     * @return the node
+     */
+    public String getNode() {
+        return node;
+    }
+
+    /**
+     * Gets nodes alive and on the ring, this one included.
+     *
+     * @return the members
+     */
+    public List<String> getMembers() {
+        return members;
+    }
+
+    /**
+     * Gets configured peers.
+     *
+     * @return the peers
+     */
+    public List<String> getPeers() {
+        return peers;
+    }
+
+    /**
+     * Gets replication.
+     *
+     * @return the replication
+     */
+    public int getReplication() {
+        return replication;
+    }
+
+    /**
+     * Gets quorum.
+     *
+     * @return the quorum
+     */
+    public int getQuorum() {
+        return quorum;
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * HashRing.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Immutable consistent hash ring of nodes.
+ * <p>
+ * Every node is placed on the ring at a number of virtual points, a key belongs to the nodes
+ * met first walking clockwise from its hash. When a node joins or leaves only the keys
+ * next to its points move, about one in (number of nodes) of them.
+ */
+public class HashRing {
+
+    private final List<String> nodes;
+    private final long[] points;
+    private final String[] owners;
+
+    /**
+     * Instantiates a new Hash ring.
+     *
+     * @param nodes        the nodes
+     * @param virtualNodes the number of points of every node
+     */
+    public HashRing(Collection<String> nodes, int virtualNodes) {
+        this.nodes = Collections.unmodifiableList(new ArrayList<>(new TreeSet<>(nodes)));
+
+        int size = this.nodes.size() * virtualNodes;
+        long[][] placed = new long[size][];
+        int i = 0;
+        for (int n = 0; n < this.nodes.size(); n++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                placed[i++] = new long[]{hash(this.nodes.get(n) + "#" + v), n};
+            }
+        }
+        Arrays.sort(placed, (a, b) -> Long.compare(a[0], b[0]));
+
+        points = new long[size];
+        owners = new String[size];
+        for (i = 0; i < size; i++) {
+            points[i] = placed[i][0];
+            owners[i] = this.nodes.get((int) placed[i][1]);
+        }
+    }
+
+    /**
+     * Gets the distinct nodes a key belongs to, in ring order.
+     *
+     * @param key the key
+     * @param n   the number of nodes wanted
+     * @return at most n nodes, fewer if the ring has fewer
+     */
+    public List<String> owners(int key, int n) {
+        int wanted = Math.min(n, nodes.size());
+        List<String> result = new ArrayList<>(wanted);
+        if (wanted == 0) {
+            return result;
+        }
+        int i = Arrays.binarySearch(points, mix(key));
+        if (i < 0) {
+            i = -i - 1;
+        }
+        for (int steps = 0; result.size() < wanted && steps < points.length; steps++, i++) {
+            String owner = owners[i % points.length];
+            if (!result.contains(owner)) {
+                result.add(owner);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the nodes, sorted.
+     *
+     * @return the nodes
+     */
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    static long hash(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    static long mix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Observation.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.cluster;
+
+/**
+ * Result of one probe of an endpoint as seen by one node, exchanged between the nodes.
+ */
+public class Observation {
+
+    private int endpointId;
+    private String node;
+    private long checked;
+    private boolean online;
+    private int status;
+    private int latency = -1;
+    private String message = "";
+
+    /**
+     * Instantiates a new Observation.
+     */
+    public Observation() {
+    }
+
+    /**
+     * Instantiates a new Observation.
+     *
+     * @param endpointId the endpoint id
+     * @param node       the node which probed
+     * @param checked    the time of the probe in milliseconds
+     * @param online     the raw result of the probe
+     * @param status     the HTTP status, 0 if there was no response
+     * @param latency    the latency in milliseconds, -1 if there was no response
+     * @param message    the failure message, empty if the probe succeeded
+     */
+    public Observation(int endpointId, String node, long checked, boolean online, int status, int latency,
+                       String message) {
+        this.endpointId = endpointId;
+        this.node = node;
+        this.checked = checked;
+        this.online = online;
+        this.status = status;
+        this.latency = latency;
+        this.message = message;
+    }
+
+    /**
+     * Gets endpoint id.
+     *
+     * @return the endpoint id
+     */
+    public int getEndpointId() {
+        return endpointId;
+    }
+
+    /**
+     * Sets endpoint id.
+     *
+     * @param endpointId the endpoint id
+     */
+    public void setEndpointId(int endpointId) {
+        this.endpointId = endpointId;
+    }
+
+    /**
+     * Gets node.
+     *
+     * @return the node
+     */
+    public String getNode() {
+        return node;
+    }
+
+    /**
+     * Sets node.
+     *
+     * @param node the node
+     */
+    public void setNode(String node) {
+        this.node = node;
+    }
+
+    /**
+     * Gets checked.
+     *
+     * @return the checked
+     */
+    public long getChecked() {
+        return checked;
+    }
+
+    /**
+     * Sets checked.
+     *
+     * @param checked the checked
+     */
+    public void setChecked(long checked) {
+        this.checked = checked;
+    }
+
+    /**
+     * Is online boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isOnline() {
+        return online;
+    }
+
+    /**
+     * Sets online.
+     *
+     * @param online the online
+     */
+    public void setOnline(boolean online) {
+        this.online = online;
+    }
+
+    /**
+     * Gets status.
+     *
+     * @return the status
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Sets status.
+     *
+     * @param status the status
+     */
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    /**
+     * Gets latency.
+     *
+     * @return the latency
+     */
+    public int getLatency() {
+        return latency;
+    }
+
+    /**
+     * Sets latency.
+     *
+     * @param latency the latency
+     */
+    public void setLatency(int latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * Gets message.
+     *
+     * @return the message
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Sets message.
+     *
+     * @param message the message
+     */
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * QuorumTracker.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.cluster;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latest observation of every endpoint from every node, and the quorum decision made of them.
+ */
+public class QuorumTracker {
+
+    private final long ttl;
+    private final Map<Integer, Map<String, Observation>> latest = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new Quorum tracker.
+     *
+     * @param ttl time in milliseconds an observation counts
+     */
+    public QuorumTracker(long ttl) {
+        this.ttl = ttl;
+    }
+
+    /**
+     * Records an observation, older observations than the known one of the same node are ignored.
+     *
+     * @param observation the observation
+     */
+    public void record(Observation observation) {
+        latest.computeIfAbsent(observation.getEndpointId(), id -> new ConcurrentHashMap<>())
+                .merge(observation.getNode(), observation,
+                        (known, o) -> o.getChecked() >= known.getChecked() ? o : known);
+    }
+
+    /**
+     * Decides whether an endpoint is online: it is offline when at least quorum of its owners
+     * saw it offline in their latest fresh observation.
+     *
+     * @param endpointId the endpoint id
+     * @param owners     the nodes probing the endpoint
+     * @param quorum     the number of offline votes needed, capped at the number of owners
+     * @param now        the current time in milliseconds
+     * @param fallback   the decision if no owner has a fresh observation
+     * @return the boolean
+     */
+    public boolean isOnline(int endpointId, List<String> owners, int quorum, long now, boolean fallback) {
+        Map<String, Observation> observations = latest.get(endpointId);
+        if (observations == null) {
+            return fallback;
+        }
+        int votes = 0;
+        int offline = 0;
+        for (String owner : owners) {
+            Observation o = observations.get(owner);
+            if (o != null && now - o.getChecked() <= ttl) {
+                votes++;
+                if (!o.isOnline()) {
+                    offline++;
+                }
+            }
+        }
+        if (votes == 0) {
+            return fallback;
+        }
+        return offline < Math.min(quorum, owners.size());
+    }
+
+}
@@ -0,0 +1,328 @@
+/*
+ * CommitCube.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.commits;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Commit counts rolled up by repository, author and zone offset.
+ * <p>
+ * Every combination seen is one roll-up, so their number does not grow with the commits. A roll-up keeps
+ * its commits by local day of week and hour, which answers queries without a range of days, and by local
+ * day and hour for the days it has commits on, sorted by day, which answers ranges of days by a binary search.
+ * Commits are appended as they come and sorted into the days by the next query over a range of days,
+ * so a sync adding a long history newest first costs one sort instead of an insert per day.
+ * Each repository, author and zone lists its roll-ups, a query only visits the roll-ups of the shortest list
+ * of its fixed dimensions and sums them into a punchcard. The viewer zone is applied to the day and hour.
+ * <p>
+ * Roll-ups keep hours, not minutes, so for a viewer whose offset differs from the commit offset by a fraction
+ * of an hour the commits of an hour are placed as if made in the middle of it. All methods are thread safe.
+ */
+public class CommitCube {
+
+    private final static int ZONE_BITS = 8;
+    private final static int AUTHOR_BITS = 16;
+    private final static int REPOSITORY_BITS = 16;
+
+    private final static int AUTHOR_SHIFT = ZONE_BITS;
+    private final static int REPOSITORY_SHIFT = AUTHOR_SHIFT + AUTHOR_BITS;
+
+    private final static int DAYS = 7;
+    private final static int HOURS = 24;
+    private final static int MINUTES_PER_DAY = 24 * 60;
+    private final static int MINUTES_PER_WEEK = DAYS * MINUTES_PER_DAY;
+    private final static int SECONDS_PER_DAY = 24 * 60 * 60;
+    private final static int EPOCH_DAY_OF_WEEK = 3;
+
+    /**
+     * Zone offsets are within 18 hours, a viewer day takes commits from at most two local days around it.
+     */
+    private final static int MAX_DAY_SHIFT = 2;
+
+    private final Map<String, Integer> repositories = new HashMap<>();
+    private final Map<String, Integer> authors = new HashMap<>();
+    private final Map<Integer, Integer> zones = new HashMap<>();
+    private final List<Integer> zoneOffsets = new ArrayList<>();
+
+    private final Map<Long, Rollup> rollups = new HashMap<>();
+    private final List<Rollup> all = new ArrayList<>();
+    private final List<List<Rollup>> byRepository = new ArrayList<>();
+    private final List<List<Rollup>> byAuthor = new ArrayList<>();
+    private final List<List<Rollup>> byZone = new ArrayList<>();
+
+    /**
+     * Counts a commit.
+     *
+     * @param repository    the repository name
+     * @param author        the author name
+     * @param epochSecond   commit time in epoch seconds
+     * @param offsetSeconds zone offset of the commit time in seconds
+     * @return false if the commit is not counted, there are too many different zones
+     */
+    public synchronized boolean add(String repository, String author, long epochSecond, int offsetSeconds) {
+        int repositoryId = id(repositories, repository, REPOSITORY_BITS);
+        int authorId = id(authors, author, AUTHOR_BITS);
+        int zoneId = zone(offsetSeconds);
+        if (zoneId < 0) {
+            return false;
+        }
+
+        long key = (long) repositoryId << REPOSITORY_SHIFT | (long) authorId << AUTHOR_SHIFT | zoneId;
+        Rollup rollup = rollups.get(key);
+        if (rollup == null) {
+            rollup = new Rollup(repositoryId, authorId, zoneId);
+            rollups.put(key, rollup);
+            all.add(rollup);
+            list(byRepository, repositoryId).add(rollup);
+            list(byAuthor, authorId).add(rollup);
+            list(byZone, zoneId).add(rollup);
+        }
+        long local = epochSecond + offsetSeconds;
+        rollup.add(Math.floorDiv(local, SECONDS_PER_DAY), (int) Math.floorMod(local, SECONDS_PER_DAY) / 3600);
+        return true;
+    }
+
+    /**
+     * Sums the commits matching the query by day of week and hour of day.
+     *
+     * @param query the query
+     * @return the counts, Monday first, hour 0 first
+     */
+    public synchronized int[][] query(CommitQuery query) {
+        int[][] punchcard = new int[DAYS][HOURS];
+        List<Rollup> candidates = all;
+        int repository = -1;
+        int author = -1;
+        int zone = -1;
+        if (query.getRepo() != null) {
+            Integer id = repositories.get(query.getRepo());
+            if (id == null) {
+                return punchcard;
+            }
+            repository = id;
+            candidates = shorter(candidates, byRepository.get(id));
+        }
+        if (query.getAuthor() != null) {
+            Integer id = authors.get(query.getAuthor());
+            if (id == null) {
+                return punchcard;
+            }
+            author = id;
+            candidates = shorter(candidates, byAuthor.get(id));
+        }
+        if (query.getZone() != null) {
+            Integer id = zones.get(query.getZone().getTotalSeconds());
+            if (id == null) {
+                return punchcard;
+            }
+            zone = id;
+            candidates = shorter(candidates, byZone.get(id));
+        }
+        boolean ranged = query.getFrom() != null || query.getTo() != null;
+        long from = query.getFrom() == null ? Long.MIN_VALUE + MAX_DAY_SHIFT : query.getFrom().toEpochDay();
+        long to = query.getTo() == null ? Long.MAX_VALUE - MAX_DAY_SHIFT : query.getTo().toEpochDay();
+
+        for (Rollup r : candidates) {
+            if (repository >= 0 && r.repository != repository || author >= 0 && r.author != author
+                    || zone >= 0 && r.zone != zone) {
+                continue;
+            }
+            int shift = query.getTz() == null ? 0
+                    : 30 + (query.getTz().getTotalSeconds() - zoneOffsets.get(r.zone)) / 60;
+            if (ranged) {
+                r.sum(from, to, shift, punchcard);
+            } else {
+                r.sum(shift, punchcard);
+            }
+        }
+        return punchcard;
+    }
+
+    /**
+     * Gets number of roll-ups.
+     *
+     * @return the size
+     */
+    public synchronized int size() {
+        return all.size();
+    }
+
+    private static List<Rollup> shorter(List<Rollup> a, List<Rollup> b) {
+        return b.size() < a.size() ? b : a;
+    }
+
+    private static List<Rollup> list(List<List<Rollup>> lists, int id) {
+        while (lists.size() <= id) {
+            lists.add(new ArrayList<>());
+        }
+        return lists.get(id);
+    }
+
+    /**
+     * Gets the id of a name, names seen once all ids but the last are taken share it as {@link CommitStore#OTHER}.
+     */
+    private static int id(Map<String, Integer> ids, String name, int bits) {
+        name = name == null ? "" : name;
+        Integer id = ids.get(name);
+        if (id == null && ids.size() >= (1 << bits) - 1) {
+            name = CommitStore.OTHER;
+            id = ids.get(name);
+        }
+        if (id == null) {
+            id = ids.size();
+            ids.put(name, id);
+        }
+        return id;
+    }
+
+    private int zone(int offsetSeconds) {
+        Integer id = zones.get(offsetSeconds);
+        if (id == null) {
+            if (zones.size() == 1 << ZONE_BITS) {
+                return -1;
+            }
+            id = zones.size();
+            zones.put(offsetSeconds, id);
+            zoneOffsets.add(offsetSeconds);
+        }
+        return id;
+    }
+
+    /**
+     * Commits of one repository, author and zone.
+     */
+    private static final class Rollup {
+
+        private final int repository;
+        private final int author;
+        private final int zone;
+
+        /**
+         * Counts by local day of week, Monday first, and hour.
+         */
+        private final int[] week = new int[DAYS * HOURS];
+
+        /**
+         * Local epoch days with commits in ascending order, and their counts by hour.
+         */
+        private long[] days = new long[0];
+        private int[] hours = new int[0];
+        private int size;
+
+        /**
+         * Local epoch hours of the commits not yet sorted into the days.
+         */
+        private long[] pending = new long[4];
+        private int added;
+
+        private Rollup(int repository, int author, int zone) {
+            this.repository = repository;
+            this.author = author;
+            this.zone = zone;
+        }
+
+        private void add(long day, int hour) {
+            week[(int) Math.floorMod(day + EPOCH_DAY_OF_WEEK, DAYS) * HOURS + hour]++;
+            if (added == pending.length) {
+                pending = Arrays.copyOf(pending, added * 2);
+            }
+            pending[added++] = day * HOURS + hour;
+        }
+
+        /**
+         * Sorts the pending commits and merges them into the days.
+         */
+        private void settle() {
+            if (added == 0) {
+                return;
+            }
+            Arrays.sort(pending, 0, added);
+            long[] merged = new long[size + added];
+            int[] counts = new int[(size + added) * HOURS];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < size || j < added) {
+                long day;
+                if (j == added || i < size && days[i] <= Math.floorDiv(pending[j], HOURS)) {
+                    day = days[i];
+                    System.arraycopy(hours, i * HOURS, counts, n * HOURS, HOURS);
+                    i++;
+                } else {
+                    day = Math.floorDiv(pending[j], HOURS);
+                }
+                for (; j < added && Math.floorDiv(pending[j], HOURS) == day; j++) {
+                    counts[n * HOURS + (int) Math.floorMod(pending[j], HOURS)]++;
+                }
+                merged[n++] = day;
+            }
+            days = merged;
+            hours = counts;
+            size = n;
+            added = 0;
+        }
+
+        /**
+         * Adds all commits, moved by the shift in minutes, to the punchcard.
+         */
+        private void sum(int shift, int[][] punchcard) {
+            for (int c = 0; c < week.length; c++) {
+                if (week[c] == 0) {
+                    continue;
+                }
+                int minutes = Math.floorMod(c / HOURS * MINUTES_PER_DAY + c % HOURS * 60 + shift, MINUTES_PER_WEEK);
+                punchcard[minutes / MINUTES_PER_DAY][minutes % MINUTES_PER_DAY / 60] += week[c];
+            }
+        }
+
+        /**
+         * Adds the commits which fall on the days from and to, inclusive, once moved by the shift in minutes.
+         */
+        private void sum(long from, long to, int shift, int[][] punchcard) {
+            settle();
+            int i = Arrays.binarySearch(days, 0, size, from - MAX_DAY_SHIFT);
+            for (i = i < 0 ? -i - 1 : i; i < size && days[i] <= to + MAX_DAY_SHIFT; i++) {
+                for (int h = 0; h < HOURS; h++) {
+                    int count = hours[i * HOURS + h];
+                    if (count == 0) {
+                        continue;
+                    }
+                    long minutes = days[i] * MINUTES_PER_DAY + h * 60 + shift;
+                    long day = Math.floorDiv(minutes, MINUTES_PER_DAY);
+                    if (day >= from && day <= to) {
+                        punchcard[(int) Math.floorMod(day + EPOCH_DAY_OF_WEEK, DAYS)]
+                                [(int) Math.floorMod(minutes, MINUTES_PER_DAY) / 60] += count;
+                    }
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,426 @@
+/*
+ * CommitLog.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.commits;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of commits and repository cursors.
+ * <p>
+ * Layout: 8 byte header (magic, version) followed by records of a length, a type, the payload and
+ * a CRC32 of type and payload. Repository and author names are written once, commits refer to them
+ * by the order they were written in as unsigned 16 bit ids, names seen once all ids are taken are written
+ * as {@link CommitStore#OTHER}. A cursor is written after the commits it covers, the backfill
+ * state of a repository after the cursor it belongs to.
+ * <p>
+ * When opened the file is memory mapped and replayed in one pass. Records after the first incomplete
+ * or damaged one, left by a crash while appending, are cut off. Appended records are collected
+ * in memory until {@link #flush()} writes and forces them, so they are lost together with the cursor
+ * following them and refetched on the next sync.
+ */
+public class CommitLog implements Closeable {
+
+    private static Logger LOG = LoggerFactory.getLogger(CommitLog.class);
+
+    /**
+     * Receives the records of the log in the order they were appended.
+     */
+    public interface Visitor {
+
+        /**
+         * Receives a commit.
+         *
+         * @param repository    the repository name
+         * @param author        the author name
+         * @param hash          the hash
+         * @param epochSecond   commit time in epoch seconds
+         * @param offsetSeconds zone offset of the commit time in seconds
+         */
+        void commit(String repository, String author, String hash, long epochSecond, int offsetSeconds);
+
+        /**
+         * Receives a repository cursor.
+         *
+         * @param repository    the repository name
+         * @param hash          hash of the newest commit
+         * @param epochSecond   time of the newest commit in epoch seconds
+         * @param offsetSeconds zone offset of the newest commit time in seconds
+         * @param synced        time of the sync in milliseconds
+         */
+        void cursor(String repository, String hash, long epochSecond, int offsetSeconds, long synced);
+
+        /**
+         * Receives the backfill state of a repository.
+         *
+         * @param repository the repository name
+         * @param url        url of the next page to backfill from, null once the history is complete
+         * @param until      hash of the commit the backfill stops at, null to read up to the last page
+         */
+        void backfill(String repository, String url, String until);
+
+    }
+
+    private final static int MAGIC = 0x434c4f47;
+    private final static int VERSION = 1;
+    private final static int HEADER_SIZE = 8;
+
+    private final static byte REPOSITORY = 1;
+    private final static byte AUTHOR = 2;
+    private final static byte COMMIT = 3;
+    private final static byte CURSOR = 4;
+    private final static byte BACKFILL = 5;
+
+    private final static int HASH_BYTES = 20;
+    private final static int MAX_NAME_BYTES = 1024;
+    private final static int MAX_URL_BYTES = 8192;
+    private final static int MAX_NAMES = Character.MAX_VALUE;
+    private final static char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Path path;
+    private final FileChannel channel;
+
+    private final Map<String, Integer> repositoryIds = new HashMap<>();
+    private final Map<String, Integer> authorIds = new HashMap<>();
+
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+
+    private CommitLog(Path path, FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+    }
+
+    /**
+     * Opens or creates the log and replays it.
+     *
+     * @param path    the path
+     * @param visitor receives every stored commit and cursor
+     * @return the log, appending after the last complete record
+     * @throws IOException if the file cannot be read or is not a commit log
+     */
+    public static CommitLog open(Path path, Visitor visitor) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            CommitLog log = new CommitLog(path, channel);
+            long size = channel.size();
+            if (size == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+                header.flip();
+                channel.write(header, 0);
+                channel.force(true);
+                size = HEADER_SIZE;
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Commit log larger than 2 GB: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (size < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not a commit log: " + path);
+            }
+            long end = log.replay(buffer, visitor);
+            if (end < size) {
+                LOG.warn("Cutting {} bytes of incomplete records off {}", size - end, path);
+                channel.truncate(end);
+            }
+            channel.position(end);
+            return log;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads records until the end or the first incomplete or damaged one.
+     *
+     * @return the end of the last complete record
+     */
+    private int replay(ByteBuffer buffer, Visitor visitor) {
+        List<String> repositories = new ArrayList<>();
+        List<String> authors = new ArrayList<>();
+        int position = HEADER_SIZE;
+        while (buffer.limit() - position >= 4) {
+            int length = buffer.getInt(position);
+            if (length < 1 || length > buffer.limit() - position - 8) {
+                break;
+            }
+            ByteBuffer record = (ByteBuffer) ((ByteBuffer) buffer.duplicate().position(position + 4))
+                    .limit(position + 4 + length);
+            crc.reset();
+            crc.update(record.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(position + 4 + length)) {
+                break;
+            }
+            try {
+                if (!read(record.slice(), repositories, authors, visitor)) {
+                    break;
+                }
+            } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+                break;
+            }
+            position += length + 8;
+        }
+        return position;
+    }
+
+    private boolean read(ByteBuffer record, List<String> repositories, List<String> authors, Visitor visitor) {
+        switch (record.get()) {
+            case REPOSITORY:
+                return name(repositoryIds, repositories, readName(record));
+            case AUTHOR:
+                return name(authorIds, authors, readName(record));
+            case COMMIT:
+                String repository = repositories.get(record.getChar());
+                String author = authors.get(record.getChar());
+                visitor.commit(repository, author, readHash(record), record.getLong(), record.getInt());
+                return true;
+            case CURSOR:
+                visitor.cursor(repositories.get(record.getChar()), readHash(record), record.getLong(),
+                        record.getInt(), record.getLong());
+                return true;
+            case BACKFILL:
+                repository = repositories.get(record.getChar());
+                String url = readName(record);
+                visitor.backfill(repository, url.isEmpty() ? null : url, record.get() == 0 ? null : readHash(record));
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean name(Map<String, Integer> ids, List<String> names, String name) {
+        if (ids.containsKey(name)) {
+            return false;
+        }
+        ids.put(name, names.size());
+        names.add(name);
+        return true;
+    }
+
+    /**
+     * Appends a commit, the hash must be 40 hex digits.
+     *
+     * @param repository    the repository name
+     * @param author        the author name
+     * @param hash          the hash
+     * @param epochSecond   commit time in epoch seconds
+     * @param offsetSeconds zone offset of the commit time in seconds
+     */
+    public synchronized void appendCommit(String repository, String author, String hash, long epochSecond,
+                                          int offsetSeconds) {
+        checkHash(hash);
+        int repositoryId = id(repositoryIds, REPOSITORY, repository);
+        int authorId = id(authorIds, AUTHOR, author);
+        int start = start(COMMIT, 4 + HASH_BYTES + 12);
+        pending.putChar((char) repositoryId).putChar((char) authorId);
+        putHash(hash);
+        pending.putLong(epochSecond).putInt(offsetSeconds);
+        finish(start);
+    }
+
+    /**
+     * Appends a repository cursor, the hash must be 40 hex digits.
+     *
+     * @param repository    the repository name
+     * @param hash          hash of the newest commit
+     * @param epochSecond   time of the newest commit in epoch seconds
+     * @param offsetSeconds zone offset of the newest commit time in seconds
+     * @param synced        time of the sync in milliseconds
+     */
+    public synchronized void appendCursor(String repository, String hash, long epochSecond, int offsetSeconds,
+                                          long synced) {
+        checkHash(hash);
+        int repositoryId = id(repositoryIds, REPOSITORY, repository);
+        int start = start(CURSOR, 2 + HASH_BYTES + 20);
+        pending.putChar((char) repositoryId);
+        putHash(hash);
+        pending.putLong(epochSecond).putInt(offsetSeconds).putLong(synced);
+        finish(start);
+    }
+
+    /**
+     * Appends the backfill state of a repository.
+     *
+     * @param repository the repository name
+     * @param url        url of the next page to backfill from, null once the history is complete
+     * @param until      hash of the commit the backfill stops at, 40 hex digits, or null to read up to the last page
+     */
+    public synchronized void appendBackfill(String repository, String url, String until) {
+        if (until != null) {
+            checkHash(until);
+        }
+        byte[] bytes = (url == null ? "" : url).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_URL_BYTES) {
+            throw new IllegalArgumentException("Url longer than " + MAX_URL_BYTES + " bytes: " + url);
+        }
+        int repositoryId = id(repositoryIds, REPOSITORY, repository);
+        int start = start(BACKFILL, 2 + 2 + bytes.length + 1 + (until == null ? 0 : HASH_BYTES));
+        pending.putChar((char) repositoryId).putShort((short) bytes.length).put(bytes);
+        pending.put((byte) (until == null ? 0 : 1));
+        if (until != null) {
+            putHash(until);
+        }
+        finish(start);
+    }
+
+    /**
+     * Writes the appended records and forces them to the disk.
+     *
+     * @throws IOException the io exception
+     */
+    public synchronized void flush() throws IOException {
+        pending.flip();
+        try {
+            while (pending.hasRemaining()) {
+                channel.write(pending);
+            }
+        } finally {
+            pending.compact();
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Gets path.
+     *
+     * @return the path
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Flushes and closes the file.
+     *
+     * @throws IOException the io exception
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private int id(Map<String, Integer> ids, byte type, String name) {
+        name = name == null ? "" : name;
+        Integer id = ids.get(name);
+        if (id == null && ids.size() >= MAX_NAMES - 1) {
+            name = CommitStore.OTHER;
+            id = ids.get(name);
+        }
+        if (id == null) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > MAX_NAME_BYTES) {
+                throw new IllegalArgumentException("Name longer than " + MAX_NAME_BYTES + " bytes: " + name);
+            }
+            int start = start(type, 2 + bytes.length);
+            pending.putShort((short) bytes.length).put(bytes);
+            finish(start);
+            id = ids.size();
+            ids.put(name, id);
+        }
+        return id;
+    }
+
+    /**
+     * Reserves room for a record and writes its length and type.
+     *
+     * @return the position of the record
+     */
+    private int start(byte type, int payload) {
+        int length = 1 + payload;
+        if (pending.remaining() < length + 8) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + length + 8));
+            pending.flip();
+            pending = larger.put(pending);
+        }
+        int start = pending.position();
+        pending.putInt(length).put(type);
+        return start;
+    }
+
+    /**
+     * Writes the CRC32 of type and payload of the record just written.
+     */
+    private void finish(int start) {
+        crc.reset();
+        crc.update(pending.array(), start + 4, pending.position() - start - 4);
+        pending.putInt((int) crc.getValue());
+    }
+
+    private static String readName(ByteBuffer record) {
+        byte[] bytes = new byte[record.getShort() & 0xffff];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void checkHash(String hash) {
+        if (!CommitStore.isHash(hash)) {
+            throw new IllegalArgumentException("Not a commit hash: " + hash);
+        }
+    }
+
+    private void putHash(String hash) {
+        for (int i = 0; i < HASH_BYTES; i++) {
+            int high = Character.digit(hash.charAt(2 * i), 16);
+            int low = Character.digit(hash.charAt(2 * i + 1), 16);
+            pending.put((byte) (high << 4 | low));
+        }
+    }
+
+    private static String readHash(ByteBuffer record) {
+        char[] hex = new char[2 * HASH_BYTES];
+        for (int i = 0; i < HASH_BYTES; i++) {
+            int b = record.get() & 0xff;
+            hex[2 * i] = HEX[b >>> 4];
+            hex[2 * i + 1] = HEX[b & 0xf];
+        }
+        return new String(hex);
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * CommitQuery.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.commits;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Filters of a punchcard query, unset filters match all commits.
+ */
+public class CommitQuery {
+
+    private String repo;
+
+    private String author;
+
+    private ZoneOffset zone;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    private ZoneOffset tz;
+
+    /**
+     * Gets repository.
+     *
+     * @return the repo
+     */
+    public String getRepo() {
+        return repo;
+    }
+
+    /**
+     * Sets repo.
+     *
+     * @param repo the repo
+     */
+    public void setRepo(String repo) {
+        this.repo = repo;
+    }
+
+    /**
+     * Gets author name.
+     *
+     * @return the author
+     */
+    public String getAuthor() {
+        return author;
+    }
+
+    /**
+     * Sets author.
+     *
+     * @param author the author
+     */
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    /**
+     * Gets zone offset the commits were made in.
+     *
+     * @return the zone
+     */
+    public ZoneOffset getZone() {
+        return zone;
+    }
+
+    /**
+     * Sets zone.
+     *
+     * @param zone the zone
+     */
+    public void setZone(ZoneOffset zone) {
+        this.zone = zone;
+    }
+
+    /**
+     * Gets first day.
+     *
+     * @return the from
+     */
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    /**
+     * Sets from.
+     *
+     * @param from the from
+     */
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    /**
+     * Gets last day, inclusive.
+     *
+     * @return the to
+     */
+    public LocalDate getTo() {
+        return to;
+    }
+
+    /**
+     * Sets to.
+     *
+     * @param to the to
+     */
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    /**
+     * Gets zone offset of the viewer the days and hours are shown in, null for the local time of every commit.
+     *
+     * @return the tz
+     */
+    public ZoneOffset getTz() {
+        return tz;
+    }
+
+    /**
+     * Sets tz.
+     *
+     * @param tz the tz
+     */
+    public void setTz(ZoneOffset tz) {
+        this.tz = tz;
+    }
+
+    /**
+     * Is unfiltered boolean.
+     *
+     * @return true if no filter is set
+     */
+    public boolean isUnfiltered() {
+        return repo == null && author == null && zone == null && from == null && to == null && tz == null;
+    }
+
+}
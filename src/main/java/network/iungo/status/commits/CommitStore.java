@@ -0,0 +1,454 @@
+/*
+ * CommitStore.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.commits;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact in-memory store of commits, one primitive array per column.
+ * <p>
+ * A commit takes about 40 bytes: the 160 bit hash packed into two longs and an int,
+ * epoch seconds, the zone offset in minutes, repository and author ids and two slots of the hash index.
+ * The index is an open addressing table with linear probing, kept at most half full.
+ * Messages are optional and kept in a separate column only when enabled.
+ * Repository and author ids are unsigned 16 bit, names seen after the first 65534 share the {@link #OTHER} id.
+ * Commits are never removed. All methods are thread safe.
+ */
+public class CommitStore {
+
+    /**
+     * Visits commits in insertion order.
+     */
+    @FunctionalInterface
+    public interface Visitor {
+
+        /**
+         * Visits one commit.
+         *
+         * @param epochSecond   commit time in epoch seconds
+         * @param offsetSeconds zone offset of the commit time in seconds
+         * @param repository    repository id
+         * @param author        author id
+         */
+        void visit(long epochSecond, int offsetSeconds, int repository, int author);
+
+    }
+
+    /**
+     * The name shared by repositories or authors seen once all ids are taken.
+     */
+    public final static String OTHER = "(other)";
+
+    private final static int HASH_LENGTH = 40;
+    private final static int INITIAL_CAPACITY = 1024;
+
+    private final boolean keepMessages;
+
+    private final Names repositoryNames = new Names();
+    private final Names authorNames = new Names();
+
+    private long[] hashHigh = new long[INITIAL_CAPACITY];
+    private long[] hashMiddle = new long[INITIAL_CAPACITY];
+    private int[] hashLow = new int[INITIAL_CAPACITY];
+    private long[] seconds = new long[INITIAL_CAPACITY];
+    private short[] offsets = new short[INITIAL_CAPACITY];
+    private char[] repositories = new char[INITIAL_CAPACITY];
+    private char[] authors = new char[INITIAL_CAPACITY];
+    private String[] messages;
+
+    private int[] index = new int[INITIAL_CAPACITY * 2];
+    private int size;
+
+    /**
+     * Instantiates a new Commit store.
+     *
+     * @param keepMessages whether commit messages are kept
+     */
+    public CommitStore(boolean keepMessages) {
+        this.keepMessages = keepMessages;
+        if (keepMessages) {
+            messages = new String[INITIAL_CAPACITY];
+        }
+    }
+
+    /**
+     * Adds a commit unless its hash is already stored.
+     *
+     * @param repository    the repository name
+     * @param author        the author name
+     * @param hash          the 40 hex digit hash
+     * @param epochSecond   commit time in epoch seconds
+     * @param offsetSeconds zone offset of the commit time in seconds
+     * @param message       the message, ignored unless messages are kept
+     * @return true if the commit was added
+     * @throws IllegalArgumentException if the hash is not 40 hex digits
+     */
+    public synchronized boolean add(String repository, String author, String hash, long epochSecond,
+                                    int offsetSeconds, String message) {
+        return insert(parse(hash, 0, 16), parse(hash, 16, 32), (int) parse(hash, 32, 40), epochSecond,
+                (short) (offsetSeconds / 60), repositoryNames.id(repository), authorNames.id(author), message);
+    }
+
+    private boolean insert(long high, long middle, int low, long epochSecond, short offset, int repository,
+                           int author, String message) {
+        int slot = find(high, middle, low);
+        if (index[slot] != 0) {
+            return false;
+        }
+        if (size == seconds.length) {
+            grow();
+        }
+        hashHigh[size] = high;
+        hashMiddle[size] = middle;
+        hashLow[size] = low;
+        seconds[size] = epochSecond;
+        offsets[size] = offset;
+        repositories[size] = (char) repository;
+        authors[size] = (char) author;
+        if (keepMessages) {
+            messages[size] = message;
+        }
+        size++;
+        index[slot] = size;
+        if (size * 2 > index.length) {
+            rehash(index.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a commit is stored.
+     *
+     * @param hash the hash
+     * @return true if stored, false also for hashes which are not 40 hex digits
+     */
+    public synchronized boolean contains(String hash) {
+        if (!isHash(hash)) {
+            return false;
+        }
+        return index[find(parse(hash, 0, 16), parse(hash, 16, 32), (int) parse(hash, 32, 40))] != 0;
+    }
+
+    /**
+     * Visits all commits, adding is blocked meanwhile.
+     *
+     * @param visitor the visitor
+     */
+    public synchronized void forEach(Visitor visitor) {
+        for (int i = 0; i < size; i++) {
+            visitor.visit(seconds[i], offsets[i] * 60, repositories[i], authors[i]);
+        }
+    }
+
+    /**
+     * Gets number of commits.
+     *
+     * @return the size
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Gets hash of the i-th commit.
+     *
+     * @param i the insertion index
+     * @return the hash
+     */
+    public synchronized String getHash(int i) {
+        checkIndex(i);
+        return hex(hashHigh[i], 16) + hex(hashMiddle[i], 16) + hex(hashLow[i] & 0xffffffffL, 8);
+    }
+
+    /**
+     * Gets message of the i-th commit.
+     *
+     * @param i the insertion index
+     * @return the message, null if messages are not kept
+     */
+    public synchronized String getMessage(int i) {
+        checkIndex(i);
+        return keepMessages ? messages[i] : null;
+    }
+
+    /**
+     * Gets name of a repository.
+     *
+     * @param id the repository id
+     * @return the name
+     */
+    public synchronized String getRepository(int id) {
+        return repositoryNames.get(id);
+    }
+
+    /**
+     * Gets name of an author.
+     *
+     * @param id the author id
+     * @return the name
+     */
+    public synchronized String getAuthor(int id) {
+        return authorNames.get(id);
+    }
+
+    /**
+     * Gets number of known repositories.
+     *
+     * @return the repository count
+     */
+    public synchronized int getRepositories() {
+        return repositoryNames.size();
+    }
+
+    /**
+     * Gets number of known authors.
+     *
+     * @return the author count
+     */
+    public synchronized int getAuthors() {
+        return authorNames.size();
+    }
+
+    /**
+     * Is hash boolean.
+     *
+     * @param hash the hash
+     * @return true if the hash is 40 hex digits and can be stored
+     */
+    public static boolean isHash(String hash) {
+        if (hash == null || hash.length() != HASH_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            if (Character.digit(hash.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes all columns, messages are not written.
+     *
+     * @param out the output
+     * @throws IOException the io exception
+     */
+    public synchronized void writeTo(DataOutput out) throws IOException {
+        repositoryNames.writeTo(out);
+        authorNames.writeTo(out);
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeLong(hashHigh[i]);
+            out.writeLong(hashMiddle[i]);
+            out.writeInt(hashLow[i]);
+            out.writeLong(seconds[i]);
+            out.writeShort(offsets[i]);
+            out.writeShort(repositories[i]);
+            out.writeShort(authors[i]);
+        }
+    }
+
+    /**
+     * Appends all commits to a log in insertion order.
+     *
+     * @param log the log
+     */
+    public synchronized void writeTo(CommitLog log) {
+        for (int i = 0; i < size; i++) {
+            log.appendCommit(repositoryNames.get(repositories[i]), authorNames.get(authors[i]), getHash(i),
+                    seconds[i], offsets[i] * 60);
+        }
+    }
+
+    /**
+     * Adds commits written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in          the input
+     * @param withAuthors false for commits written before authors were kept, their author is empty
+     * @throws IOException the io exception
+     */
+    public synchronized void readFrom(DataInput in, boolean withAuthors) throws IOException {
+        int[] repositoryIds = repositoryNames.readFrom(in);
+        int[] authorIds = withAuthors ? authorNames.readFrom(in) : new int[]{authorNames.id("")};
+        int commits = in.readInt();
+        for (int n = 0; n < commits; n++) {
+            long high = in.readLong();
+            long middle = in.readLong();
+            int low = in.readInt();
+            long epochSecond = in.readLong();
+            short offset = in.readShort();
+            int repository = in.readUnsignedShort();
+            int author = withAuthors ? in.readUnsignedShort() : 0;
+            if (repository < 0 || repository >= repositoryIds.length) {
+                throw new IOException("Unknown repository " + repository);
+            }
+            if (author < 0 || author >= authorIds.length) {
+                throw new IOException("Unknown author " + author);
+            }
+            insert(high, middle, low, epochSecond, offset, repositoryIds[repository], authorIds[author], null);
+        }
+    }
+
+    /**
+     * Finds the slot of the hash, or the empty slot where it belongs.
+     */
+    private int find(long high, long middle, int low) {
+        int mask = index.length - 1;
+        int slot = mix(high) & mask;
+        while (true) {
+            int i = index[slot] - 1;
+            if (i < 0 || (hashHigh[i] == high && hashMiddle[i] == middle && hashLow[i] == low)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void rehash(int capacity) {
+        index = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = mix(hashHigh[i]) & mask;
+            while (index[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            index[slot] = i + 1;
+        }
+    }
+
+    private void grow() {
+        int capacity = seconds.length * 2;
+        hashHigh = Arrays.copyOf(hashHigh, capacity);
+        hashMiddle = Arrays.copyOf(hashMiddle, capacity);
+        hashLow = Arrays.copyOf(hashLow, capacity);
+        seconds = Arrays.copyOf(seconds, capacity);
+        offsets = Arrays.copyOf(offsets, capacity);
+        repositories = Arrays.copyOf(repositories, capacity);
+        authors = Arrays.copyOf(authors, capacity);
+        if (keepMessages) {
+            messages = Arrays.copyOf(messages, capacity);
+        }
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Commit " + i + " of " + size);
+        }
+    }
+
+    private static int mix(long h) {
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static long parse(String hash, int from, int to) {
+        if (hash == null || hash.length() != HASH_LENGTH) {
+            throw new IllegalArgumentException("Not a commit hash: " + hash);
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = Character.digit(hash.charAt(i), 16);
+            if (digit < 0) {
+                throw new IllegalArgumentException("Not a commit hash: " + hash);
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    private static String hex(long value, int digits) {
+        String s = Long.toHexString(value);
+        if (digits == 16 && s.length() == 16) {
+            return s;
+        }
+        StringBuilder sb = new StringBuilder(digits);
+        for (int i = s.length(); i < digits; i++) {
+            sb.append('0');
+        }
+        return sb.append(s).toString();
+    }
+
+    /**
+     * Names of repositories or authors with their ids in the order they were first seen.
+     */
+    private static final class Names {
+
+        private final static int MAX_NAMES = Character.MAX_VALUE;
+
+        private final List<String> names = new ArrayList<>();
+        private final Map<String, Integer> ids = new HashMap<>();
+
+        private int id(String name) {
+            if (name == null) {
+                name = "";
+            }
+            Integer id = ids.get(name);
+            if (id == null && names.size() >= MAX_NAMES - 1) {
+                name = OTHER;
+                id = ids.get(name);
+            }
+            if (id == null) {
+                id = names.size();
+                names.add(name);
+                ids.put(name, id);
+            }
+            return id;
+        }
+
+        private String get(int id) {
+            return names.get(id);
+        }
+
+        private int size() {
+            return names.size();
+        }
+
+        private void writeTo(DataOutput out) throws IOException {
+            out.writeShort(names.size());
+            for (String name : names) {
+                out.writeUTF(name);
+            }
+        }
+
+        /**
+         * Reads names, returns the ids here of the ids they had when written.
+         */
+        private int[] readFrom(DataInput in) throws IOException {
+            int[] mapped = new int[in.readUnsignedShort()];
+            for (int i = 0; i < mapped.length; i++) {
+                mapped[i] = id(in.readUTF());
+            }
+            return mapped;
+        }
+
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Punchcard.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.commits;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts commits by day of week and hour of day in the local time of the commit.
+ * <p>
+ * Every commit is counted once when it is added, from any number of threads,
+ * into one {@link LongAdder} cell per hour of the week. Readers never see the cells,
+ * they get the copy made by the last {@link #publish()}, which is not changed afterwards.
+ */
+public class Punchcard {
+
+    private final static int DAYS = 7;
+    private final static int HOURS = 24;
+    private final static int SECONDS_PER_DAY = 24 * 60 * 60;
+    private final static int SECONDS_PER_HOUR = 60 * 60;
+
+    /**
+     * 1970-01-01 was a Thursday, day index 3 with Monday as 0.
+     */
+    private final static int EPOCH_DAY_OF_WEEK = 3;
+
+    private final LongAdder[] cells = new LongAdder[DAYS * HOURS];
+
+    private volatile int[][] published = new int[DAYS][HOURS];
+
+    /**
+     * Instantiates a new Punchcard.
+     */
+    public Punchcard() {
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Counts a commit.
+     *
+     * @param epochSecond   commit time in epoch seconds
+     * @param offsetSeconds zone offset of the commit time in seconds
+     */
+    public void add(long epochSecond, int offsetSeconds) {
+        cells[cell(epochSecond, offsetSeconds)].increment();
+    }
+
+    /**
+     * Copies the counters into a new punchcard for readers.
+     */
+    public void publish() {
+        int[][] copy = new int[DAYS][HOURS];
+        for (int i = 0; i < cells.length; i++) {
+            copy[i / HOURS][i % HOURS] = (int) Math.min(cells[i].sum(), Integer.MAX_VALUE);
+        }
+        published = copy;
+    }
+
+    /**
+     * Gets the published commit counts, Monday first, hour 0 first. The arrays must not be changed.
+     *
+     * @return the counts by day of week and hour of day
+     */
+    public int[][] get() {
+        return published;
+    }
+
+    /**
+     * Gets index of the cell of a commit, Monday 00:00 to 00:59 local time is cell 0.
+     *
+     * @param epochSecond   commit time in epoch seconds
+     * @param offsetSeconds zone offset of the commit time in seconds
+     * @return the cell
+     */
+    static int cell(long epochSecond, int offsetSeconds) {
+        long local = epochSecond + offsetSeconds;
+        long day = Math.floorDiv(local, SECONDS_PER_DAY);
+        int dayOfWeek = (int) Math.floorMod(day + EPOCH_DAY_OF_WEEK, DAYS);
+        int hour = (int) Math.floorMod(local, SECONDS_PER_DAY) / SECONDS_PER_HOUR;
+        return dayOfWeek * HOURS + hour;
+    }
+
+}
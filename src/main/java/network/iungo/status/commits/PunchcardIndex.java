@@ -0,0 +1,182 @@
+/*
+ * PunchcardIndex.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.commits;
+
+/**
+ * Counts commits by local day and hour so that the punchcard of any range of days is found without
+ * scanning commits.
+ * <p>
+ * Days are grouped into weeks starting on Monday. For every day of week there is a Fenwick tree over
+ * the weeks whose nodes hold the 24 hourly counts, all trees share one array with a node of every tree
+ * per week. A commit updates O(log weeks) nodes, a range of days is answered with two prefix sums per
+ * day of week, O(log weeks) nodes each.
+ * <p>
+ * The covered weeks start at the first commit and grow by doubling towards older or newer commits,
+ * the tree is then taken apart into plain counts, moved and built again in linear time.
+ * All methods are thread safe.
+ */
+public class PunchcardIndex {
+
+    private final static int DAYS = 7;
+    private final static int HOURS = 24;
+    private final static int NODE = DAYS * HOURS;
+    private final static int SECONDS_PER_DAY = 24 * 60 * 60;
+    private final static int SECONDS_PER_HOUR = 60 * 60;
+    private final static int INITIAL_WEEKS = 64;
+
+    /**
+     * 1970-01-01 was a Thursday, epoch day -3 is the Monday starting week 0.
+     */
+    private final static int EPOCH_DAY_OF_WEEK = 3;
+
+    private long originWeek;
+    private int weeks;
+    private int[] tree;
+
+    /**
+     * Counts a commit.
+     *
+     * @param epochSecond   commit time in epoch seconds
+     * @param offsetSeconds zone offset of the commit time in seconds
+     */
+    public synchronized void add(long epochSecond, int offsetSeconds) {
+        long local = epochSecond + offsetSeconds;
+        long day = Math.floorDiv(local, SECONDS_PER_DAY);
+        long week = Math.floorDiv(day + EPOCH_DAY_OF_WEEK, DAYS);
+        int cell = (int) Math.floorMod(day + EPOCH_DAY_OF_WEEK, DAYS) * HOURS
+                + (int) Math.floorMod(local, SECONDS_PER_DAY) / SECONDS_PER_HOUR;
+
+        cover(week);
+        for (int i = (int) (week - originWeek) + 1; i <= weeks; i += i & -i) {
+            tree[(i - 1) * NODE + cell]++;
+        }
+    }
+
+    /**
+     * Counts commits of a range of local days by day of week and hour of day.
+     *
+     * @param fromDay first epoch day
+     * @param toDay   last epoch day, inclusive
+     * @return the counts, Monday first, hour 0 first
+     */
+    public synchronized int[][] query(long fromDay, long toDay) {
+        int[][] counts = new int[DAYS][HOURS];
+        if (tree == null) {
+            return counts;
+        }
+        long firstDay = originWeek * DAYS - EPOCH_DAY_OF_WEEK;
+        long lastDay = firstDay + (long) weeks * DAYS - 1;
+        fromDay = Math.max(fromDay, firstDay);
+        toDay = Math.min(toDay, lastDay);
+        if (fromDay > toDay) {
+            return counts;
+        }
+
+        for (int dayOfWeek = 0; dayOfWeek < DAYS; dayOfWeek++) {
+            long shift = EPOCH_DAY_OF_WEEK - dayOfWeek;
+            int from = (int) (-Math.floorDiv(-(fromDay + shift), DAYS) - originWeek) + 1;
+            int to = (int) (Math.floorDiv(toDay + shift, DAYS) - originWeek) + 1;
+            if (from <= to) {
+                sum(to, dayOfWeek, counts[dayOfWeek], 1);
+                sum(from - 1, dayOfWeek, counts[dayOfWeek], -1);
+            }
+        }
+        return counts;
+    }
+
+    private void sum(int week, int dayOfWeek, int[] hours, int sign) {
+        for (int i = week; i > 0; i -= i & -i) {
+            int node = (i - 1) * NODE + dayOfWeek * HOURS;
+            for (int h = 0; h < HOURS; h++) {
+                hours[h] += sign * tree[node + h];
+            }
+        }
+    }
+
+    /**
+     * Makes the tree cover the week, doubling it towards the week if needed.
+     */
+    private void cover(long week) {
+        if (tree == null) {
+            weeks = INITIAL_WEEKS;
+            originWeek = week - INITIAL_WEEKS / 2;
+            tree = new int[weeks * NODE];
+            return;
+        }
+        if (week >= originWeek && week < originWeek + weeks) {
+            return;
+        }
+        long start = Math.min(originWeek, week);
+        long end = Math.max(originWeek + weeks, week + 1);
+        long size = Math.max(end - start, 2L * weeks);
+        if (size * NODE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Commit week " + week + " is too far from week " + originWeek);
+        }
+        if (week < originWeek) {
+            start = end - size;
+        }
+
+        split();
+        int[] moved = new int[(int) size * NODE];
+        System.arraycopy(tree, 0, moved, (int) (originWeek - start) * NODE, tree.length);
+        tree = moved;
+        weeks = (int) size;
+        originWeek = start;
+        build();
+    }
+
+    /**
+     * Turns plain weekly counts into tree nodes, every node adds itself to its parent.
+     */
+    private void build() {
+        for (int i = 1; i <= weeks; i++) {
+            int parent = i + (i & -i);
+            if (parent <= weeks) {
+                move(i, parent, 1);
+            }
+        }
+    }
+
+    /**
+     * Turns tree nodes back into plain weekly counts, undoing {@link #build()} backwards.
+     */
+    private void split() {
+        for (int i = weeks; i > 0; i--) {
+            int parent = i + (i & -i);
+            if (parent <= weeks) {
+                move(i, parent, -1);
+            }
+        }
+    }
+
+    private void move(int child, int parent, int sign) {
+        int from = (child - 1) * NODE;
+        int to = (parent - 1) * NODE;
+        for (int c = 0; c < NODE; c++) {
+            tree[to + c] += sign * tree[from + c];
+        }
+    }
+
+}
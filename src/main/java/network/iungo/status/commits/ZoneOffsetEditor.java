@@ -0,0 +1,53 @@
+/*
+ * ZoneOffsetEditor.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.commits;
+
+import java.beans.PropertyEditorSupport;
+import java.time.ZoneOffset;
+
+/**
+ * Reads zone offset parameters such as {@code +02:00}, {@code -05:00} or {@code Z}.
+ * <p>
+ * A plus sign left unencoded in a query string is decoded to a space, so a leading space
+ * or a leading digit is read as a positive offset.
+ */
+public class ZoneOffsetEditor extends PropertyEditorSupport {
+
+    @Override
+    public void setAsText(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            setValue(null);
+            return;
+        }
+        String offset = text.startsWith(" ") ? "+" + text.trim() : text.trim();
+        setValue(ZoneOffset.of(Character.isDigit(offset.charAt(0)) ? "+" + offset : offset));
+    }
+
+    @Override
+    public String getAsText() {
+        return getValue() == null ? "" : getValue().toString();
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * ClusterController.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.controller;
+
+import network.iungo.status.cluster.ClusterService;
+import network.iungo.status.cluster.ClusterStatus;
+import network.iungo.status.cluster.Observation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.List;
+
+/**
+ * Endpoints used by the status nodes to find each other and exchange observations.
+ */
+@Controller
+public class ClusterController {
+
+    private final ClusterService clusterService;
+
+    /**
+     * Instantiates a new Cluster controller.
+     *
+     * @param clusterService the cluster service
+     */
+    @Autowired
+    public ClusterController(ClusterService clusterService) {
+        this.clusterService = clusterService;
+    }
+
+    /**
+     * Cluster as seen by this node, also answers heartbeats.
+     *
+     * @return the cluster status
+     */
+    @GetMapping("/cluster")
+    @ResponseBody
+    public ClusterStatus cluster() {
+        return clusterService.getStatus();
+    }
+
+    /**
+     * Observations of another node.
+     *
+     * @param secret       the shared secret
+     * @param observations the observations
+     * @return 204, or 403 if the secret does not match or this node has no peers
+     */
+    @PostMapping("/cluster/observations")
+    public ResponseEntity<Void> observations(@RequestHeader(value = ClusterService.SECRET_HEADER, required = false) String secret,
+                                            @RequestBody List<Observation> observations) {
+        if (!clusterService.receive(observations, secret)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+}
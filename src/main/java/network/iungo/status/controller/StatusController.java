@@ -24,13 +24,29 @@
 
 package network.iungo.status.controller;
 
+import network.iungo.status.bitbucket.BitbucketStatistics;
+import network.iungo.status.commits.CommitQuery;
+import network.iungo.status.commits.ZoneOffsetEditor;
+import network.iungo.status.domain.ProbeResult;
+import network.iungo.status.domain.StatusSnapshot;
+import network.iungo.status.http.TransportStatistics;
+import network.iungo.status.monitoring.ProbeStatistics;
 import network.iungo.status.service.BitbucketService;
 import network.iungo.status.service.MonitoringService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.InitBinder;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.WebRequest;
+
+import java.security.SecureRandom;
+import java.time.ZoneOffset;
+import java.util.List;
 
 /**
  * The type Status controller.
@@ -42,6 +58,11 @@ public class StatusController {
 
     private final BitbucketService bitbucketService;
 
+    /**
+     * Random id of this run, snapshot versions start over with every boot.
+     */
+    private final String instance = Long.toHexString(new SecureRandom().nextLong());
+
     /**
      * Instantiates a new Status controller.
      *
@@ -54,6 +75,16 @@ public class StatusController {
         this.bitbucketService = bitbucketService;
     }
 
+    /**
+     * Reads zone offset parameters whose plus sign was decoded to a space.
+     *
+     * @param binder the binder
+     */
+    @InitBinder
+    public void zoneOffsets(WebDataBinder binder) {
+        binder.registerCustomEditor(ZoneOffset.class, new ZoneOffsetEditor());
+    }
+
     /**
      * Index string.
      *
@@ -62,19 +93,89 @@ public class StatusController {
      */
     @GetMapping("/")
     public String index(final Model m) {
-        m.addAttribute("services", monitoringService.getServices());
+        StatusSnapshot snapshot = monitoringService.getSnapshot();
+        m.addAttribute("version", snapshot.getVersion());
+        m.addAttribute("services", snapshot.getServices());
         return "index";
     }
 
     /**
-     * Commits int [ ] [ ].
+     * Services snapshot, tagged with the id of this run and its version.
+     *
+     * @param request the request
+     * @return the snapshot, null if the client already has this version
+     */
+    @GetMapping("/services")
+    @ResponseBody
+    public StatusSnapshot services(WebRequest request) {
+        StatusSnapshot snapshot = monitoringService.getSnapshot();
+        if (request.checkNotModified("\"" + instance + "-" + snapshot.getVersion() + "\"")) {
+            return null;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Stored probe results of one endpoint with their phase timings, the last hour by default.
      *
+     * @param id   the endpoint id
+     * @param from inclusive start in milliseconds
+     * @param to   exclusive end in milliseconds
+     * @return the probe results
+     */
+    @GetMapping("/services/{id}/probes")
+    @ResponseBody
+    public List<ProbeResult> probes(@PathVariable int id, @RequestParam(required = false) Long from,
+                                    @RequestParam(required = false) Long to) {
+        long end = to == null ? System.currentTimeMillis() : to;
+        long start = from == null ? end - 60 * 60 * 1000 : from;
+        return monitoringService.getProbeResults(id, start, end);
+    }
+
+    /**
+     * Commits int [ ] [ ], of all time, repositories and authors in the local time of every commit unless
+     * limited by the from, to, repo, author and zone parameters or shown in the tz zone offset.
+     *
+     * @param query the query
      * @return the int [ ] [ ]
      */
     @GetMapping("/commits")
     @ResponseBody
-    public int[][] commits() {
-        return bitbucketService.getAggregatedCommits();
+    public int[][] commits(CommitQuery query) {
+        return bitbucketService.getAggregatedCommits(query);
+    }
+
+    /**
+     * Probe statistics.
+     *
+     * @return the probe statistics
+     */
+    @GetMapping("/stats/probes")
+    @ResponseBody
+    public ProbeStatistics probeStatistics() {
+        return monitoringService.getProbeStatistics();
+    }
+
+    /**
+     * Probe connection pool statistics.
+     *
+     * @return the transport statistics
+     */
+    @GetMapping("/stats/connections")
+    @ResponseBody
+    public TransportStatistics connectionStatistics() {
+        return monitoringService.getConnectionStatistics();
+    }
+
+    /**
+     * Bitbucket response cache and transport statistics.
+     *
+     * @return the statistics
+     */
+    @GetMapping("/stats/bitbucket")
+    @ResponseBody
+    public BitbucketStatistics bitbucketStatistics() {
+        return bitbucketService.getStatistics();
     }
 
 }
@@ -0,0 +1,89 @@
+/*
+ * StreamController.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.controller;
+
+import network.iungo.status.stream.StatusStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Stream of status changes, kept apart so its disconnect handling applies to nothing else.
+ */
+@Controller
+public class StreamController {
+
+    private static Logger LOG = LoggerFactory.getLogger(StreamController.class);
+
+    private final static MediaType EVENT_STREAM = new MediaType(MediaType.TEXT_EVENT_STREAM, StandardCharsets.UTF_8);
+
+    private final StatusStream statusStream;
+
+    /**
+     * Instantiates a new Stream controller.
+     *
+     * @param statusStream the status stream
+     */
+    @Autowired
+    public StreamController(StatusStream statusStream) {
+        this.statusStream = statusStream;
+    }
+
+    /**
+     * Stream of status transitions and latency changes as server-sent events.
+     *
+     * @return the emitter, 503 if too many clients are connected
+     */
+    @GetMapping(path = "/services/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> stream() {
+        ResponseBodyEmitter emitter = statusStream.subscribe();
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok().contentType(EVENT_STREAM).body(emitter);
+    }
+
+    /**
+     * Ends the request of a stream client which went away. The client has already been closed by the
+     * failed send, the container then hands the same write error back to this controller.
+     *
+     * @param ex the exception
+     */
+    @ExceptionHandler(IOException.class)
+    public void disconnected(IOException ex) {
+        LOG.debug("Stream client went away: {}", ex.getMessage());
+    }
+
+}
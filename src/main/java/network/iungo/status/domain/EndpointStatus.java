@@ -0,0 +1,208 @@
+/*
+ * EndpointStatus.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.domain;
+
+import network.iungo.status.http.RequestTimings;
+import network.iungo.status.metrics.LatencySummary;
+import network.iungo.status.metrics.UptimeSummary;
+import org.ocpsoft.prettytime.PrettyTime;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Immutable result of the last probe of an endpoint, together with its latency and uptime at that moment.
+ */
+public class EndpointStatus {
+
+    private final int id;
+    private final String url;
+    private final String title;
+    private final String description;
+    private final boolean online;
+    private final boolean flapping;
+    private final String status;
+    private final long checked;
+    private final RequestTimings timings;
+    private final LatencySummary latency;
+    private final List<LatencySummary> latencies;
+    private final List<UptimeSummary> uptimes;
+    private final List<UptimeSummary> uptimeDays;
+
+    /**
+     * Instantiates a new Endpoint status, latency and uptime are read from the endpoint.
+     *
+     * @param endpoint the endpoint
+     * @param online   the online
+     * @param flapping the flapping
+     * @param status   the status message, empty if the probe succeeded
+     * @param checked  time of the probe in milliseconds, 0 if never probed
+     * @param timings  phase timings of the probe, null if never probed or probed by another node
+     */
+    public EndpointStatus(MonitoredEndpoint endpoint, boolean online, boolean flapping, String status, long checked,
+                          RequestTimings timings) {
+        this.id = endpoint.getId();
+        this.url = endpoint.getUrl();
+        this.title = endpoint.getTitle();
+        this.description = endpoint.getDescription();
+        this.online = online;
+        this.flapping = flapping;
+        this.status = status;
+        this.checked = checked;
+        this.timings = timings;
+        this.latency = endpoint.getLatency();
+        this.latencies = Collections.unmodifiableList(endpoint.getLatencies());
+        this.uptimes = Collections.unmodifiableList(endpoint.getUptimes());
+        this.uptimeDays = Collections.unmodifiableList(endpoint.getUptimeDays());
+    }
+
+    /**
+     * Gets id.
+     *
+     * @return the id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets url.
+     *
+     * @return the url
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Gets title.
+     *
+     * @return the title
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Gets description.
+     *
+     * @return the description
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Is online boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isOnline() {
+        return online;
+    }
+
+    /**
+     * Is flapping, the status keeps changing and transitions are damped.
+     *
+     * @return the boolean
+     */
+    public boolean isFlapping() {
+        return flapping;
+    }
+
+    /**
+     * Gets status.
+     *
+     * @return the status
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Gets checked.
+     *
+     * @return the checked, null if never probed
+     */
+    public Date getChecked() {
+        return checked == 0 ? null : new Date(checked);
+    }
+
+    /**
+     * Gets checked pretty.
+     *
+     * @return the checked pretty
+     */
+    public String getCheckedPretty() {
+        return new PrettyTime().format(getChecked());
+    }
+
+    /**
+     * Gets phase timings of the last probe.
+     *
+     * @return the timings
+     */
+    public RequestTimings getTimings() {
+        return timings;
+    }
+
+    /**
+     * Gets latency percentiles over the last hour.
+     *
+     * @return the latency
+     */
+    public LatencySummary getLatency() {
+        return latency;
+    }
+
+    /**
+     * Gets latency percentiles over all windows.
+     *
+     * @return the latencies
+     */
+    public List<LatencySummary> getLatencies() {
+        return latencies;
+    }
+
+    /**
+     * Gets uptime over the 24h, 7d, 30d and 90d windows.
+     *
+     * @return the uptimes
+     */
+    public List<UptimeSummary> getUptimes() {
+        return uptimes;
+    }
+
+    /**
+     * Gets uptime of each of the last 90 days.
+     *
+     * @return the uptime days
+     */
+    public List<UptimeSummary> getUptimeDays() {
+        return uptimeDays;
+    }
+
+}
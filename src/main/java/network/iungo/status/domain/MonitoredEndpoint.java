@@ -24,22 +24,57 @@
 
 package network.iungo.status.domain;
 
-import org.ocpsoft.prettytime.PrettyTime;
+import network.iungo.status.metrics.LatencySummary;
+import network.iungo.status.metrics.RollingLatencyHistogram;
+import network.iungo.status.metrics.UptimeCounter;
+import network.iungo.status.metrics.UptimeSummary;
+import network.iungo.status.monitoring.assertion.ContentAssertion;
 
-import java.util.Date;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * The type Monitored endpoint.
  */
 public class MonitoredEndpoint {
 
+    private int id;
     private String url;
+    private String method = "GET";
+    private Map<String, String> headers = new LinkedHashMap<>();
+    private String body;
+    private List<ContentAssertion> assertions = new ArrayList<>();
     private String title;
     private String description;
-    private String status;
     private int expectedResponseStatus;
-    private Date checked;
-    private boolean online;
+    private long interval = 5 * 60 * 1000;
+    private long jitter;
+    private final RollingLatencyHistogram latency = new RollingLatencyHistogram();
+    private final UptimeCounter uptime = new UptimeCounter();
+    private volatile EndpointStatus current;
+
+    /**
+     * Gets id, stable across restarts, used to store probe results.
+     *
+     * @return the id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets id.
+     *
+     * @param id the id
+     */
+    public void setId(int id) {
+        this.id = id;
+    }
 
     /**
      * Gets url.
@@ -59,6 +94,78 @@ public class MonitoredEndpoint {
         this.url = url;
     }
 
+    /**
+     * Gets HTTP method of the probe, HEAD checks the status without transferring a body.
+     *
+     * @return the method
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Sets method.
+     *
+     * @param method the method
+     */
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    /**
+     * Gets request headers sent with every probe.
+     *
+     * @return the headers
+     */
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Sets headers.
+     *
+     * @param headers the headers
+     */
+    public void setHeaders(Map<String, String> headers) {
+        this.headers = headers;
+    }
+
+    /**
+     * Gets request body, sent with its Content-Type header or as plain text, null to send none.
+     *
+     * @return the body
+     */
+    public String getBody() {
+        return body;
+    }
+
+    /**
+     * Sets body.
+     *
+     * @param body the body
+     */
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    /**
+     * Gets assertions on the response body, checked only when the status is the expected one.
+     *
+     * @return the assertions
+     */
+    public List<ContentAssertion> getAssertions() {
+        return assertions;
+    }
+
+    /**
+     * Sets assertions.
+     *
+     * @param assertions the assertions
+     */
+    public void setAssertions(List<ContentAssertion> assertions) {
+        this.assertions = assertions;
+    }
+
     /**
      * Gets title.
      *
@@ -96,84 +203,152 @@ public class MonitoredEndpoint {
     }
 
     /**
-     * Gets status.
+     * Gets expected response status.
      *
-     * @return the status
+     * @return the expected response status
      */
-    public String getStatus() {
-        return status;
+    public int getExpectedResponseStatus() {
+        return expectedResponseStatus;
     }
 
     /**
-     * Sets status.
+     * Sets expected response status.
      *
-     * @param status the status
+     * @param expectedResponseStatus the expected response status
      */
-    public void setStatus(String status) {
-        this.status = status;
+    public void setExpectedResponseStatus(int expectedResponseStatus) {
+        this.expectedResponseStatus = expectedResponseStatus;
     }
 
     /**
-     * Gets expected response status.
+     * Gets probe interval in milliseconds.
      *
-     * @return the expected response status
+     * @return the interval
      */
-    public int getExpectedResponseStatus() {
-        return expectedResponseStatus;
+    public long getInterval() {
+        return interval;
     }
 
     /**
-     * Sets expected response status.
+     * Sets interval.
      *
-     * @param expectedResponseStatus the expected response status
+     * @param interval the interval
      */
-    public void setExpectedResponseStatus(int expectedResponseStatus) {
-        this.expectedResponseStatus = expectedResponseStatus;
+    public void setInterval(long interval) {
+        this.interval = interval;
+    }
+
+    /**
+     * Gets maximum random shift of each probe in milliseconds.
+     *
+     * @return the jitter
+     */
+    public long getJitter() {
+        return jitter;
+    }
+
+    /**
+     * Sets jitter.
+     *
+     * @param jitter the jitter
+     */
+    public void setJitter(long jitter) {
+        this.jitter = jitter;
+    }
+
+    /**
+     * Records latency of a probe.
+     *
+     * @param millis the latency in milliseconds
+     */
+    public void recordLatency(long millis) {
+        latency.record(millis, System.currentTimeMillis());
+    }
+
+    /**
+     * Gets latency percentiles over the last hour.
+     *
+     * @return the latency
+     */
+    public LatencySummary getLatency() {
+        return latency.getSummary("1h", System.currentTimeMillis());
+    }
+
+    /**
+     * Gets latency percentiles over all windows.
+     *
+     * @return the latencies
+     */
+    public List<LatencySummary> getLatencies() {
+        return latency.getSummaries(System.currentTimeMillis());
+    }
+
+    /**
+     * Counts a probe result into the uptime windows.
+     *
+     * @param timestamp the probe time in milliseconds
+     * @param online    the probe result
+     */
+    public void recordUptime(long timestamp, boolean online) {
+        uptime.record(timestamp, online);
+    }
+
+    /**
+     * Gets uptime over the 24h, 7d, 30d and 90d windows.
+     *
+     * @return the uptimes
+     */
+    public List<UptimeSummary> getUptimes() {
+        return uptime.getSummaries(System.currentTimeMillis());
     }
 
     /**
-     * Is online boolean.
+     * Gets uptime of each of the last 90 days.
      *
-     * @return the boolean
+     * @return the uptime days
      */
-    public boolean isOnline() {
-        return online;
+    public List<UptimeSummary> getUptimeDays() {
+        return uptime.getDays(System.currentTimeMillis());
     }
 
     /**
-     * Sets online.
+     * Writes the latency and uptime windows.
      *
-     * @param online the online
+     * @param out the output
+     * @throws IOException the io exception
      */
-    public void setOnline(boolean online) {
-        this.online = online;
+    public void writeMetricsTo(DataOutput out) throws IOException {
+        latency.writeTo(out);
+        uptime.writeTo(out);
     }
 
     /**
-     * Gets checked.
+     * Reads latency and uptime windows written by {@link #writeMetricsTo(DataOutput)}.
      *
-     * @return the checked
+     * @param in the input
+     * @throws IOException the io exception
      */
-    public Date getChecked() {
-        return checked;
+    public void readMetricsFrom(DataInput in) throws IOException {
+        latency.readFrom(in);
+        uptime.readFrom(in);
     }
 
     /**
-     * Sets checked.
+     * Gets result of the last probe.
      *
-     * @param checked the checked
+     * @return the current status
      */
-    public void setChecked(Date checked) {
-        this.checked = checked;
+    public EndpointStatus getCurrent() {
+        return current;
     }
 
     /**
-     * Gets checked pretty.
+     * Sets current, called by the probe once the result is complete.
      *
-     * @return the checked pretty
+     * @param current the current status
      */
-    public String getCheckedPretty() {
-        return new PrettyTime().format(checked);
+    public void setCurrent(EndpointStatus current) {
+        this.current = current;
     }
 
 }
@@ -0,0 +1,145 @@
+/*
+ * ProbeResult.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.domain;
+
+import network.iungo.status.monitoring.ProbeError;
+import network.iungo.status.store.ProbeRecord;
+
+import java.util.Date;
+
+/**
+ * One stored probe result with its phase timings, copied out of the store.
+ */
+public class ProbeResult {
+
+    private final long timestamp;
+    private final boolean online;
+    private final int status;
+    private final ProbeError error;
+    private final int latency;
+    private final int dns;
+    private final int connect;
+    private final int tls;
+    private final int firstByte;
+
+    /**
+     * Instantiates a new Probe result.
+     *
+     * @param record the stored record
+     */
+    public ProbeResult(ProbeRecord record) {
+        this.timestamp = record.getTimestamp();
+        this.online = record.isOnline();
+        this.status = record.getStatus();
+        this.error = ProbeError.of(record.getError());
+        this.latency = record.getLatency();
+        this.dns = record.getDns();
+        this.connect = record.getConnect();
+        this.tls = record.getTls();
+        this.firstByte = record.getFirstByte();
+    }
+
+    /**
+     * Gets time of the probe.
+     *
+     * @return the timestamp
+     */
+    public Date getTimestamp() {
+        return new Date(timestamp);
+    }
+
+    /**
+     * Is online boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isOnline() {
+        return online;
+    }
+
+    /**
+     * Gets HTTP status, 0 if there was no response.
+     *
+     * @return the status
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Gets error.
+     *
+     * @return the error
+     */
+    public ProbeError getError() {
+        return error;
+    }
+
+    /**
+     * Gets latency in milliseconds.
+     *
+     * @return the latency
+     */
+    public int getLatency() {
+        return latency;
+    }
+
+    /**
+     * Gets DNS lookup time in milliseconds, -1 if there was none.
+     *
+     * @return the dns
+     */
+    public int getDns() {
+        return dns;
+    }
+
+    /**
+     * Gets TCP connect time in milliseconds, -1 if a connection was reused.
+     *
+     * @return the connect
+     */
+    public int getConnect() {
+        return connect;
+    }
+
+    /**
+     * Gets TLS handshake time in milliseconds, -1 if there was none.
+     *
+     * @return the tls
+     */
+    public int getTls() {
+        return tls;
+    }
+
+    /**
+     * Gets time to the response headers in milliseconds, -1 if there was no response.
+     *
+     * @return the first byte
+     */
+    public int getFirstByte() {
+        return firstByte;
+    }
+
+}
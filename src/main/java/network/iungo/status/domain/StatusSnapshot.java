@@ -0,0 +1,80 @@
+/*
+ * StatusSnapshot.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.domain;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Immutable, versioned view of all monitored endpoints.
+ * <p>
+ * A new snapshot is published as a whole, readers always see every endpoint from the same version.
+ */
+public class StatusSnapshot {
+
+    private final long version;
+    private final long created = System.currentTimeMillis();
+    private final List<EndpointStatus> services;
+
+    /**
+     * Instantiates a new Status snapshot.
+     *
+     * @param version  the version
+     * @param services the services, must not be modified afterwards
+     */
+    public StatusSnapshot(long version, List<EndpointStatus> services) {
+        this.version = version;
+        this.services = Collections.unmodifiableList(services);
+    }
+
+    /**
+     * Gets version, increases with every published snapshot.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets created.
+     *
+     * @return the created
+     */
+    public Date getCreated() {
+        return new Date(created);
+    }
+
+    /**
+     * Gets services.
+     *
+     * @return the services
+     */
+    public List<EndpointStatus> getServices() {
+        return services;
+    }
+
+}
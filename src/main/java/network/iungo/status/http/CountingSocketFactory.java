@@ -0,0 +1,113 @@
+/*
+ * CountingSocketFactory.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.http;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Socket factory counting newly opened connections, each of them costs a TCP (and TLS) handshake.
+ * <p>
+ * Connect and handshake times are added to the {@link RequestTimings} of the request context.
+ * For TLS the plain connect and the handshake are done one after the other here,
+ * the way the TLS socket factory does it, so the two can be timed separately.
+ */
+class CountingSocketFactory implements LayeredConnectionSocketFactory {
+
+    private final ConnectionSocketFactory delegate;
+    private final AtomicLong connections;
+
+    /**
+     * Instantiates a new Counting socket factory.
+     *
+     * @param delegate    the delegate
+     * @param connections the counter of opened connections
+     */
+    CountingSocketFactory(ConnectionSocketFactory delegate, AtomicLong connections) {
+        this.delegate = delegate;
+        this.connections = connections;
+    }
+
+    @Override
+    public Socket createSocket(HttpContext context) throws IOException {
+        return delegate.createSocket(context);
+    }
+
+    @Override
+    public Socket connectSocket(int connectTimeout, Socket sock, HttpHost host, InetSocketAddress remoteAddress,
+                                InetSocketAddress localAddress, HttpContext context) throws IOException {
+        Object attribute = context.getAttribute(RequestTimings.ATTRIBUTE);
+        RequestTimings timings = attribute instanceof RequestTimings ? (RequestTimings) attribute : new RequestTimings();
+        ConnectionSocketFactory connector = delegate instanceof LayeredConnectionSocketFactory
+                ? PlainConnectionSocketFactory.getSocketFactory() : delegate;
+
+        // failed attempts are timed too, a slow refusal or a timeout is what needs explaining
+        long started = System.nanoTime();
+        Socket socket;
+        try {
+            socket = connector.connectSocket(connectTimeout, sock, host, remoteAddress, localAddress, context);
+        } finally {
+            timings.connected(System.nanoTime() - started);
+        }
+        if (connector == delegate) {
+            connections.incrementAndGet();
+            return socket;
+        }
+
+        long connected = System.nanoTime();
+        try {
+            // bounds the handshake like the TLS socket factory does, the read timeout is set on the first request
+            if (connectTimeout > 0 && socket.getSoTimeout() == 0) {
+                socket.setSoTimeout(connectTimeout);
+            }
+            Socket layered = ((LayeredConnectionSocketFactory) delegate)
+                    .createLayeredSocket(socket, host.getHostName(), remoteAddress.getPort(), context);
+            connections.incrementAndGet();
+            return layered;
+        } catch (IOException ex) {
+            socket.close();
+            throw ex;
+        } finally {
+            timings.handshaken(System.nanoTime() - connected);
+        }
+    }
+
+    @Override
+    public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context) throws IOException {
+        if (!(delegate instanceof LayeredConnectionSocketFactory)) {
+            throw new UnsupportedOperationException("Socket layering is not supported by " + delegate);
+        }
+        return ((LayeredConnectionSocketFactory) delegate).createLayeredSocket(socket, target, port, context);
+    }
+
+}
@@ -0,0 +1,225 @@
+/*
+ * HttpTransport.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.http;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.NoConnectionReuseStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+import org.apache.http.pool.PoolStats;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pooled HTTP client keeping connections alive between requests.
+ * <p>
+ * Connections are limited per host and in total, connections idle for longer than
+ * the idle timeout are evicted by a background thread.
+ * Counts requests and opened connections, so the share of requests served
+ * over an already established connection can be reported.
+ * <p>
+ * Requests can be timed phase by phase. The DNS resolver gets no request context,
+ * so it finds the timings of the running request through a thread local,
+ * connections are opened on the thread executing the request.
+ * <p>
+ * Requests which must not ride on an existing connection go through a second client,
+ * it opens a new connection for every request and closes it afterwards.
+ */
+public class HttpTransport {
+
+    private final static ThreadLocal<RequestTimings> TIMINGS = new ThreadLocal<>();
+
+    private final PoolingHttpClientConnectionManager pool;
+    private final CloseableHttpClient client;
+    private final CloseableHttpClient freshClient;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong connections = new AtomicLong();
+
+    /**
+     * Instantiates a new Http transport.
+     *
+     * @param maxTotal       maximum number of connections
+     * @param maxPerHost     maximum number of connections to a single host
+     * @param idleTimeout    idle connections are closed after this many milliseconds
+     * @param connectTimeout the connect timeout in milliseconds
+     * @param readTimeout    the read timeout in milliseconds
+     */
+    public HttpTransport(int maxTotal, int maxPerHost, long idleTimeout, int connectTimeout, int readTimeout) {
+        this(maxTotal, maxPerHost, idleTimeout, connectTimeout, readTimeout, true);
+    }
+
+    /**
+     * Instantiates a new Http transport.
+     *
+     * @param maxTotal       maximum number of connections
+     * @param maxPerHost     maximum number of connections to a single host
+     * @param idleTimeout    idle connections are closed after this many milliseconds
+     * @param connectTimeout the connect timeout in milliseconds
+     * @param readTimeout    the read timeout in milliseconds
+     * @param decompress     whether compressed responses are asked for and decoded by the client,
+     *                       false leaves both to the caller
+     */
+    public HttpTransport(int maxTotal, int maxPerHost, long idleTimeout, int connectTimeout, int readTimeout,
+                         boolean decompress) {
+        Registry<ConnectionSocketFactory> sockets = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", new CountingSocketFactory(PlainConnectionSocketFactory.getSocketFactory(), connections))
+                .register("https", new CountingSocketFactory(SSLConnectionSocketFactory.getSocketFactory(), connections))
+                .build();
+
+        DnsResolver dns = host -> {
+            long started = System.nanoTime();
+            try {
+                return SystemDefaultDnsResolver.INSTANCE.resolve(host);
+            } finally {
+                RequestTimings timings = TIMINGS.get();
+                if (timings != null) {
+                    timings.resolved(System.nanoTime() - started);
+                }
+            }
+        };
+        pool = new PoolingHttpClientConnectionManager(sockets, dns);
+        pool.setMaxTotal(maxTotal);
+        pool.setDefaultMaxPerRoute(maxPerHost);
+
+        RequestConfig config = RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setConnectionRequestTimeout(connectTimeout)
+                .setSocketTimeout(readTimeout)
+                .setRedirectsEnabled(false)
+                .build();
+        HttpClientBuilder builder = HttpClients.custom()
+                .setConnectionManager(pool)
+                .setDefaultRequestConfig(config)
+                .evictExpiredConnections()
+                .evictIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+        if (!decompress) {
+            builder.disableContentCompression();
+        }
+        client = builder.build();
+
+        PoolingHttpClientConnectionManager freshPool = new PoolingHttpClientConnectionManager(sockets, dns);
+        freshPool.setMaxTotal(maxTotal);
+        freshPool.setDefaultMaxPerRoute(maxTotal);
+        HttpClientBuilder freshBuilder = HttpClients.custom()
+                .setConnectionManager(freshPool)
+                .setConnectionReuseStrategy(NoConnectionReuseStrategy.INSTANCE)
+                .setDefaultRequestConfig(config);
+        if (!decompress) {
+            freshBuilder.disableContentCompression();
+        }
+        freshClient = freshBuilder.build();
+    }
+
+    /**
+     * Executes the request, the response must be closed to give the connection back to the pool.
+     * Connections are reused only if the response body was read to the end.
+     *
+     * @param request the request
+     * @return the response
+     * @throws IOException the io exception
+     */
+    public CloseableHttpResponse execute(HttpUriRequest request) throws IOException {
+        requests.incrementAndGet();
+        return client.execute(request);
+    }
+
+    /**
+     * Executes the request and times its phases up to the response headers,
+     * the caller finishes the timings once the body is read.
+     *
+     * @param request the request
+     * @param timings the timings to be filled
+     * @return the response
+     * @throws IOException the io exception
+     */
+    public CloseableHttpResponse execute(HttpUriRequest request, RequestTimings timings) throws IOException {
+        return execute(client, request, timings);
+    }
+
+    /**
+     * Executes the request on a newly opened connection, closed again once the response is closed.
+     * Timed like {@link #execute(HttpUriRequest, RequestTimings)}.
+     *
+     * @param request the request
+     * @param timings the timings to be filled
+     * @return the response
+     * @throws IOException the io exception
+     */
+    public CloseableHttpResponse executeFresh(HttpUriRequest request, RequestTimings timings) throws IOException {
+        return execute(freshClient, request, timings);
+    }
+
+    private CloseableHttpResponse execute(CloseableHttpClient client, HttpUriRequest request,
+                                          RequestTimings timings) throws IOException {
+        requests.incrementAndGet();
+        HttpClientContext context = HttpClientContext.create();
+        context.setAttribute(RequestTimings.ATTRIBUTE, timings);
+        TIMINGS.set(timings);
+        try {
+            CloseableHttpResponse response = client.execute(request, context);
+            timings.responded();
+            return response;
+        } finally {
+            TIMINGS.remove();
+        }
+    }
+
+    /**
+     * Gets statistics.
+     *
+     * @return the statistics
+     */
+    public TransportStatistics getStatistics() {
+        PoolStats stats = pool.getTotalStats();
+        return new TransportStatistics(requests.get(), connections.get(),
+                stats.getLeased(), stats.getAvailable(), stats.getPending(), stats.getMax());
+    }
+
+    /**
+     * Closes the client and all pooled connections.
+     *
+     * @throws IOException the io exception
+     */
+    public void close() throws IOException {
+        client.close();
+        freshClient.close();
+    }
+
+}
@@ -0,0 +1,225 @@
+/*
+ * RequestTimings.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.http;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Time spent in the phases of one request: DNS lookup, TCP connect, TLS handshake,
+ * waiting for the response headers and reading the body.
+ * <p>
+ * Filled by the transport on the thread executing the request and only read after the request is over.
+ * Phases which did not happen, like connecting over a reused connection, are reported as -1.
+ */
+public class RequestTimings {
+
+    /**
+     * Attribute of the request context holding the timings.
+     */
+    final static String ATTRIBUTE = "network.iungo.status.timings";
+
+    private final long started = System.nanoTime();
+    private long dns = -1;
+    private long connect = -1;
+    private long tls = -1;
+    private long firstByte = -1;
+    private long total = -1;
+
+    void resolved(long nanos) {
+        dns = Math.max(dns, 0) + nanos;
+    }
+
+    void connected(long nanos) {
+        connect = Math.max(connect, 0) + nanos;
+    }
+
+    void handshaken(long nanos) {
+        tls = Math.max(tls, 0) + nanos;
+    }
+
+    void responded() {
+        firstByte = System.nanoTime() - started;
+    }
+
+    /**
+     * Marks the end of the request, after the body was read.
+     */
+    public void finish() {
+        total = System.nanoTime() - started;
+    }
+
+    /**
+     * Writes the phase times.
+     *
+     * @param out the output
+     * @throws IOException the io exception
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(dns);
+        out.writeLong(connect);
+        out.writeLong(tls);
+        out.writeLong(firstByte);
+        out.writeLong(total);
+    }
+
+    /**
+     * Reads timings written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in the input
+     * @return the timings
+     * @throws IOException the io exception
+     */
+    public static RequestTimings readFrom(DataInput in) throws IOException {
+        RequestTimings timings = new RequestTimings();
+        timings.dns = in.readLong();
+        timings.connect = in.readLong();
+        timings.tls = in.readLong();
+        timings.firstByte = in.readLong();
+        timings.total = in.readLong();
+        return timings;
+    }
+
+    /**
+     * Gets DNS lookup time in milliseconds.
+     *
+     * @return the dns
+     */
+    public int getDns() {
+        return millis(dns);
+    }
+
+    /**
+     * Gets TCP connect time in milliseconds.
+     *
+     * @return the connect
+     */
+    public int getConnect() {
+        return millis(connect);
+    }
+
+    /**
+     * Gets TLS handshake time in milliseconds.
+     *
+     * @return the tls
+     */
+    public int getTls() {
+        return millis(tls);
+    }
+
+    /**
+     * Gets time from the start of the request to the response headers in milliseconds.
+     *
+     * @return the first byte
+     */
+    public int getFirstByte() {
+        return millis(firstByte);
+    }
+
+    /**
+     * Gets time from the start of the request to the end of the body in milliseconds.
+     *
+     * @return the total
+     */
+    public int getTotal() {
+        return millis(total);
+    }
+
+    /**
+     * Is reused boolean, true if the request went over an already open connection.
+     *
+     * @return the boolean
+     */
+    @JsonIgnore
+    public boolean isReused() {
+        return connect < 0 && firstByte >= 0;
+    }
+
+    /**
+     * Gets the phases which happened, in order.
+     *
+     * @return the phases
+     */
+    @JsonIgnore
+    public List<Phase> getPhases() {
+        List<Phase> phases = new ArrayList<>(5);
+        add(phases, "DNS", dns);
+        add(phases, "connect", connect);
+        add(phases, "TLS", tls);
+        add(phases, "first byte", firstByte);
+        add(phases, "total", total);
+        return phases;
+    }
+
+    private static void add(List<Phase> phases, String name, long nanos) {
+        if (nanos >= 0) {
+            phases.add(new Phase(name, millis(nanos)));
+        }
+    }
+
+    private static int millis(long nanos) {
+        return nanos < 0 ? -1 : (int) Math.min(Integer.MAX_VALUE, nanos / 1000000);
+    }
+
+    /**
+     * One measured phase.
+     */
+    public static class Phase {
+
+        private final String name;
+        private final int millis;
+
+        private Phase(String name, int millis) {
+            this.name = name;
+            this.millis = millis;
+        }
+
+        /**
+         * Gets name.
+         *
+         * @return the name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets duration in milliseconds.
+         *
+         * @return the millis
+         */
+        public int getMillis() {
+            return millis;
+        }
+
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * TransportStatistics.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.http;
+
+/**
+ * The type Transport statistics.
+ */
+public class TransportStatistics {
+
+    private final long requests;
+    private final long connections;
+    private final int leased;
+    private final int available;
+    private final int pending;
+    private final int max;
+
+    /**
+     * Instantiates a new Transport statistics.
+     *
+     * @param requests    requests sent
+     * @param connections connections opened
+     * @param leased      connections in use
+     * @param available   idle connections kept alive
+     * @param pending     requests waiting for a connection
+     * @param max         maximum number of connections
+     */
+    TransportStatistics(long requests, long connections, int leased, int available, int pending, int max) {
+        this.requests = requests;
+        this.connections = connections;
+        this.leased = leased;
+        this.available = available;
+        this.pending = pending;
+        this.max = max;
+    }
+
+    /**
+     * Gets requests.
+     *
+     * @return the requests
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * Gets opened connections, every one of them paid for a handshake.
+     *
+     * @return the connections
+     */
+    public long getConnections() {
+        return connections;
+    }
+
+    /**
+     * Gets requests served over an already open connection.
+     *
+     * @return the reused
+     */
+    public long getReused() {
+        return Math.max(0, requests - connections);
+    }
+
+    /**
+     * Gets share of requests which did not need a new connection.
+     *
+     * @return the hit rate
+     */
+    public double getHitRate() {
+        return requests == 0 ? 0 : (double) getReused() / requests;
+    }
+
+    /**
+     * Gets average number of requests sent over one connection.
+     *
+     * @return the reuse rate
+     */
+    public double getReuseRate() {
+        return connections == 0 ? 0 : (double) requests / connections;
+    }
+
+    /**
+     * Gets leased.
+     *
+     * @return the leased
+     */
+    public int getLeased() {
+        return leased;
+    }
+
+    /**
+     * Gets available.
+     *
+     * @return the available
+     */
+    public int getAvailable() {
+        return available;
+    }
+
+    /**
+     * Gets pending.
+     *
+     * @return the pending
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    /**
+     * Gets max.
+     *
+     * @return the max
+     */
+    public int getMax() {
+        return max;
+    }
+
+}
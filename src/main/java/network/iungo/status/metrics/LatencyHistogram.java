@@ -0,0 +1,178 @@
+/*
+ * LatencyHistogram.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.metrics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Fixed size log-linear latency histogram.
+ * <p>
+ * Values below 8 ms have a bucket each, every following power of two range is split into 8 linear buckets,
+ * so the relative error stays below 12.5% up to the two minute cap.
+ * Recording finds the bucket with a few bit operations and does not allocate.
+ */
+public class LatencyHistogram {
+
+    private final static int SUB_BITS = 3;
+    private final static int SUB_BUCKETS = 1 << SUB_BITS;
+    private final static int MAX_EXPONENT = 16;
+    private final static long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    /**
+     * Number of buckets of every histogram.
+     */
+    public final static int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicIntegerArray counts = new AtomicIntegerArray(BUCKETS);
+    private volatile long max;
+
+    /**
+     * Records one value.
+     *
+     * @param millis the latency in milliseconds
+     */
+    public void record(long millis) {
+        long v = Math.min(Math.max(millis, 0), MAX_VALUE);
+        counts.incrementAndGet(index(v));
+        if (v > max) {
+            max = v;
+        }
+    }
+
+    /**
+     * Clears all buckets.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        max = 0;
+    }
+
+    /**
+     * Writes the non empty buckets.
+     *
+     * @param out the output
+     * @throws IOException the io exception
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        int used = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts.get(i) != 0) {
+                used++;
+            }
+        }
+        out.writeLong(max);
+        out.writeShort(used);
+        for (int i = 0; i < BUCKETS && used > 0; i++) {
+            int c = counts.get(i);
+            if (c != 0) {
+                out.writeShort(i);
+                out.writeInt(c);
+                used--;
+            }
+        }
+    }
+
+    /**
+     * Replaces the buckets with ones written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in the input
+     * @throws IOException the io exception
+     */
+    public void readFrom(DataInput in) throws IOException {
+        reset();
+        long m = in.readLong();
+        int used = in.readUnsignedShort();
+        for (int n = 0; n < used; n++) {
+            int i = in.readUnsignedShort();
+            int c = in.readInt();
+            if (i >= BUCKETS) {
+                throw new IOException("Latency bucket " + i + " out of range");
+            }
+            counts.set(i, c);
+        }
+        max = m;
+    }
+
+    /**
+     * Adds bucket counts of this histogram to the given array.
+     *
+     * @param into array of {@link #BUCKETS} counters
+     * @return the maximum recorded value
+     */
+    public long addTo(long[] into) {
+        for (int i = 0; i < BUCKETS; i++) {
+            into[i] += counts.get(i);
+        }
+        return max;
+    }
+
+    /**
+     * Gets the value at the given percentile of merged bucket counts, reported as the bucket upper bound.
+     *
+     * @param counts     merged bucket counts
+     * @param total      sum of the counts
+     * @param max        maximum recorded value
+     * @param percentile the percentile between 0 and 100
+     * @return the value, 0 if nothing was recorded
+     */
+    public static long percentile(long[] counts, long total, long max, double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    static int index(long v) {
+        if (v < SUB_BUCKETS) {
+            return (int) v;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(v);
+        int shift = exponent - SUB_BITS;
+        return ((shift + 1) << SUB_BITS) + (int) ((v >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >>> SUB_BITS) - 1;
+        long lower = (long) (SUB_BUCKETS + (index & (SUB_BUCKETS - 1))) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+}
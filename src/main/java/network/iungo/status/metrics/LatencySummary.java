@@ -0,0 +1,121 @@
+/*
+ * LatencySummary.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.metrics;
+
+/**
+ * Latency percentiles over one window, all values in milliseconds.
+ */
+public class LatencySummary {
+
+    private final String window;
+    private final long count;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long max;
+
+    /**
+     * Instantiates a new Latency summary.
+     *
+     * @param window the window name
+     * @param count  number of recorded values
+     * @param p50    the median
+     * @param p90    the 90th percentile
+     * @param p99    the 99th percentile
+     * @param max    the maximum
+     */
+    public LatencySummary(String window, long count, long p50, long p90, long p99, long max) {
+        this.window = window;
+        this.count = count;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.max = max;
+    }
+
+    /**
+     * Gets window.
+     *
+     * @return the window
+     */
+    public String getWindow() {
+        return window;
+    }
+
+    /**
+     * Gets count.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets p 50.
+     *
+     * @return the p 50
+     */
+    public long getP50() {
+        return p50;
+    }
+
+    /**
+     * Gets p 90.
+     *
+     * @return the p 90
+     */
+    public long getP90() {
+        return p90;
+    }
+
+    /**
+     * Gets p 99.
+     *
+     * @return the p 99
+     */
+    public long getP99() {
+        return p99;
+    }
+
+    /**
+     * Gets max.
+     *
+     * @return the max
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Is empty boolean.
+     *
+     * @return true if nothing was recorded in the window
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+}
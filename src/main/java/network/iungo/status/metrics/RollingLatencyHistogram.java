@@ -0,0 +1,185 @@
+/*
+ * RollingLatencyHistogram.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.metrics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Latency histograms over the last 5 minutes, hour and day.
+ * <p>
+ * Every window is a ring of preallocated slices, a slice is cleared and reused
+ * once its time has passed, so the memory footprint is fixed and recording does not allocate.
+ * Meant for a single writer and any number of readers.
+ */
+public class RollingLatencyHistogram {
+
+    private final Window[] windows = {
+            new Window("5m", 60 * 1000, 5),
+            new Window("1h", 5 * 60 * 1000, 12),
+            new Window("24h", 60 * 60 * 1000, 24)
+    };
+
+    /**
+     * Records one value in every window.
+     *
+     * @param millis the latency in milliseconds
+     * @param now    current time in milliseconds
+     */
+    public void record(long millis, long now) {
+        for (Window w : windows) {
+            w.record(millis, now);
+        }
+    }
+
+    /**
+     * Gets summaries of all windows.
+     *
+     * @param now current time in milliseconds
+     * @return the summaries
+     */
+    public List<LatencySummary> getSummaries(long now) {
+        List<LatencySummary> summaries = new ArrayList<>(windows.length);
+        for (Window w : windows) {
+            summaries.add(w.summary(now));
+        }
+        return summaries;
+    }
+
+    /**
+     * Gets summary of the window with the given name.
+     *
+     * @param window the window name
+     * @param now    current time in milliseconds
+     * @return the summary, null for unknown windows
+     */
+    public LatencySummary getSummary(String window, long now) {
+        for (Window w : windows) {
+            if (w.name.equals(window)) {
+                return w.summary(now);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes all windows.
+     *
+     * @param out the output
+     * @throws IOException the io exception
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeByte(windows.length);
+        for (Window w : windows) {
+            out.writeLong(w.sliceMillis);
+            out.writeShort(w.slices.length);
+            for (int i = 0; i < w.slices.length; i++) {
+                out.writeLong(w.epochs[i]);
+                if (w.epochs[i] >= 0) {
+                    w.slices[i].writeTo(out);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces all windows with ones written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in the input
+     * @throws IOException if the windows were written with a different layout
+     */
+    public void readFrom(DataInput in) throws IOException {
+        if (in.readUnsignedByte() != windows.length) {
+            throw new IOException("Latency windows changed");
+        }
+        for (Window w : windows) {
+            if (in.readLong() != w.sliceMillis || in.readUnsignedShort() != w.slices.length) {
+                throw new IOException("Latency window " + w.name + " changed");
+            }
+            for (int i = 0; i < w.slices.length; i++) {
+                w.epochs[i] = in.readLong();
+                if (w.epochs[i] >= 0) {
+                    w.slices[i].readFrom(in);
+                } else {
+                    w.slices[i].reset();
+                }
+            }
+        }
+    }
+
+    private static final class Window {
+
+        private final String name;
+        private final long sliceMillis;
+        private final LatencyHistogram[] slices;
+        private final long[] epochs;
+
+        private Window(String name, long sliceMillis, int sliceCount) {
+            this.name = name;
+            this.sliceMillis = sliceMillis;
+            this.slices = new LatencyHistogram[sliceCount];
+            this.epochs = new long[sliceCount];
+            for (int i = 0; i < sliceCount; i++) {
+                slices[i] = new LatencyHistogram();
+                epochs[i] = -1;
+            }
+        }
+
+        private void record(long millis, long now) {
+            long epoch = now / sliceMillis;
+            int i = (int) (epoch % slices.length);
+            if (epochs[i] != epoch) {
+                slices[i].reset();
+                epochs[i] = epoch;
+            }
+            slices[i].record(millis);
+        }
+
+        private LatencySummary summary(long now) {
+            long epoch = now / sliceMillis;
+            long[] counts = new long[LatencyHistogram.BUCKETS];
+            long max = 0;
+            for (int i = 0; i < slices.length; i++) {
+                if (epochs[i] > epoch - slices.length) {
+                    max = Math.max(max, slices[i].addTo(counts));
+                }
+            }
+            long total = 0;
+            for (long c : counts) {
+                total += c;
+            }
+            return new LatencySummary(name, total,
+                    LatencyHistogram.percentile(counts, total, max, 50),
+                    LatencyHistogram.percentile(counts, total, max, 90),
+                    LatencyHistogram.percentile(counts, total, max, 99),
+                    max);
+        }
+
+    }
+
+}
@@ -0,0 +1,214 @@
+/*
+ * UptimeCounter.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.metrics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Uptime over rolling 24 hour, 7, 30 and 90 day windows.
+ * <p>
+ * Probes are counted into preallocated hourly and daily buckets as they arrive,
+ * a bucket is cleared and reused once its time has passed. Reading a window sums
+ * at most 90 buckets, so the cost does not depend on the number of stored probes.
+ * Days are UTC days. Meant for a single writer and any number of readers.
+ */
+public class UptimeCounter {
+
+    private final static long HOUR = 60 * 60 * 1000;
+    private final static long DAY = 24 * HOUR;
+
+    /**
+     * Number of days covered by the daily buckets.
+     */
+    public final static int DAYS = 90;
+    private final static int HOURS = 24;
+
+    private final Buckets hours = new Buckets(HOURS, HOUR);
+    private final Buckets days = new Buckets(DAYS, DAY);
+
+    /**
+     * Counts one probe.
+     *
+     * @param timestamp the probe time in milliseconds
+     * @param online    the probe result
+     */
+    public void record(long timestamp, boolean online) {
+        hours.record(timestamp, online);
+        days.record(timestamp, online);
+    }
+
+    /**
+     * Gets uptime over the 24h, 7d, 30d and 90d windows.
+     *
+     * @param now current time in milliseconds
+     * @return the summaries
+     */
+    public List<UptimeSummary> getSummaries(long now) {
+        List<UptimeSummary> summaries = new ArrayList<>(4);
+        summaries.add(hours.sum("24h", now, HOURS));
+        summaries.add(days.sum("7d", now, 7));
+        summaries.add(days.sum("30d", now, 30));
+        summaries.add(days.sum("90d", now, DAYS));
+        return summaries;
+    }
+
+    /**
+     * Gets uptime of each of the last 90 days, oldest first.
+     *
+     * @param now current time in milliseconds
+     * @return the daily summaries
+     */
+    public List<UptimeSummary> getDays(long now) {
+        long today = now / DAY;
+        List<UptimeSummary> result = new ArrayList<>(DAYS);
+        for (long day = today - DAYS + 1; day <= today; day++) {
+            result.add(days.get(LocalDate.ofEpochDay(day).toString(), day));
+        }
+        return result;
+    }
+
+    /**
+     * Writes the used hourly and daily buckets.
+     *
+     * @param out the output
+     * @throws IOException the io exception
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        hours.writeTo(out);
+        days.writeTo(out);
+    }
+
+    /**
+     * Adds buckets written by {@link #writeTo(DataOutput)}, buckets already counted here are kept.
+     *
+     * @param in the input
+     * @throws IOException the io exception
+     */
+    public void readFrom(DataInput in) throws IOException {
+        hours.readFrom(in);
+        days.readFrom(in);
+    }
+
+    private static final class Buckets {
+
+        private final int size;
+        private final long millis;
+        private final AtomicLongArray epochs;
+        private final AtomicLongArray up;
+        private final AtomicLongArray total;
+
+        private Buckets(int size, long millis) {
+            this.size = size;
+            this.millis = millis;
+            this.epochs = new AtomicLongArray(size);
+            this.up = new AtomicLongArray(size);
+            this.total = new AtomicLongArray(size);
+            for (int i = 0; i < size; i++) {
+                epochs.set(i, -1);
+            }
+        }
+
+        private void record(long timestamp, boolean online) {
+            long epoch = timestamp / millis;
+            int i = (int) (epoch % size);
+            long current = epochs.get(i);
+            if (current > epoch) {
+                return;
+            }
+            if (current != epoch) {
+                up.set(i, 0);
+                total.set(i, 0);
+                epochs.set(i, epoch);
+            }
+            if (online) {
+                up.incrementAndGet(i);
+            }
+            total.incrementAndGet(i);
+        }
+
+        private void writeTo(DataOutput out) throws IOException {
+            int used = 0;
+            for (int i = 0; i < size; i++) {
+                if (epochs.get(i) >= 0) {
+                    used++;
+                }
+            }
+            out.writeShort(used);
+            for (int i = 0; i < size; i++) {
+                long epoch = epochs.get(i);
+                if (epoch >= 0) {
+                    out.writeLong(epoch);
+                    out.writeLong(up.get(i));
+                    out.writeLong(total.get(i));
+                }
+            }
+        }
+
+        private void readFrom(DataInput in) throws IOException {
+            int used = in.readUnsignedShort();
+            for (int n = 0; n < used; n++) {
+                long epoch = in.readLong();
+                long u = in.readLong();
+                long t = in.readLong();
+                int i = (int) (epoch % size);
+                if (epochs.get(i) < epoch) {
+                    epochs.set(i, epoch);
+                    up.set(i, u);
+                    total.set(i, t);
+                }
+            }
+        }
+
+        private UptimeSummary sum(String window, long now, int count) {
+            long epoch = now / millis;
+            long u = 0;
+            long t = 0;
+            for (int i = 0; i < size; i++) {
+                long e = epochs.get(i);
+                if (e <= epoch && e > epoch - count) {
+                    u += up.get(i);
+                    t += total.get(i);
+                }
+            }
+            return new UptimeSummary(window, u, t);
+        }
+
+        private UptimeSummary get(String label, long epoch) {
+            int i = (int) (epoch % size);
+            if (epochs.get(i) != epoch) {
+                return new UptimeSummary(label, 0, 0);
+            }
+            return new UptimeSummary(label, up.get(i), total.get(i));
+        }
+
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * UptimeSummary.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.metrics;
+
+import java.util.Locale;
+
+/**
+ * Uptime over one window.
+ */
+public class UptimeSummary {
+
+    private final String window;
+    private final long up;
+    private final long total;
+
+    /**
+     * Instantiates a new Uptime summary.
+     *
+     * @param window the window name
+     * @param up     number of successful probes
+     * @param total  number of all probes
+     */
+    public UptimeSummary(String window, long up, long total) {
+        this.window = window;
+        this.up = up;
+        this.total = total;
+    }
+
+    /**
+     * Gets window.
+     *
+     * @return the window
+     */
+    public String getWindow() {
+        return window;
+    }
+
+    /**
+     * Gets up.
+     *
+     * @return the up
+     */
+    public long getUp() {
+        return up;
+    }
+
+    /**
+     * Gets total.
+     *
+     * @return the total
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets share of successful probes, 1 if there were no probes.
+     *
+     * @return the ratio
+     */
+    public double getRatio() {
+        return total == 0 ? 1 : (double) up / total;
+    }
+
+    /**
+     * Gets percentage pretty.
+     *
+     * @return the percentage, e.g. 99.95%
+     */
+    public String getPercentage() {
+        return total == 0 ? "n/a" : String.format(Locale.ROOT, "%.2f%%", getRatio() * 100);
+    }
+
+    /**
+     * Gets level used to color uptime bars: none, up, degraded or down.
+     *
+     * @return the level
+     */
+    public String getLevel() {
+        if (total == 0) {
+            return "none";
+        }
+        double ratio = getRatio();
+        return ratio >= 0.999 ? "up" : ratio >= 0.95 ? "degraded" : "down";
+    }
+
+}
@@ -0,0 +1,366 @@
+/*
+ * MonitoringProperties.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.monitoring;
+
+import network.iungo.status.domain.MonitoredEndpoint;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The type Monitoring properties.
+ */
+@ConfigurationProperties(prefix = "monitoring")
+@Configuration
+public class MonitoringProperties {
+
+    private int concurrency = 64;
+    private long roundDeadline = 60 * 1000;
+    private int maxConnections = 256;
+    private int connectionsPerHost = 4;
+    private long idleTimeout = 90 * 1000;
+    private long drainLimit = 64 * 1024;
+    private long assertionLimit = 1024 * 1024;
+    private long confirmInterval = 10 * 1000;
+    private int maxBackoff = 4;
+    private int retries = 3;
+    private int retryFailures = 2;
+    private long retryDeadline = 3 * 1000;
+    private String storeDirectory = "data/probes";
+    private long segmentDuration = 24 * 60 * 60 * 1000;
+    private int segmentCapacity = 1 << 20;
+    private long retention = 365L * 24 * 60 * 60 * 1000;
+    private List<MonitoredEndpoint> endpoints = new ArrayList<>();
+
+    /**
+     * Gets maximum number of probes running at the same time.
+     *
+     * @return the concurrency
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Sets concurrency.
+     *
+     * @param concurrency the concurrency
+     */
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Gets deadline of a batch of probes in milliseconds, probes not finished by then are dropped.
+     *
+     * @return the round deadline
+     */
+    public long getRoundDeadline() {
+        return roundDeadline;
+    }
+
+    /**
+     * Sets round deadline.
+     *
+     * @param roundDeadline the round deadline
+     */
+    public void setRoundDeadline(long roundDeadline) {
+        this.roundDeadline = roundDeadline;
+    }
+
+    /**
+     * Gets maximum number of open probe connections.
+     *
+     * @return the max connections
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Sets max connections.
+     *
+     * @param maxConnections the max connections
+     */
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    /**
+     * Gets maximum number of open probe connections to a single host.
+     *
+     * @return the connections per host
+     */
+    public int getConnectionsPerHost() {
+        return connectionsPerHost;
+    }
+
+    /**
+     * Sets connections per host.
+     *
+     * @param connectionsPerHost the connections per host
+     */
+    public void setConnectionsPerHost(int connectionsPerHost) {
+        this.connectionsPerHost = connectionsPerHost;
+    }
+
+    /**
+     * Gets time in milliseconds after which an unused connection is closed.
+     *
+     * @return the idle timeout
+     */
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Sets idle timeout.
+     *
+     * @param idleTimeout the idle timeout
+     */
+    public void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Gets maximum number of body bytes read to keep a connection alive, 0 reads no body at all.
+     *
+     * @return the drain limit
+     */
+    public long getDrainLimit() {
+        return drainLimit;
+    }
+
+    /**
+     * Sets drain limit.
+     *
+     * @param drainLimit the drain limit
+     */
+    public void setDrainLimit(long drainLimit) {
+        this.drainLimit = drainLimit;
+    }
+
+    /**
+     * Gets maximum number of body bytes read by content assertions, assertions still undecided by then fail.
+     *
+     * @return the assertion limit
+     */
+    public long getAssertionLimit() {
+        return assertionLimit;
+    }
+
+    /**
+     * Sets assertion limit.
+     *
+     * @param assertionLimit the assertion limit
+     */
+    public void setAssertionLimit(long assertionLimit) {
+        this.assertionLimit = assertionLimit;
+    }
+
+    /**
+     * Gets interval in milliseconds of probes confirming a failure or a recovery.
+     *
+     * @return the confirm interval
+     */
+    public long getConfirmInterval() {
+        return confirmInterval;
+    }
+
+    /**
+     * Sets confirm interval.
+     *
+     * @param confirmInterval the confirm interval
+     */
+    public void setConfirmInterval(long confirmInterval) {
+        this.confirmInterval = confirmInterval;
+    }
+
+    /**
+     * Gets maximum multiple of the regular interval used for endpoints which stay healthy.
+     *
+     * @return the max backoff
+     */
+    public int getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    /**
+     * Sets max backoff.
+     *
+     * @param maxBackoff the max backoff
+     */
+    public void setMaxBackoff(int maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * Gets number of retries sent in parallel on new connections after a failed probe, 0 sends none.
+     *
+     * @return the retries
+     */
+    public int getRetries() {
+        return retries;
+    }
+
+    /**
+     * Sets retries.
+     *
+     * @param retries the retries
+     */
+    public void setRetries(int retries) {
+        this.retries = retries;
+    }
+
+    /**
+     * Gets number of failed retries needed before a failure counts.
+     *
+     * @return the retry failures
+     */
+    public int getRetryFailures() {
+        return retryFailures;
+    }
+
+    /**
+     * Sets retry failures.
+     *
+     * @param retryFailures the retry failures
+     */
+    public void setRetryFailures(int retryFailures) {
+        this.retryFailures = retryFailures;
+    }
+
+    /**
+     * Gets time in milliseconds the retries may take, at most half of the endpoint interval,
+     * retries still running by then count as failed.
+     *
+     * @return the retry deadline
+     */
+    public long getRetryDeadline() {
+        return retryDeadline;
+    }
+
+    /**
+     * Sets retry deadline.
+     *
+     * @param retryDeadline the retry deadline
+     */
+    public void setRetryDeadline(long retryDeadline) {
+        this.retryDeadline = retryDeadline;
+    }
+
+    /**
+     * Gets directory of the probe result store, empty to keep no history.
+     *
+     * @return the store directory
+     */
+    public String getStoreDirectory() {
+        return storeDirectory;
+    }
+
+    /**
+     * Sets store directory.
+     *
+     * @param storeDirectory the store directory
+     */
+    public void setStoreDirectory(String storeDirectory) {
+        this.storeDirectory = storeDirectory;
+    }
+
+    /**
+     * Gets time range of one store segment in milliseconds.
+     *
+     * @return the segment duration
+     */
+    public long getSegmentDuration() {
+        return segmentDuration;
+    }
+
+    /**
+     * Sets segment duration.
+     *
+     * @param segmentDuration the segment duration
+     */
+    public void setSegmentDuration(long segmentDuration) {
+        this.segmentDuration = segmentDuration;
+    }
+
+    /**
+     * Gets maximum number of probe results in one store segment.
+     *
+     * @return the segment capacity
+     */
+    public int getSegmentCapacity() {
+        return segmentCapacity;
+    }
+
+    /**
+     * Sets segment capacity.
+     *
+     * @param segmentCapacity the segment capacity
+     */
+    public void setSegmentCapacity(int segmentCapacity) {
+        this.segmentCapacity = segmentCapacity;
+    }
+
+    /**
+     * Gets how long probe results are kept in milliseconds.
+     *
+     * @return the retention
+     */
+    public long getRetention() {
+        return retention;
+    }
+
+    /**
+     * Sets retention.
+     *
+     * @param retention the retention
+     */
+    public void setRetention(long retention) {
+        this.retention = retention;
+    }
+
+    /**
+     * Gets monitored endpoints.
+     *
+     * @return the endpoints
+     */
+    public List<MonitoredEndpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Sets endpoints.
+     *
+     * @param endpoints the endpoints
+     */
+    public void setEndpoints(List<MonitoredEndpoint> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+}
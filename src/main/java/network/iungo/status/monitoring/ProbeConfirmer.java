@@ -0,0 +1,165 @@
+/*
+ * ProbeConfirmer.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.monitoring;
+
+import org.apache.http.client.methods.HttpUriRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Confirms a failed probe with retries sent in parallel, before the endpoint is declared offline.
+ * <p>
+ * All retries start at once and the failure is confirmed when the required number of them fail.
+ * Retries still running at the deadline count as failed. As soon as the outcome is certain
+ * the remaining requests are aborted, so a confirmation never takes longer than its deadline.
+ */
+public class ProbeConfirmer {
+
+    private static Logger LOG = LoggerFactory.getLogger(ProbeConfirmer.class);
+
+    private final int retries;
+    private final int failures;
+    private final ThreadPoolExecutor workers;
+
+    /**
+     * A single retry.
+     */
+    @FunctionalInterface
+    public interface Check {
+
+        /**
+         * Sends the request and tells whether the endpoint answered as expected.
+         *
+         * @param request the request
+         * @return true if the endpoint passed
+         * @throws Exception if the request failed
+         */
+        boolean passes(HttpUriRequest request) throws Exception;
+
+    }
+
+    /**
+     * Instantiates a new Probe confirmer.
+     *
+     * @param retries  number of retries sent after a failure, 0 confirms every failure right away
+     * @param failures number of failed retries confirming the failure
+     * @param threads  maximum number of retries running at the same time
+     */
+    public ProbeConfirmer(int retries, int failures, int threads) {
+        if (retries < 0 || (retries > 0 && (failures < 1 || failures > retries))) {
+            throw new IllegalArgumentException("Retry failures must be between 1 and " + retries);
+        }
+        this.retries = retries;
+        this.failures = failures;
+        workers = new ThreadPoolExecutor(Math.max(threads, 1), Math.max(threads, 1), 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), ProbeEngine.threadFactory("ProbeRetry"));
+        workers.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Is enabled boolean, false if failures are confirmed right away without retries.
+     *
+     * @return the boolean
+     */
+    public boolean isEnabled() {
+        return retries > 0;
+    }
+
+    /**
+     * Sends the retries and waits until enough of them failed or passed, at most until the deadline.
+     * An interrupted confirmation aborts its retries and confirms the failure.
+     *
+     * @param requests creates the request of every retry
+     * @param check    sends one retry
+     * @param deadline the deadline in milliseconds
+     * @return true if the failure is confirmed
+     */
+    public boolean confirm(Supplier<HttpUriRequest> requests, Check check, long deadline) {
+        if (retries == 0) {
+            return true;
+        }
+        CompletionService<Boolean> done = new ExecutorCompletionService<>(workers);
+        List<HttpUriRequest> sent = new ArrayList<>(retries);
+        List<Future<Boolean>> futures = new ArrayList<>(retries);
+        for (int i = 0; i < retries; i++) {
+            HttpUriRequest request = requests.get();
+            sent.add(request);
+            futures.add(done.submit(() -> check.passes(request)));
+        }
+
+        int failed = 0;
+        int passed = 0;
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadline);
+        try {
+            while (failed < failures && passed <= retries - failures) {
+                long left = end - System.nanoTime();
+                Future<Boolean> future = left > 0 ? done.poll(left, TimeUnit.NANOSECONDS) : null;
+                if (future == null) {
+                    break;
+                }
+                if (passed(future)) {
+                    passed++;
+                } else {
+                    failed++;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            passed = 0;
+        } finally {
+            for (int i = 0; i < retries; i++) {
+                futures.get(i).cancel(false);
+                sent.get(i).abort();
+            }
+        }
+
+        boolean confirmed = passed <= retries - failures;
+        if (!confirmed) {
+            LOG.info("Failure of {} not confirmed, {} of {} retries passed", sent.get(0).getURI(), passed, retries);
+        }
+        return confirmed;
+    }
+
+    private static boolean passed(Future<Boolean> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Stops the workers, running retries are interrupted.
+     */
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+}
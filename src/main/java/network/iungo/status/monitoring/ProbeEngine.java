@@ -0,0 +1,276 @@
+/*
+ * ProbeEngine.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.monitoring;
+
+import network.iungo.status.domain.MonitoredEndpoint;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Runs endpoint probes on a bounded pool of workers.
+ * <p>
+ * Probes are submitted in rounds, every round has a fixed deadline after which
+ * probes that are still queued are dropped and probes that are still running are aborted:
+ * their request is aborted, which also unblocks socket reads, and their thread is interrupted.
+ * A hanging endpoint therefore holds only one worker and never delays the rest of the round.
+ * A running probe counts as dropped only if it did not complete after all.
+ * <p>
+ * Every submitted endpoint is handed to the release callback exactly once,
+ * when its probe has stopped running or was dropped before it started.
+ */
+public class ProbeEngine {
+
+    private static Logger LOG = LoggerFactory.getLogger(ProbeEngine.class);
+
+    private final static int QUEUED = 0;
+    private final static int RUNNING = 1;
+    private final static int DONE = 2;
+
+    private final Probe probe;
+    private final Consumer<MonitoredEndpoint> release;
+    private final Consumer<ProbeRound> roundFinished;
+    private final long roundDeadline;
+
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService deadlines;
+
+    private final AtomicLong rounds = new AtomicLong();
+    private final AtomicLong probes = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile ProbeRound lastRound;
+
+    /**
+     * The probe of one endpoint.
+     */
+    @FunctionalInterface
+    public interface Probe {
+
+        /**
+         * Probes the endpoint.
+         *
+         * @param endpoint the endpoint
+         * @param requests told every request before it is sent, so it can be aborted at the deadline
+         * @return false if the probe was aborted before it had a result
+         */
+        boolean probe(MonitoredEndpoint endpoint, Consumer<HttpUriRequest> requests);
+
+    }
+
+    /**
+     * Instantiates a new Probe engine.
+     *
+     * @param probe         the probe executed for every endpoint
+     * @param release       called once per submitted endpoint when its probe is over
+     * @param roundFinished called once per round when all its probes are over or the deadline passed
+     * @param concurrency   maximum number of probes running at the same time
+     * @param roundDeadline round deadline in milliseconds
+     */
+    public ProbeEngine(Probe probe, Consumer<MonitoredEndpoint> release,
+                       Consumer<ProbeRound> roundFinished, int concurrency, long roundDeadline) {
+        this.probe = probe;
+        this.release = release;
+        this.roundFinished = roundFinished;
+        this.roundDeadline = roundDeadline;
+
+        workers = new ThreadPoolExecutor(concurrency, concurrency, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory("ProbeWorker"));
+        workers.allowCoreThreadTimeOut(true);
+        deadlines = Executors.newSingleThreadScheduledExecutor(threadFactory("ProbeDeadline"));
+    }
+
+    /**
+     * Submits a round of probes, returns immediately.
+     *
+     * @param endpoints the endpoints to be probed
+     * @return the round
+     */
+    public ProbeRound submit(Collection<MonitoredEndpoint> endpoints) {
+        ProbeRound round = new ProbeRound(endpoints.size());
+        if (endpoints.isEmpty()) {
+            round.finish();
+            return round;
+        }
+
+        List<ProbeTask> tasks = new ArrayList<>(endpoints.size());
+        for (MonitoredEndpoint e : endpoints) {
+            ProbeTask task = new ProbeTask(e, round);
+            tasks.add(task);
+            workers.execute(task);
+        }
+
+        round.setDeadline(deadlines.schedule(() -> expire(round, tasks), roundDeadline, TimeUnit.MILLISECONDS));
+        return round;
+    }
+
+    private void expire(ProbeRound round, List<ProbeTask> tasks) {
+        int aborted = 0;
+        for (ProbeTask task : tasks) {
+            if (task.state.compareAndSet(QUEUED, DONE)) {
+                workers.remove(task);
+                drop(task);
+                release(task);
+            } else if (task.state.get() == RUNNING) {
+                task.abort();
+                aborted++;
+            }
+        }
+        if (round.finish()) {
+            finished(round, aborted);
+        }
+    }
+
+    private void drop(ProbeTask task) {
+        task.round.drop();
+        dropped.incrementAndGet();
+    }
+
+    private void release(ProbeTask task) {
+        try {
+            release.accept(task.endpoint);
+        } catch (RuntimeException ex) {
+            LOG.error("Release of {} failed: {}", task.endpoint.getUrl(), ex.getMessage());
+        }
+        if (task.round.complete()) {
+            finished(task.round, 0);
+        }
+    }
+
+    private void finished(ProbeRound round, int aborted) {
+        rounds.incrementAndGet();
+        probes.addAndGet(round.getSize());
+        lastRound = round;
+
+        if (round.getDropped() > 0 || aborted > 0) {
+            LOG.warn("Probe round of {} endpoints hit the deadline after {} ms, dropped {} queued, aborted {} running",
+                    round.getSize(), round.getDuration(), round.getDropped(), aborted);
+        } else {
+            LOG.debug("Probe round of {} endpoints took {} ms", round.getSize(), round.getDuration());
+        }
+
+        try {
+            roundFinished.accept(round);
+        } catch (RuntimeException ex) {
+            LOG.error("Round listener failed: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Gets statistics.
+     *
+     * @return the statistics
+     */
+    public ProbeStatistics getStatistics() {
+        return new ProbeStatistics(rounds.get(), probes.get(), dropped.get(), workers.getActiveCount(),
+                workers.getQueue().size(), lastRound);
+    }
+
+    /**
+     * Stops the workers, running probes are interrupted.
+     */
+    public void shutdown() {
+        deadlines.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private final class ProbeTask implements Runnable {
+
+        private final MonitoredEndpoint endpoint;
+        private final ProbeRound round;
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+        private Thread runner;
+        private HttpUriRequest request;
+        private boolean aborted;
+
+        private ProbeTask(MonitoredEndpoint endpoint, ProbeRound round) {
+            this.endpoint = endpoint;
+            this.round = round;
+        }
+
+        @Override
+        public void run() {
+            if (!state.compareAndSet(QUEUED, RUNNING)) {
+                return;
+            }
+            synchronized (this) {
+                runner = Thread.currentThread();
+            }
+            boolean completed = false;
+            try {
+                completed = probe.probe(endpoint, this::sending);
+            } catch (RuntimeException ex) {
+                LOG.error("Probe of {} failed: {}", endpoint.getUrl(), ex.getMessage());
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    request = null;
+                }
+                state.set(DONE);
+                Thread.interrupted();
+                if (!completed) {
+                    drop(this);
+                }
+                release(this);
+            }
+        }
+
+        private synchronized void sending(HttpUriRequest request) {
+            this.request = request;
+            if (aborted) {
+                request.abort();
+            }
+        }
+
+        private synchronized void abort() {
+            aborted = true;
+            if (request != null) {
+                request.abort();
+            }
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+
+    }
+
+    static ThreadFactory threadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * ProbeError.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.monitoring;
+
+import network.iungo.status.monitoring.assertion.ContentAssertionException;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.conn.ConnectTimeoutException;
+
+import javax.net.ssl.SSLException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+
+/**
+ * Reason of a failed probe, stored as a small numeric code.
+ */
+public enum ProbeError {
+
+    /**
+     * Probe succeeded.
+     */
+    NONE(0),
+    /**
+     * Response status differs from the expected one.
+     */
+    UNEXPECTED_STATUS(1),
+    /**
+     * Connect or read timed out.
+     */
+    TIMEOUT(2),
+    /**
+     * Connection refused.
+     */
+    CONNECTION_REFUSED(3),
+    /**
+     * Host name could not be resolved.
+     */
+    UNKNOWN_HOST(4),
+    /**
+     * TLS handshake or certificate failure.
+     */
+    TLS(5),
+    /**
+     * Server closed the connection without a response.
+     */
+    NO_RESPONSE(6),
+    /**
+     * Response body failed a content assertion.
+     */
+    CONTENT_MISMATCH(7),
+    /**
+     * Any other failure.
+     */
+    OTHER(9);
+
+    private final int code;
+
+    ProbeError(int code) {
+        this.code = code;
+    }
+
+    /**
+     * Gets code.
+     *
+     * @return the code
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Classifies the exception thrown by a probe.
+     *
+     * @param e the exception
+     * @return the probe error
+     */
+    public static ProbeError of(Exception e) {
+        if (e instanceof ContentAssertionException) {
+            return CONTENT_MISMATCH;
+        } else if (e instanceof SocketTimeoutException || e instanceof ConnectTimeoutException) {
+            return TIMEOUT;
+        } else if (e instanceof ConnectException) {
+            return CONNECTION_REFUSED;
+        } else if (e instanceof UnknownHostException) {
+            return UNKNOWN_HOST;
+        } else if (e instanceof SSLException) {
+            return TLS;
+        } else if (e instanceof NoHttpResponseException) {
+            return NO_RESPONSE;
+        }
+        return OTHER;
+    }
+
+    /**
+     * Gets the error with the given code.
+     *
+     * @param code the code
+     * @return the probe error, OTHER for unknown codes
+     */
+    public static ProbeError of(int code) {
+        for (ProbeError e : values()) {
+            if (e.code == code) {
+                return e;
+            }
+        }
+        return OTHER;
+    }
+
+}
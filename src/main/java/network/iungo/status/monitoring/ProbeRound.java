@@ -0,0 +1,143 @@
+/*
+ * ProbeRound.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.monitoring;
+
+import java.util.Date;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One batch of probes submitted to the {@link ProbeEngine} with a common deadline.
+ */
+public class ProbeRound {
+
+    private final Date started = new Date();
+    private final long startedNanos = System.nanoTime();
+    private final int size;
+
+    private final AtomicInteger remaining;
+    private final AtomicBoolean finished = new AtomicBoolean();
+    private final AtomicInteger dropped = new AtomicInteger();
+    private volatile long duration = -1;
+    private volatile Future<?> deadline;
+
+    /**
+     * Instantiates a new Probe round.
+     *
+     * @param size number of probes in the round
+     */
+    ProbeRound(int size) {
+        this.size = size;
+        this.remaining = new AtomicInteger(size);
+    }
+
+    /**
+     * Marks one probe as completed.
+     *
+     * @return true if this was the last outstanding probe and the round got finished by it
+     */
+    boolean complete() {
+        return remaining.decrementAndGet() == 0 && finish();
+    }
+
+    /**
+     * Counts one probe which did not complete.
+     */
+    void drop() {
+        dropped.incrementAndGet();
+    }
+
+    /**
+     * Finishes the round, first call wins.
+     *
+     * @return true if the round got finished by this call
+     */
+    boolean finish() {
+        if (!finished.compareAndSet(false, true)) {
+            return false;
+        }
+        this.duration = (System.nanoTime() - startedNanos) / 1000000;
+        Future<?> d = deadline;
+        if (d != null) {
+            d.cancel(false);
+        }
+        return true;
+    }
+
+    void setDeadline(Future<?> deadline) {
+        this.deadline = deadline;
+        if (finished.get()) {
+            deadline.cancel(false);
+        }
+    }
+
+    /**
+     * Gets started.
+     *
+     * @return the started
+     */
+    public Date getStarted() {
+        return started;
+    }
+
+    /**
+     * Gets number of probes in the round.
+     *
+     * @return the size
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets number of probes which did not complete, probes still queued at the deadline are counted then,
+     * running ones once they are aborted.
+     *
+     * @return the dropped
+     */
+    public int getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Gets round duration in milliseconds, -1 while the round is still running.
+     *
+     * @return the duration
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    /**
+     * Is finished boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isFinished() {
+        return finished.get();
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * ProbeScheduler.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.monitoring;
+
+import network.iungo.status.domain.MonitoredEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Drives endpoint probes from a {@link TimingWheel}.
+ * <p>
+ * Every endpoint is probed on its own interval, the first probe is placed at a random point
+ * within the interval and every following one is shifted by a random jitter,
+ * so probes are spread evenly in time instead of starting in a burst.
+ * An endpoint is rescheduled only after its previous probe is over, so it is never probed twice at once.
+ */
+public class ProbeScheduler {
+
+    private static Logger LOG = LoggerFactory.getLogger(ProbeScheduler.class);
+
+    private final TimingWheel<MonitoredEndpoint> wheel;
+    private final long tickMillis;
+    private final ToLongFunction<MonitoredEndpoint> interval;
+
+    private final Map<MonitoredEndpoint, TimingWheel.Timeout<MonitoredEndpoint>> timeouts = new IdentityHashMap<>();
+    private final ArrayList<MonitoredEndpoint> due = new ArrayList<>();
+    private final Consumer<MonitoredEndpoint> collect = due::add;
+
+    private ProbeEngine engine;
+    private volatile boolean running;
+
+    /**
+     * Instantiates a new Probe scheduler.
+     *
+     * @param tickMillis tick duration in milliseconds
+     * @param wheelSize  number of wheel slots
+     * @param interval   gives the current interval of an endpoint in milliseconds
+     */
+    public ProbeScheduler(long tickMillis, int wheelSize, ToLongFunction<MonitoredEndpoint> interval) {
+        this.tickMillis = tickMillis;
+        this.interval = interval;
+        this.wheel = new TimingWheel<>(wheelSize);
+    }
+
+    /**
+     * Starts probing the endpoints.
+     *
+     * @param endpoints the endpoints
+     * @param engine    the engine running the probes
+     */
+    public synchronized void start(Collection<MonitoredEndpoint> endpoints, ProbeEngine engine) {
+        this.engine = engine;
+        synchronized (wheel) {
+            for (MonitoredEndpoint e : endpoints) {
+                TimingWheel.Timeout<MonitoredEndpoint> timeout = new TimingWheel.Timeout<>(e);
+                timeouts.put(e, timeout);
+                wheel.schedule(timeout, ticks(ThreadLocalRandom.current().nextLong(Math.max(1, e.getInterval()))));
+            }
+        }
+
+        running = true;
+        Thread t = new Thread(this::loop, "ProbeScheduler");
+        t.setDaemon(true);
+        t.start();
+        LOG.info("Scheduled {} endpoints", endpoints.size());
+    }
+
+    /**
+     * Schedules the next probe of the endpoint, one interval plus jitter from now.
+     * Jitter is limited to half of the interval.
+     *
+     * @param endpoint the endpoint
+     */
+    public void reschedule(MonitoredEndpoint endpoint) {
+        TimingWheel.Timeout<MonitoredEndpoint> timeout = timeouts.get(endpoint);
+        if (timeout == null) {
+            return;
+        }
+        long delay = interval.applyAsLong(endpoint);
+        long jitter = Math.min(endpoint.getJitter(), delay / 2);
+        if (jitter > 0) {
+            delay += ThreadLocalRandom.current().nextLong(-jitter, jitter + 1);
+        }
+        synchronized (wheel) {
+            wheel.schedule(timeout, ticks(delay));
+        }
+    }
+
+    /**
+     * Stops the scheduler thread.
+     */
+    public void stop() {
+        running = false;
+    }
+
+    private long ticks(long millis) {
+        return Math.max(1, (millis + tickMillis - 1) / tickMillis);
+    }
+
+    private void loop() {
+        long tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        long next = System.nanoTime() + tickNanos;
+        while (running) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+                continue;
+            }
+            synchronized (wheel) {
+                // catches up with ticks missed during long pauses
+                do {
+                    wheel.advance(collect);
+                    next += tickNanos;
+                } while (next - System.nanoTime() <= 0);
+            }
+            if (!due.isEmpty()) {
+                engine.submit(due);
+                due.clear();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,251 @@
+/*
+ * ProbeState.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.monitoring;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Per-endpoint state machine deciding the reported status and the next probe interval.
+ * <p>
+ * A failure of a healthy endpoint makes it SUSPECT and it is probed again after the short confirm interval,
+ * it is reported offline only after consecutive failures confirm it. Recovery is confirmed the same way.
+ * Endpoints which stay healthy are probed less and less often, up to the maximum backoff.
+ * An endpoint whose results keep changing is flapping: it is probed on its regular interval
+ * and needs more confirmations to change the reported status, until its results settle down.
+ * A failure already confirmed by retries counts as two consecutive failures, so the retries replace
+ * the confirming probe instead of adding to it.
+ */
+public class ProbeState {
+
+    /**
+     * The enum State.
+     */
+    public enum State {
+        /**
+         * Healthy.
+         */
+        UP,
+        /**
+         * Healthy, but the last probe failed.
+         */
+        SUSPECT,
+        /**
+         * Offline.
+         */
+        DOWN,
+        /**
+         * Offline, but the last probe succeeded.
+         */
+        RECOVERING
+    }
+
+    private final static int CONFIRMATIONS = 2;
+    private final static int FLAPPING_CONFIRMATIONS = 4;
+    private final static int BACKOFF_AFTER = 10;
+    private final static int FLAP_WINDOW = 21;
+    private final static double FLAP_START = 0.3;
+    private final static double FLAP_STOP = 0.1;
+
+    private final long confirmInterval;
+    private final int maxBackoff;
+
+    private State state;
+    private boolean last;
+    private int streak;
+    private int backoff = 1;
+
+    private long history;
+    private int count;
+    private boolean flapping;
+
+    /**
+     * Instantiates a new Probe state.
+     *
+     * @param confirmInterval interval in milliseconds of probes confirming a status change
+     * @param maxBackoff      maximum multiple of the regular interval for long healthy endpoints
+     */
+    public ProbeState(long confirmInterval, int maxBackoff) {
+        this.confirmInterval = confirmInterval;
+        this.maxBackoff = Math.max(1, maxBackoff);
+    }
+
+    /**
+     * Feeds the result of a probe.
+     *
+     * @param success the probe result
+     */
+    public void update(boolean success) {
+        update(success, false);
+    }
+
+    /**
+     * Feeds the result of a probe.
+     *
+     * @param success   the probe result
+     * @param confirmed true if a failure was confirmed by retries, it counts as one more confirmation
+     */
+    public synchronized void update(boolean success, boolean confirmed) {
+        streak = state != null && success == last ? streak + 1 : 1;
+        if (!success && confirmed) {
+            streak++;
+        }
+        last = success;
+        history = (history << 1) | (success ? 1 : 0);
+        count = Math.min(count + 1, FLAP_WINDOW);
+        updateFlapping();
+
+        int confirmations = flapping ? FLAPPING_CONFIRMATIONS : CONFIRMATIONS;
+        if (state == null) {
+            state = success ? State.UP : State.DOWN;
+            return;
+        }
+        switch (state) {
+            case UP:
+                if (!success) {
+                    state = streak >= confirmations ? State.DOWN : State.SUSPECT;
+                    backoff = 1;
+                } else if (streak % BACKOFF_AFTER == 0) {
+                    backoff = Math.min(backoff * 2, maxBackoff);
+                }
+                break;
+            case SUSPECT:
+                if (success) {
+                    state = State.UP;
+                } else if (streak >= confirmations) {
+                    state = State.DOWN;
+                }
+                break;
+            case DOWN:
+                if (success) {
+                    state = State.RECOVERING;
+                }
+                break;
+            case RECOVERING:
+                if (!success) {
+                    state = State.DOWN;
+                } else if (streak >= confirmations) {
+                    state = State.UP;
+                    backoff = 1;
+                }
+                break;
+        }
+    }
+
+    private void updateFlapping() {
+        if (count < 2) {
+            return;
+        }
+        long mask = (1L << (count - 1)) - 1;
+        double changes = Long.bitCount((history ^ (history >>> 1)) & mask);
+        double rate = changes / (count - 1);
+        if (!flapping && count >= FLAP_WINDOW / 2 && rate >= FLAP_START) {
+            flapping = true;
+        } else if (flapping && rate <= FLAP_STOP) {
+            flapping = false;
+        }
+    }
+
+    /**
+     * Writes the state.
+     *
+     * @param out the output
+     * @throws IOException the io exception
+     */
+    public synchronized void writeTo(DataOutput out) throws IOException {
+        out.writeByte(state == null ? -1 : state.ordinal());
+        out.writeBoolean(last);
+        out.writeInt(streak);
+        out.writeInt(backoff);
+        out.writeLong(history);
+        out.writeByte(count);
+        out.writeBoolean(flapping);
+    }
+
+    /**
+     * Replaces the state with one written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in the input
+     * @throws IOException the io exception
+     */
+    public synchronized void readFrom(DataInput in) throws IOException {
+        int ordinal = in.readByte();
+        if (ordinal >= State.values().length) {
+            throw new IOException("Unknown probe state " + ordinal);
+        }
+        state = ordinal < 0 ? null : State.values()[ordinal];
+        last = in.readBoolean();
+        streak = in.readInt();
+        backoff = Math.min(Math.max(in.readInt(), 1), maxBackoff);
+        history = in.readLong();
+        count = Math.min(in.readByte(), FLAP_WINDOW);
+        flapping = in.readBoolean();
+    }
+
+    /**
+     * Gets delay of the next probe.
+     *
+     * @param interval the regular interval of the endpoint in milliseconds
+     * @return the delay in milliseconds
+     */
+    public synchronized long nextInterval(long interval) {
+        if (flapping || state == null || state == State.DOWN) {
+            return interval;
+        }
+        if (state == State.SUSPECT || state == State.RECOVERING) {
+            return Math.min(confirmInterval, interval);
+        }
+        return interval * backoff;
+    }
+
+    /**
+     * Is online, true for UP and not yet confirmed failures.
+     *
+     * @return the boolean
+     */
+    public synchronized boolean isOnline() {
+        return state == State.UP || state == State.SUSPECT;
+    }
+
+    /**
+     * Is flapping boolean.
+     *
+     * @return the boolean
+     */
+    public synchronized boolean isFlapping() {
+        return flapping;
+    }
+
+    /**
+     * Gets state.
+     *
+     * @return the state, null before the first probe
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+}
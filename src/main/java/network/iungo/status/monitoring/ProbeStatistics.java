@@ -0,0 +1,112 @@
+/*
+ * ProbeStatistics.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.monitoring;
+
+/**
+ * The type Probe statistics.
+ */
+public class ProbeStatistics {
+
+    private final long rounds;
+    private final long probes;
+    private final long dropped;
+    private final int active;
+    private final int queued;
+    private final ProbeRound lastRound;
+
+    /**
+     * Instantiates a new Probe statistics.
+     *
+     * @param rounds    finished rounds
+     * @param probes    probes in finished rounds
+     * @param dropped   probes dropped at round deadlines
+     * @param active    probes running right now
+     * @param queued    probes waiting for a worker
+     * @param lastRound the last finished round
+     */
+    ProbeStatistics(long rounds, long probes, long dropped, int active, int queued, ProbeRound lastRound) {
+        this.rounds = rounds;
+        this.probes = probes;
+        this.dropped = dropped;
+        this.active = active;
+        this.queued = queued;
+        this.lastRound = lastRound;
+    }
+
+    /**
+     * Gets rounds.
+     *
+     * @return the rounds
+     */
+    public long getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Gets probes.
+     *
+     * @return the probes
+     */
+    public long getProbes() {
+        return probes;
+    }
+
+    /**
+     * Gets dropped.
+     *
+     * @return the dropped
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Gets active.
+     *
+     * @return the active
+     */
+    public int getActive() {
+        return active;
+    }
+
+    /**
+     * Gets queued.
+     *
+     * @return the queued
+     */
+    public int getQueued() {
+        return queued;
+    }
+
+    /**
+     * Gets last round.
+     *
+     * @return the last round
+     */
+    public ProbeRound getLastRound() {
+        return lastRound;
+    }
+
+}
@@ -0,0 +1,188 @@
+/*
+ * TimingWheel.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.monitoring;
+
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel.
+ * <p>
+ * Timeouts are kept in a ring of slots, each slot is an intrusive doubly linked list,
+ * so scheduling, cancelling and firing are all O(1) and do not allocate.
+ * Timeouts further away than one revolution carry the number of remaining revolutions.
+ * <p>
+ * The wheel is not thread safe, callers synchronize on it.
+ *
+ * @param <T> the type parameter
+ */
+public class TimingWheel<T> {
+
+    /**
+     * Scheduled entry of the wheel, reused every time the value is rescheduled.
+     *
+     * @param <T> the type parameter
+     */
+    public static final class Timeout<T> {
+
+        private final T value;
+
+        private int slot = -1;
+        private long rounds;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        /**
+         * Instantiates a new Timeout.
+         *
+         * @param value the value
+         */
+        public Timeout(T value) {
+            this.value = value;
+        }
+
+        /**
+         * Gets value.
+         *
+         * @return the value
+         */
+        public T getValue() {
+            return value;
+        }
+
+        /**
+         * Is scheduled boolean.
+         *
+         * @return the boolean
+         */
+        public boolean isScheduled() {
+            return slot >= 0;
+        }
+
+    }
+
+    private final Timeout<T>[] slots;
+    private final int mask;
+
+    private long tick;
+    private int size;
+
+    /**
+     * Instantiates a new Timing wheel.
+     *
+     * @param wheelSize number of slots, rounded up to a power of two
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimingWheel(int wheelSize) {
+        int n = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1;
+        slots = new Timeout[n];
+        mask = n - 1;
+    }
+
+    /**
+     * Schedules the timeout to fire after the given number of ticks, an already scheduled timeout is moved.
+     *
+     * @param timeout the timeout
+     * @param ticks   ticks from now, at least one
+     */
+    public void schedule(Timeout<T> timeout, long ticks) {
+        if (timeout.isScheduled()) {
+            cancel(timeout);
+        }
+        ticks = Math.max(1, ticks);
+
+        int slot = (int) ((tick + ticks) & mask);
+        timeout.rounds = (ticks - 1) / slots.length;
+        timeout.slot = slot;
+        timeout.prev = null;
+        timeout.next = slots[slot];
+        if (timeout.next != null) {
+            timeout.next.prev = timeout;
+        }
+        slots[slot] = timeout;
+        size++;
+    }
+
+    /**
+     * Removes the timeout from the wheel.
+     *
+     * @param timeout the timeout
+     */
+    public void cancel(Timeout<T> timeout) {
+        if (!timeout.isScheduled()) {
+            return;
+        }
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            slots[timeout.slot] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.slot = -1;
+        size--;
+    }
+
+    /**
+     * Advances the wheel by one tick and fires due timeouts.
+     *
+     * @param expired receives values of the fired timeouts, already removed from the wheel
+     */
+    public void advance(Consumer<T> expired) {
+        tick++;
+        Timeout<T> t = slots[(int) (tick & mask)];
+        while (t != null) {
+            Timeout<T> next = t.next;
+            if (t.rounds == 0) {
+                cancel(t);
+                expired.accept(t.value);
+            } else {
+                t.rounds--;
+            }
+            t = next;
+        }
+    }
+
+    /**
+     * Gets current tick.
+     *
+     * @return the tick
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Gets number of scheduled timeouts.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * BodyInspector.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.monitoring.assertion;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * Runs content assertions over a response body while it is being read.
+ * <p>
+ * Every chunk is handed to all matchers which are still undecided and reading stops
+ * as soon as the first assertion fails, all of them passed, or the byte limit is reached.
+ * The body is never buffered as a whole.
+ */
+public final class BodyInspector {
+
+    private final static int CHUNK = 8192;
+
+    private BodyInspector() {
+    }
+
+    /**
+     * Reads as much of the body as the assertions need.
+     *
+     * @param in         the body
+     * @param charset    the charset of the body
+     * @param assertions the compiled assertions
+     * @param limit      maximum number of bytes read, assertions still undecided by then fail
+     * @throws ContentAssertionException if an assertion fails
+     * @throws IOException               if the body cannot be read
+     */
+    public static void inspect(InputStream in, Charset charset, List<ContentAssertion> assertions, long limit)
+            throws IOException {
+        int size = assertions.size();
+        BodyMatcher[] matchers = new BodyMatcher[size];
+        for (int i = 0; i < size; i++) {
+            matchers[i] = assertions.get(i).matcher(charset);
+        }
+
+        int undecided = size;
+        byte[] buffer = new byte[CHUNK];
+        long read = 0;
+        int n;
+        while (undecided > 0 && read < limit
+                && (n = in.read(buffer, 0, (int) Math.min(buffer.length, limit - read))) != -1) {
+            read += n;
+            for (int i = 0; i < size; i++) {
+                if (matchers[i] == null) {
+                    continue;
+                }
+                BodyMatcher.Verdict verdict = matchers[i].update(buffer, 0, n);
+                if (verdict == BodyMatcher.Verdict.FAILED) {
+                    throw new ContentAssertionException("Expected " + assertions.get(i));
+                } else if (verdict == BodyMatcher.Verdict.PASSED) {
+                    matchers[i] = null;
+                    undecided--;
+                }
+            }
+        }
+        if (undecided == 0) {
+            return;
+        }
+
+        boolean truncated = read >= limit;
+        for (int i = 0; i < size; i++) {
+            if (matchers[i] != null && (truncated || matchers[i].finish() == BodyMatcher.Verdict.FAILED)) {
+                throw new ContentAssertionException("Expected " + assertions.get(i)
+                        + (truncated ? " within " + limit + " bytes" : ""));
+            }
+        }
+    }
+
+}
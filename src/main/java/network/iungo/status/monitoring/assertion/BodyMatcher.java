@@ -0,0 +1,67 @@
+/*
+ * BodyMatcher.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.monitoring.assertion;
+
+/**
+ * Incremental check of a response body, fed chunk by chunk as the body is read.
+ */
+interface BodyMatcher {
+
+    /**
+     * Outcome of a check.
+     */
+    enum Verdict {
+        /**
+         * More of the body is needed.
+         */
+        PENDING,
+        /**
+         * The body satisfies the assertion.
+         */
+        PASSED,
+        /**
+         * The body violates the assertion.
+         */
+        FAILED
+    }
+
+    /**
+     * Feeds the next chunk of the body, never called again once the verdict is decided.
+     *
+     * @param buffer the buffer
+     * @param offset the offset of the chunk
+     * @param length the length of the chunk
+     * @return the verdict so far
+     */
+    Verdict update(byte[] buffer, int offset, int length);
+
+    /**
+     * Called at the end of the body when the verdict is still pending.
+     *
+     * @return the final verdict, never pending
+     */
+    Verdict finish();
+
+}
@@ -0,0 +1,177 @@
+/*
+ * ContentAssertion.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.monitoring.assertion;
+
+import com.fasterxml.jackson.core.JsonPointer;
+
+import java.nio.charset.Charset;
+import java.util.regex.Pattern;
+
+/**
+ * Assertion on the response body of an endpoint.
+ */
+public class ContentAssertion {
+
+    /**
+     * Kind of assertion.
+     */
+    public enum Type {
+        /**
+         * Body contains the value.
+         */
+        SUBSTRING,
+        /**
+         * Body contains a match of the value as a regular expression.
+         */
+        REGEX,
+        /**
+         * Body is JSON with a value at the pointer, equal to the expected text if one is given.
+         */
+        JSON_POINTER,
+        /**
+         * Body is not longer than the value in bytes.
+         */
+        MAX_SIZE
+    }
+
+    private Type type;
+    private String value;
+    private String expected;
+
+    private Pattern pattern;
+    private JsonPointer pointer;
+    private long maxSize;
+
+    /**
+     * Validates the assertion and prepares it for matching, called once after binding.
+     *
+     * @throws IllegalArgumentException if the assertion is incomplete or its value is invalid
+     */
+    public void compile() {
+        if (type == null || value == null) {
+            throw new IllegalArgumentException("Content assertion needs a type and a value");
+        }
+        switch (type) {
+            case REGEX:
+                pattern = Pattern.compile(value);
+                break;
+            case JSON_POINTER:
+                pointer = JsonPointer.compile(value);
+                break;
+            case MAX_SIZE:
+                maxSize = Long.parseLong(value);
+                break;
+            default:
+        }
+    }
+
+    /**
+     * Creates a matcher for one response body.
+     *
+     * @param charset the charset of the body
+     * @return the matcher
+     */
+    BodyMatcher matcher(Charset charset) {
+        switch (type) {
+            case REGEX:
+                return new RegexMatcher(pattern, charset);
+            case JSON_POINTER:
+                return new JsonPointerMatcher(pointer, expected);
+            case MAX_SIZE:
+                return new MaxSizeMatcher(maxSize);
+            default:
+                return new SubstringMatcher(value.getBytes(charset));
+        }
+    }
+
+    /**
+     * Gets type.
+     *
+     * @return the type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Sets type.
+     *
+     * @param type the type
+     */
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    /**
+     * Gets the text, expression, pointer or size the assertion is about.
+     *
+     * @return the value
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Sets value.
+     *
+     * @param value the value
+     */
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Gets expected text of the value at a JSON pointer, null if any value will do.
+     *
+     * @return the expected
+     */
+    public String getExpected() {
+        return expected;
+    }
+
+    /**
+     * Sets expected.
+     *
+     * @param expected the expected
+     */
+    public void setExpected(String expected) {
+        this.expected = expected;
+    }
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case REGEX:
+                return "body matches /" + value + "/";
+            case JSON_POINTER:
+                return expected == null ? "body has " + value : "body has " + value + " = " + expected;
+            case MAX_SIZE:
+                return "body is at most " + value + " bytes";
+            default:
+                return "body contains \"" + value + "\"";
+        }
+    }
+
+}
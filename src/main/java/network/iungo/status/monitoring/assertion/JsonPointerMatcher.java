@@ -0,0 +1,156 @@
+/*
+ * JsonPointerMatcher.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.monitoring.assertion;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds the value at a JSON pointer with the non-blocking Jackson parser,
+ * tokens are looked at as they arrive and no tree is built.
+ * <p>
+ * The path to the current token is tracked here, the context of the non-blocking parser
+ * does not count array elements. Scalar values are compared by their text,
+ * containers can only be checked for presence.
+ */
+class JsonPointerMatcher implements BodyMatcher {
+
+    private final static JsonFactory FACTORY = new JsonFactory();
+
+    private final String[] properties;
+    private final int[] indexes;
+    private final String expected;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+
+    private String[] names = new String[8];
+    private int[] elements = new int[8];
+    private int depth;
+
+    /**
+     * Instantiates a new Json pointer matcher.
+     *
+     * @param pointer  the pointer
+     * @param expected the expected text of the value, null to only require its presence
+     */
+    JsonPointerMatcher(JsonPointer pointer, String expected) {
+        List<JsonPointer> segments = new ArrayList<>();
+        for (JsonPointer p = pointer; !p.matches(); p = p.tail()) {
+            segments.add(p);
+        }
+        this.properties = new String[segments.size()];
+        this.indexes = new int[segments.size()];
+        for (int i = 0; i < properties.length; i++) {
+            properties[i] = segments.get(i).getMatchingProperty();
+            indexes[i] = segments.get(i).getMatchingIndex();
+        }
+        this.expected = expected;
+        try {
+            this.parser = FACTORY.createNonBlockingByteArrayParser();
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    @Override
+    public Verdict update(byte[] buffer, int offset, int length) {
+        try {
+            feeder.feedInput(buffer, offset, offset + length);
+            return advance();
+        } catch (IOException ex) {
+            return Verdict.FAILED;
+        }
+    }
+
+    @Override
+    public Verdict finish() {
+        feeder.endOfInput();
+        try {
+            Verdict verdict = advance();
+            return verdict == Verdict.PENDING ? Verdict.FAILED : verdict;
+        } catch (IOException ex) {
+            return Verdict.FAILED;
+        }
+    }
+
+    private Verdict advance() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (token == JsonToken.FIELD_NAME) {
+                names[depth - 1] = parser.getCurrentName();
+                continue;
+            }
+            if (token.isStructEnd()) {
+                if (--depth == 0) {
+                    return Verdict.FAILED;
+                }
+                continue;
+            }
+            if (depth > 0 && names[depth - 1] == null) {
+                elements[depth - 1]++;
+            }
+            if (depth == properties.length && matches()) {
+                if (expected == null) {
+                    return Verdict.PASSED;
+                }
+                return token.isScalarValue() && expected.equals(parser.getText()) ? Verdict.PASSED : Verdict.FAILED;
+            }
+            if (token.isStructStart()) {
+                push(token == JsonToken.START_ARRAY);
+            }
+        }
+        return token == null ? Verdict.FAILED : Verdict.PENDING;
+    }
+
+    private void push(boolean array) {
+        if (depth == names.length) {
+            names = Arrays.copyOf(names, depth * 2);
+            elements = Arrays.copyOf(elements, depth * 2);
+        }
+        // array levels keep no name and count their elements from -1
+        names[depth] = array ? null : "";
+        elements[depth] = -1;
+        depth++;
+    }
+
+    private boolean matches() {
+        for (int i = 0; i < depth; i++) {
+            if (names[i] == null ? elements[i] != indexes[i] : !names[i].equals(properties[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
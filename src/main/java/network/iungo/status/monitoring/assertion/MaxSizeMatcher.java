@@ -0,0 +1,55 @@
+/*
+ * MaxSizeMatcher.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.monitoring.assertion;
+
+/**
+ * Fails as soon as the body gets longer than the allowed size.
+ */
+class MaxSizeMatcher implements BodyMatcher {
+
+    private final long maxSize;
+    private long size;
+
+    /**
+     * Instantiates a new Max size matcher.
+     *
+     * @param maxSize the max size in bytes
+     */
+    MaxSizeMatcher(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public Verdict update(byte[] buffer, int offset, int length) {
+        size += length;
+        return size > maxSize ? Verdict.FAILED : Verdict.PENDING;
+    }
+
+    @Override
+    public Verdict finish() {
+        return Verdict.PASSED;
+    }
+
+}
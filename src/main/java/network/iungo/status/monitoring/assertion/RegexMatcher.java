@@ -0,0 +1,127 @@
+/*
+ * RegexMatcher.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.monitoring.assertion;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Looks for a regular expression in a sliding window of the decoded body.
+ * <p>
+ * Text the expression could not match even with more input is dropped after every chunk,
+ * otherwise only the last {@link #WINDOW} characters are searched, so a match has to fit in the window.
+ * <p>
+ * The last {@link #CONTEXT} characters before the searched region are kept and the region bounds are
+ * transparent and not anchoring: lookbehinds and {@code \b} see the dropped text, {@code ^} matches only
+ * at the start of the body. A match needing the end of the text waits for the end of the body.
+ */
+class RegexMatcher implements BodyMatcher {
+
+    final static int WINDOW = 64 * 1024;
+    final static int CONTEXT = 256;
+
+    private final Matcher matcher;
+    private final CharsetDecoder decoder;
+    private final StringBuilder text = new StringBuilder();
+    private ByteBuffer pending = ByteBuffer.allocate(0);
+    private CharBuffer chars = CharBuffer.allocate(0);
+    private int start;
+
+    /**
+     * Instantiates a new Regex matcher.
+     *
+     * @param pattern the pattern
+     * @param charset the charset of the body
+     */
+    RegexMatcher(Pattern pattern, Charset charset) {
+        this.matcher = pattern.matcher(text).useTransparentBounds(true).useAnchoringBounds(false);
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    @Override
+    public Verdict update(byte[] buffer, int offset, int length) {
+        ByteBuffer in;
+        if (pending.hasRemaining()) {
+            in = ByteBuffer.allocate(pending.remaining() + length);
+            in.put(pending).put(buffer, offset, length).flip();
+        } else {
+            in = ByteBuffer.wrap(buffer, offset, length);
+        }
+        int needed = (int) (in.remaining() * decoder.maxCharsPerByte()) + 1;
+        if (chars.capacity() < needed) {
+            chars = CharBuffer.allocate(needed);
+        }
+        chars.clear();
+        decoder.decode(in, chars, false);
+        chars.flip();
+        text.append(chars);
+
+        // a split multi-byte character is kept for the next chunk
+        pending = ByteBuffer.allocate(in.remaining()).put(in);
+        pending.flip();
+        return search();
+    }
+
+    @Override
+    public Verdict finish() {
+        chars.clear();
+        decoder.decode(pending, chars, true);
+        decoder.flush(chars);
+        chars.flip();
+        text.append(chars);
+        matcher.reset(text).region(start, text.length());
+        return matcher.find() ? Verdict.PASSED : Verdict.FAILED;
+    }
+
+    private Verdict search() {
+        matcher.reset(text).region(start, text.length());
+        if (matcher.find() && !matcher.requireEnd()) {
+            return Verdict.PASSED;
+        }
+        if (!matcher.hitEnd()) {
+            drop(text.length());
+        } else if (text.length() - start > WINDOW) {
+            drop(text.length() - WINDOW);
+        }
+        return Verdict.PENDING;
+    }
+
+    /**
+     * Moves the searched region to the given position, keeping the context before it.
+     */
+    private void drop(int from) {
+        int cut = Math.max(from - CONTEXT, 0);
+        text.delete(0, cut);
+        start = from - cut;
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * SubstringMatcher.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.monitoring.assertion;
+
+/**
+ * Looks for a byte sequence with Knuth-Morris-Pratt, each body byte is looked at once
+ * and matches spanning chunk boundaries are found without keeping any of the body.
+ */
+class SubstringMatcher implements BodyMatcher {
+
+    private final byte[] needle;
+    private final int[] failure;
+    private int matched;
+
+    /**
+     * Instantiates a new Substring matcher.
+     *
+     * @param needle the encoded text to look for
+     */
+    SubstringMatcher(byte[] needle) {
+        this.needle = needle;
+        this.failure = new int[needle.length];
+        for (int i = 1, k = 0; i < needle.length; i++) {
+            while (k > 0 && needle[i] != needle[k]) {
+                k = failure[k - 1];
+            }
+            if (needle[i] == needle[k]) {
+                k++;
+            }
+            failure[i] = k;
+        }
+    }
+
+    @Override
+    public Verdict update(byte[] buffer, int offset, int length) {
+        if (needle.length == 0) {
+            return Verdict.PASSED;
+        }
+        int k = matched;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            while (k > 0 && buffer[i] != needle[k]) {
+                k = failure[k - 1];
+            }
+            if (buffer[i] == needle[k] && ++k == needle.length) {
+                return Verdict.PASSED;
+            }
+        }
+        matched = k;
+        return Verdict.PENDING;
+    }
+
+    @Override
+    public Verdict finish() {
+        return needle.length == 0 ? Verdict.PASSED : Verdict.FAILED;
+    }
+
+}
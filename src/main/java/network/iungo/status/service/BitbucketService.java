@@ -25,20 +25,51 @@
 package network.iungo.status.service;
 
 import network.iungo.status.bitbucket.BitbucketApi;
+import network.iungo.status.bitbucket.BitbucketProperties;
+import network.iungo.status.bitbucket.BitbucketStatistics;
+import network.iungo.status.bitbucket.PageIterator;
+import network.iungo.status.bitbucket.ResponseCache;
+import network.iungo.status.bitbucket.SyncCursor;
+import network.iungo.status.bitbucket.TokenBucket;
 import network.iungo.status.bitbucket.auth.BitbucketCredentials;
+import network.iungo.status.bitbucket.response.commits.Author;
 import network.iungo.status.bitbucket.response.commits.Commit;
-import network.iungo.status.bitbucket.response.commits.Commits;
+import network.iungo.status.commits.CommitCube;
+import network.iungo.status.commits.CommitLog;
+import network.iungo.status.commits.CommitQuery;
+import network.iungo.status.commits.CommitStore;
+import network.iungo.status.commits.Punchcard;
+import network.iungo.status.commits.PunchcardIndex;
+import network.iungo.status.snapshot.SnapshotFile;
+import network.iungo.status.snapshot.SnapshotProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
+import javax.annotation.PreDestroy;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Bitbucket service periodically calls Bitbucket REST API and aggregates commits
@@ -54,64 +85,444 @@ public class BitbucketService {
 
     private ArrayList<String> repositories = new ArrayList<>();
 
-    private ConcurrentHashMap<String, Commit> commits = new ConcurrentHashMap<>();
+    private final CommitStore commits;
 
-    private int[][] totalAggregatedCommits = null;
+    private ConcurrentHashMap<String, SyncCursor> cursors = new ConcurrentHashMap<>();
 
-    private final static int TIME_BETWEEN_REQUESTS = 5000;
+    private final Punchcard punchcard = new Punchcard();
+
+    private final PunchcardIndex index = new PunchcardIndex();
+
+    private ConcurrentHashMap<String, PunchcardIndex> repositoryIndexes = new ConcurrentHashMap<>();
+
+    private final CommitCube cube = new CommitCube();
+
+    private final static String SNAPSHOT_FILE = "bitbucket.snapshot";
+    private final static int SNAPSHOT_MAGIC = 0x42425343;
+    private final static int SNAPSHOT_VERSION = 5;
+
+    private final int maxPages;
+
+    private final long fetchTimeout;
+
+    private SnapshotFile snapshotFile;
+
+    private final static String LOG_FILE = "commits.log";
+
+    private CommitLog commitLog;
+
+    private final Timer timer = new Timer("BitbucketTimer");
+
+    private final ExecutorService syncs;
 
     /**
      * Instantiates a new Bitbucket service.
      *
      * @param credentials           the credentials
      * @param monitoredRepositories the monitored repositories
+     * @param properties            the bitbucket properties
+     * @param snapshots             the snapshot properties
      */
     @Autowired
-    public BitbucketService(BitbucketCredentials credentials, @Value("${bitbucket.repositories}") String monitoredRepositories) {
-        bitbucketApi = new BitbucketApi(credentials);
+    public BitbucketService(BitbucketCredentials credentials, @Value("${bitbucket.repositories}") String monitoredRepositories,
+                            BitbucketProperties properties, SnapshotProperties snapshots) {
+        bitbucketApi = new BitbucketApi(credentials,
+                new TokenBucket(properties.getRateBurst(), properties.getRateLimit() / 3600.0),
+                new ResponseCache(properties.getCacheSize()), properties.getMaxConnections());
+        maxPages = properties.getMaxPages();
+        fetchTimeout = properties.getFetchTimeout();
+        commits = new CommitStore(properties.isKeepMessages());
 
         for (String repo : monitoredRepositories.split(",")) {
             repositories.add(repo.trim());
         }
 
-        new Timer("BitbucketTimer").scheduleAtFixedRate(new TimerTask() {
+        if (!properties.getLogDirectory().isEmpty()) {
+            openLog(Paths.get(properties.getLogDirectory(), LOG_FILE));
+        }
+        if (snapshots.isEnabled() && commits.size() == 0) {
+            snapshotFile = new SnapshotFile(Paths.get(snapshots.getDirectory(), SNAPSHOT_FILE),
+                    SNAPSHOT_MAGIC, SNAPSHOT_VERSION);
+            if (snapshotFile.read(this::readCommits)) {
+                LOG.info("Restored {} commits and {} repository cursors from snapshot", commits.size(), cursors.size());
+                commits.forEach((epochSecond, offsetSeconds, repository, author) ->
+                        count(commits.getRepository(repository), commits.getAuthor(author), epochSecond, offsetSeconds));
+                punchcard.publish();
+                if (commitLog != null) {
+                    copyToLog();
+                }
+            }
+        }
+
+        CustomizableThreadFactory threads = new CustomizableThreadFactory("BitbucketSync-");
+        threads.setDaemon(true);
+        syncs = Executors.newFixedThreadPool(Math.max(properties.getSyncConcurrency(), 1), threads);
+
+        timer.schedule(new TimerTask() {
             @Override
             public void run() {
+                boolean changed = false;
+                List<Callable<Integer>> tasks = new ArrayList<>(repositories.size());
+                for (String repo : repositories) {
+                    tasks.add(() -> sync(repo));
+                }
                 try {
-                    for (String repo : repositories) {
-                        Commits repoCommits = bitbucketApi.getCommits(repo);
-                        for (Commit c : repoCommits.getValues()) {
-                            commits.putIfAbsent(c.getHash(), c);
+                    List<Future<Integer>> results = syncs.invokeAll(tasks);
+                    for (int i = 0; i < results.size(); i++) {
+                        try {
+                            if (results.get(i).get() > 0) {
+                                changed = true;
+                            }
+                        } catch (ExecutionException e) {
+                            LOG.error("Sync of '{}' failed: {}", repositories.get(i), e.getCause().getMessage());
                         }
-                        LOG.info("Found {} commits in '{}' repository", repoCommits.getValues().size(), repo);
-                        aggregate();
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (changed) {
+                    punchcard.publish();
+                }
+                if (commitLog != null) {
+                    flushLog();
+                } else if (changed) {
+                    saveCommits();
+                }
+            }
+        }, 0, properties.getSyncInterval());
+    }
+
+    /**
+     * Reads the commits of a repository newer than its cursor, newest first.
+     * Paging stops at the commit of the cursor, a repository without a cursor is read in full.
+     * The cursor moves to the newest commit once the sync is over.
+     * <p>
+     * A read cut short by the page or time limit leaves a backfill: the url of the first page left out and
+     * the commit of the old cursor, if any, to stop at. Later syncs keep reading the backfill with the pages
+     * and time left after the new commits until it reaches that commit or the last page. While a backfill
+     * is pending a second truncated read keeps the old cursor, so that no gap is left behind.
+     * <p>
+     * Commits are taken one by one as the pages are decoded, on the syncing thread while the next page
+     * is fetched, and counted into the punchcards when they are new.
+     *
+     * @return number of new commits
+     */
+    private int sync(String repo) {
+        SyncCursor cursor = cursors.get(repo);
+        long started = System.currentTimeMillis();
+        Commit newest = null;
+        int found = 0;
+        String backfill = cursor == null ? null : cursor.getBackfill();
+        String until = cursor == null ? null : cursor.getUntil();
+        boolean keep = false;
+        int requested;
+        try (PageIterator<Commit> pages = bitbucketApi.getCommitPages(repo, null,
+                cursor == null ? null : cursor.getHash(), maxPages, fetchTimeout)) {
+            while (pages.hasNext()) {
+                Commit c = pages.next();
+                if (CommitStore.isHash(c.getHash())) {
+                    if (newest == null) {
+                        newest = c;
+                    }
+                    if (take(repo, c)) {
+                        found++;
+                    }
+                }
+            }
+            requested = pages.getRequested();
+            if (pages.isTruncated()) {
+                LOG.warn("Stopped reading '{}' repository after {} pages", repo, requested);
+                if (backfill == null) {
+                    backfill = pages.getResumeUrl();
+                    until = cursor == null ? null : cursor.getHash();
+                } else {
+                    keep = true;
+                }
+            }
+        }
 
-                        Thread.sleep(TIME_BETWEEN_REQUESTS);
+        long left = fetchTimeout - (System.currentTimeMillis() - started);
+        if (backfill != null && requested < maxPages && left > 0) {
+            try (PageIterator<Commit> pages = bitbucketApi.getCommitPages(repo, backfill, until,
+                    maxPages - requested, left)) {
+                while (pages.hasNext()) {
+                    Commit c = pages.next();
+                    if (CommitStore.isHash(c.getHash()) && take(repo, c)) {
+                        found++;
                     }
-                } catch (Exception e) {
-                    LOG.error(e.getMessage());
+                }
+                backfill = pages.isTruncated() ? pages.getResumeUrl() : null;
+                if (backfill == null) {
+                    LOG.info("Backfilled history of '{}' repository", repo);
                 }
             }
-        }, 0, 24 * 60 * 60 * 1000);
+        }
+
+        boolean advanced = newest != null && !keep;
+        SyncCursor moved;
+        if (advanced) {
+            moved = new SyncCursor(newest.getHash(), newest.getDate(), System.currentTimeMillis(), backfill, until);
+        } else if (cursor != null) {
+            moved = new SyncCursor(cursor.getHash(), cursor.getDate(), System.currentTimeMillis(), backfill, until);
+        } else {
+            moved = null;
+        }
+        if (moved != null) {
+            cursors.put(repo, moved);
+        }
+        if (moved != null && commitLog != null) {
+            if (advanced) {
+                commitLog.appendCursor(repo, moved.getHash(), moved.getDate().toEpochSecond(),
+                        moved.getDate().getOffset().getTotalSeconds(), moved.getSynced());
+            }
+            if (!Objects.equals(backfill, cursor == null ? null : cursor.getBackfill())) {
+                commitLog.appendBackfill(repo, backfill, until);
+            }
+        }
+        if (found > 0 || cursor == null) {
+            LOG.info("Found {} new commits in '{}' repository", found, repo);
+        }
+        return found;
     }
 
-    private void aggregate() {
-        totalAggregatedCommits = new int[7][24];
-        for (Commit c : commits.values()) {
-            LocalDateTime localDateTime = c.getDate().toLocalDateTime();
-            int dow = localDateTime.getDayOfWeek().getValue();
-            int hod = localDateTime.getHour();
-            totalAggregatedCommits[dow - 1][hod - 1]++;
+    /**
+     * Takes a commit into the store, the log and the punchcards unless it is known already.
+     *
+     * @param repo the repository
+     * @param c    the commit
+     * @return true if the commit is new
+     */
+    private boolean take(String repo, Commit c) {
+        long epochSecond = c.getDate().toEpochSecond();
+        int offsetSeconds = c.getDate().getOffset().getTotalSeconds();
+        String author = authorName(c);
+        if (!commits.add(repo, author, c.getHash(), epochSecond, offsetSeconds, c.getMessage())) {
+            return false;
+        }
+        if (commitLog != null) {
+            commitLog.appendCommit(repo, author, c.getHash(), epochSecond, offsetSeconds);
+        }
+        count(repo, author, epochSecond, offsetSeconds);
+        return true;
+    }
+
+    private void count(String repo, String author, long epochSecond, int offsetSeconds) {
+        punchcard.add(epochSecond, offsetSeconds);
+        cube.add(repo, author, epochSecond, offsetSeconds);
+        try {
+            index.add(epochSecond, offsetSeconds);
+            repositoryIndexes.computeIfAbsent(repo, r -> new PunchcardIndex()).add(epochSecond, offsetSeconds);
+        } catch (IllegalArgumentException e) {
+            LOG.warn("Commit of '{}' left out of range queries: {}", repo, e.getMessage());
         }
     }
 
     /**
-     * Get aggregated commits int [ ] [ ].
+     * Gets the Bitbucket user name of the author, or the name of the raw author line without the e-mail.
+     */
+    private static String authorName(Commit c) {
+        Author author = c.getAuthor();
+        if (author == null) {
+            return "";
+        }
+        if (author.getUser() != null && author.getUser().getDisplayName() != null) {
+            return author.getUser().getDisplayName();
+        }
+        String raw = author.getRaw() == null ? "" : author.getRaw();
+        int email = raw.indexOf('<');
+        return (email < 0 ? raw : raw.substring(0, email)).trim();
+    }
+
+    /**
+     * Replays the commit log into the store, the cursors and all punchcards in one pass.
+     * Without a readable log the service keeps everything in memory only.
+     */
+    private void openLog(Path path) {
+        long started = System.currentTimeMillis();
+        try {
+            commitLog = CommitLog.open(path, new CommitLog.Visitor() {
+                @Override
+                public void commit(String repository, String author, String hash, long epochSecond, int offsetSeconds) {
+                    if (commits.add(repository, author, hash, epochSecond, offsetSeconds, null)) {
+                        count(repository, author, epochSecond, offsetSeconds);
+                    }
+                }
+
+                @Override
+                public void cursor(String repository, String hash, long epochSecond, int offsetSeconds, long synced) {
+                    ZoneOffset offset = ZoneOffset.ofTotalSeconds(offsetSeconds);
+                    SyncCursor previous = cursors.get(repository);
+                    cursors.put(repository, new SyncCursor(hash,
+                            OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), offset), synced,
+                            previous == null ? null : previous.getBackfill(), previous == null ? null : previous.getUntil()));
+                }
+
+                @Override
+                public void backfill(String repository, String url, String until) {
+                    SyncCursor cursor = cursors.get(repository);
+                    if (cursor != null) {
+                        cursors.put(repository, new SyncCursor(cursor.getHash(), cursor.getDate(), cursor.getSynced(),
+                                url, until));
+                    }
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Could not open commit log {}: {}", path, e.getMessage());
+            return;
+        }
+        punchcard.publish();
+        LOG.info("Replayed {} commits and {} repository cursors from {} in {} ms", commits.size(), cursors.size(),
+                path, System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Moves commits and cursors restored from a snapshot written before there was a log into the log.
+     */
+    private void copyToLog() {
+        commits.writeTo(commitLog);
+        for (Map.Entry<String, SyncCursor> e : cursors.entrySet()) {
+            SyncCursor cursor = e.getValue();
+            if (CommitStore.isHash(cursor.getHash())) {
+                commitLog.appendCursor(e.getKey(), cursor.getHash(), cursor.getDate().toEpochSecond(),
+                        cursor.getDate().getOffset().getTotalSeconds(), cursor.getSynced());
+                if (cursor.getBackfill() != null) {
+                    commitLog.appendBackfill(e.getKey(), cursor.getBackfill(), cursor.getUntil());
+                }
+            }
+        }
+        flushLog();
+    }
+
+    private void flushLog() {
+        try {
+            commitLog.flush();
+        } catch (IOException e) {
+            LOG.error("Could not write commit log {}: {}", commitLog.getPath(), e.getMessage());
+        }
+    }
+
+    private void saveCommits() {
+        if (snapshotFile == null) {
+            return;
+        }
+        try {
+            snapshotFile.write(this::writeCommits);
+        } catch (IOException e) {
+            LOG.error("Could not write snapshot {}: {}", snapshotFile.getPath(), e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the commit columns without messages, followed by the repository cursors and their backfills.
+     */
+    private void writeCommits(DataOutputStream out) throws IOException {
+        commits.writeTo(out);
+        ArrayList<Map.Entry<String, SyncCursor>> repos = new ArrayList<>(cursors.entrySet());
+        out.writeInt(repos.size());
+        for (Map.Entry<String, SyncCursor> e : repos) {
+            SyncCursor cursor = e.getValue();
+            out.writeUTF(e.getKey());
+            out.writeUTF(cursor.getHash());
+            out.writeLong(cursor.getDate().toEpochSecond());
+            out.writeInt(cursor.getDate().getOffset().getTotalSeconds());
+            out.writeLong(cursor.getSynced());
+            out.writeUTF(cursor.getBackfill() == null ? "" : cursor.getBackfill());
+            out.writeUTF(cursor.getUntil() == null ? "" : cursor.getUntil());
+        }
+    }
+
+    /**
+     * Reads commits and cursors, snapshots before version 3 hold one commit after another
+     * without their repository, before version 4 commits have no author, before version 5 cursors have no backfill.
+     */
+    private void readCommits(DataInputStream in, int version) throws IOException {
+        int count;
+        if (version < 3) {
+            count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String hash = in.readUTF();
+                long epochSecond = in.readLong();
+                int offset = in.readInt();
+                in.readUTF();
+                if (CommitStore.isHash(hash)) {
+                    commits.add("", "", hash, epochSecond, offset, null);
+                }
+            }
+        } else {
+            commits.readFrom(in, version >= 4);
+        }
+        if (version < 2) {
+            return;
+        }
+        count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            String repo = in.readUTF();
+            String hash = in.readUTF();
+            long epochSecond = in.readLong();
+            ZoneOffset offset = ZoneOffset.ofTotalSeconds(in.readInt());
+            long synced = in.readLong();
+            String backfill = version < 5 ? "" : in.readUTF();
+            String until = version < 5 ? "" : in.readUTF();
+            cursors.put(repo, new SyncCursor(hash, OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), offset),
+                    synced, backfill.isEmpty() ? null : backfill, until.isEmpty() ? null : until));
+        }
+    }
+
+    /**
+     * Stops fetching commits and writes the pending log records, or the last snapshot without a log.
+     */
+    @PreDestroy
+    public void close() {
+        timer.cancel();
+        syncs.shutdownNow();
+        bitbucketApi.close();
+        if (commitLog != null) {
+            try {
+                commitLog.close();
+            } catch (IOException e) {
+                LOG.error("Could not close commit log {}: {}", commitLog.getPath(), e.getMessage());
+            }
+        } else {
+            saveCommits();
+        }
+    }
+
+    /**
+     * Gets Bitbucket response cache and transport statistics.
+     *
+     * @return the statistics
+     */
+    public BitbucketStatistics getStatistics() {
+        return bitbucketApi.getStatistics();
+    }
+
+    /**
+     * Get aggregated commits int [ ] [ ], published after every sync which found new commits.
      *
-     * @return the int [ ] [ ]
+     * @return the int [ ] [ ] by day of week, Monday first, and hour of day
      */
     public int[][] getAggregatedCommits() {
-        return totalAggregatedCommits;
+        return punchcard.get();
+    }
+
+    /**
+     * Get aggregated commits int [ ] [ ] matching a query. Ranges of days of all or one repository
+     * come from the weekly indexes, queries by author, zone or in the viewer zone from the cube.
+     *
+     * @param query the query
+     * @return the int [ ] [ ] by day of week, Monday first, and hour of day
+     */
+    public int[][] getAggregatedCommits(CommitQuery query) {
+        if (query.isUnfiltered()) {
+            return punchcard.get();
+        }
+        if (query.getAuthor() != null || query.getZone() != null || query.getTz() != null) {
+            return cube.query(query);
+        }
+        PunchcardIndex source = query.getRepo() == null ? index
+                : repositoryIndexes.getOrDefault(query.getRepo(), new PunchcardIndex());
+        return source.query(query.getFrom() == null ? Long.MIN_VALUE : query.getFrom().toEpochDay(),
+                query.getTo() == null ? Long.MAX_VALUE : query.getTo().toEpochDay());
     }
 
 }
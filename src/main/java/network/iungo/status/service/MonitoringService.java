@@ -24,15 +24,63 @@
 
 package network.iungo.status.service;
 
+import network.iungo.status.cluster.ClusterService;
+import network.iungo.status.cluster.Observation;
+import network.iungo.status.domain.EndpointStatus;
 import network.iungo.status.domain.MonitoredEndpoint;
+import network.iungo.status.domain.ProbeResult;
+import network.iungo.status.domain.StatusSnapshot;
+import network.iungo.status.http.HttpTransport;
+import network.iungo.status.http.RequestTimings;
+import network.iungo.status.http.TransportStatistics;
+import network.iungo.status.metrics.UptimeCounter;
+import network.iungo.status.monitoring.MonitoringProperties;
+import network.iungo.status.monitoring.ProbeEngine;
+import network.iungo.status.monitoring.ProbeConfirmer;
+import network.iungo.status.monitoring.ProbeError;
+import network.iungo.status.monitoring.ProbeScheduler;
+import network.iungo.status.monitoring.ProbeState;
+import network.iungo.status.monitoring.ProbeStatistics;
+import network.iungo.status.monitoring.assertion.BodyInspector;
+import network.iungo.status.monitoring.assertion.ContentAssertion;
+import network.iungo.status.monitoring.assertion.ContentAssertionException;
+import network.iungo.status.snapshot.SnapshotFile;
+import network.iungo.status.snapshot.SnapshotProperties;
+import network.iungo.status.store.ProbeResultStore;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * The type Monitoring service.
@@ -44,91 +92,592 @@ public class MonitoringService {
 
     private final static int READ_TIMEOUT = 10000;
     private final static int CONNECT_TIMEOUT = 10000;
+    private final static int TICK = 100;
+    private final static int WHEEL_SIZE = 1024;
+    private final static int MAX_RESULTS = 10000;
+    private final static String SNAPSHOT_FILE = "monitoring.snapshot";
+    private final static int SNAPSHOT_MAGIC = 0x4d4f4e53;
+    private final static int SNAPSHOT_VERSION = 2;
+    private final static int MAX_STATUS_LENGTH = 1024;
+    private final static int PUBLISH_INTERVAL = 1000;
 
-    private List<MonitoredEndpoint> services = new ArrayList<>();
+    private final List<MonitoredEndpoint> services = new ArrayList<>();
+
+    private final Map<Integer, MonitoredEndpoint> byId = new HashMap<>();
+
+    private final ClusterService cluster;
+
+    private final ProbeEngine probeEngine;
+
+    private final ProbeScheduler probeScheduler;
+
+    private final HttpTransport transport;
+
+    private final ProbeConfirmer confirmer;
+
+    private final long retryDeadline;
+
+    private final long drainLimit;
+
+    private final long assertionLimit;
+
+    private ProbeResultStore store;
+
+    private SnapshotFile snapshotFile;
+
+    private ScheduledExecutorService snapshotWriter;
+
+    private final ScheduledExecutorService publisher;
+
+    private final AtomicBoolean changed = new AtomicBoolean();
+
+    private long snapshotTaken;
+
+    private long savedVersion;
+
+    private final AtomicReference<StatusSnapshot> snapshot = new AtomicReference<>();
+
+    private final List<BiConsumer<StatusSnapshot, StatusSnapshot>> listeners = new CopyOnWriteArrayList<>();
+
+    private final Map<MonitoredEndpoint, ProbeState> states = new IdentityHashMap<>();
+
+    private final Map<MonitoredEndpoint, Long> counted = new IdentityHashMap<>();
 
     /**
      * Instantiates a new Monitoring service.
+     *
+     * @param properties the monitoring properties
+     * @param cluster    the cluster deciding which endpoints this node probes
+     * @param snapshots  the snapshot properties
      */
-    public MonitoringService() {
-        {
-            MonitoredEndpoint m = new MonitoredEndpoint();
-            m.setTitle("Website");
-            m.setUrl("https://iungo.network");
-            m.setDescription("");
-            m.setExpectedResponseStatus(200);
-            services.add(m);
-        }
-
-        {
-            MonitoredEndpoint m = new MonitoredEndpoint();
-            m.setTitle("APP");
-            m.setUrl("https://app.iungo.network");
-            m.setDescription("Service gateway");
-            m.setExpectedResponseStatus(200);
-            services.add(m);
-        }
-
-        {
-            MonitoredEndpoint m = new MonitoredEndpoint();
-            m.setTitle("API");
-            m.setUrl("https://api.iungo.network");
-            m.setDescription("");
-            m.setExpectedResponseStatus(200);
-            services.add(m);
-        }
-
-        Timer t = new Timer("ServiceMonitoring");
-        t.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                for (MonitoredEndpoint e : services) {
-                    try {
-                        e.setOnline(check(e.getUrl(), e.getExpectedResponseStatus()));
-                        e.setStatus("");
-                    } catch (Exception ex) {
-                        e.setOnline(false); // tikrai, kad offline
-                        e.setStatus(ex.getMessage());
-                    }
-                    e.setChecked(new Date());
+    @Autowired
+    public MonitoringService(MonitoringProperties properties, ClusterService cluster, SnapshotProperties snapshots) {
+        this.cluster = cluster;
+        services.addAll(properties.getEndpoints());
+        for (MonitoredEndpoint e : services) {
+            if (e.getId() != 0) {
+                register(e);
+            }
+        }
+        for (MonitoredEndpoint e : services) {
+            if (e.getId() == 0) {
+                e.setId(e.getUrl().hashCode() & 0x7fffffff);
+                register(e);
+            }
+            for (ContentAssertion a : e.getAssertions()) {
+                a.compile();
+            }
+        }
+
+        transport = new HttpTransport(properties.getMaxConnections(), properties.getConnectionsPerHost(),
+                properties.getIdleTimeout(), CONNECT_TIMEOUT, READ_TIMEOUT);
+        confirmer = new ProbeConfirmer(properties.getRetries(), properties.getRetryFailures(),
+                properties.getConcurrency() * properties.getRetries());
+        retryDeadline = properties.getRetryDeadline();
+        drainLimit = properties.getDrainLimit();
+        assertionLimit = properties.getAssertionLimit();
+
+        for (MonitoredEndpoint e : services) {
+            states.put(e, new ProbeState(properties.getConfirmInterval(), properties.getMaxBackoff()));
+            counted.put(e, 0L);
+        }
+        if (snapshots.isEnabled()) {
+            snapshotFile = new SnapshotFile(Paths.get(snapshots.getDirectory(), SNAPSHOT_FILE),
+                    SNAPSHOT_MAGIC, SNAPSHOT_VERSION);
+            snapshotFile.read(this::readState);
+        }
+
+        if (!properties.getStoreDirectory().isEmpty()) {
+            try {
+                store = new ProbeResultStore(Paths.get(properties.getStoreDirectory()), properties.getSegmentDuration(),
+                        properties.getSegmentCapacity(), properties.getRetention());
+                long now = System.currentTimeMillis();
+                restoreUptime(snapshotTaken > 0 ? snapshotTaken : now - UptimeCounter.DAYS * 24L * 60 * 60 * 1000);
+            } catch (IOException ex) {
+                LOG.error("Probe results will not be stored: {}", ex.getMessage());
+            }
+        }
+
+        for (MonitoredEndpoint e : services) {
+            if (e.getCurrent() == null) {
+                e.setCurrent(new EndpointStatus(e, false, false, "", 0, null));
+            }
+        }
+        publish();
+        savedVersion = snapshot.get().getVersion();
+
+        if (snapshotFile != null) {
+            CustomizableThreadFactory threads = new CustomizableThreadFactory("StatusSnapshot-");
+            threads.setDaemon(true);
+            snapshotWriter = Executors.newSingleThreadScheduledExecutor(threads);
+            snapshotWriter.scheduleWithFixedDelay(this::saveState, snapshots.getInterval(), snapshots.getInterval(),
+                    TimeUnit.MILLISECONDS);
+        }
+
+        probeScheduler = new ProbeScheduler(TICK, WHEEL_SIZE, e -> states.get(e).nextInterval(e.getInterval()));
+        CustomizableThreadFactory publishing = new CustomizableThreadFactory("StatusPublisher-");
+        publishing.setDaemon(true);
+        publisher = Executors.newSingleThreadScheduledExecutor(publishing);
+        publisher.scheduleWithFixedDelay(this::publishChanged, PUBLISH_INTERVAL, PUBLISH_INTERVAL,
+                TimeUnit.MILLISECONDS);
+        probeEngine = new ProbeEngine(this::probe, probeScheduler::reschedule, round -> changed.set(true),
+                properties.getConcurrency(), properties.getRoundDeadline());
+        probeScheduler.start(services, probeEngine);
+        cluster.setReceiver(this::observed);
+    }
+
+    /**
+     * Registers the endpoint under its id, configured ids first so ids derived from URLs cannot take them.
+     */
+    private void register(MonitoredEndpoint e) {
+        MonitoredEndpoint other = byId.putIfAbsent(e.getId(), e);
+        if (other != null) {
+            throw new IllegalArgumentException("Endpoints " + other.getUrl() + " and " + e.getUrl()
+                    + " have the same id " + e.getId() + ", set a different id for one of them");
+        }
+    }
+
+    /**
+     * Probes the endpoint if it is assigned to this node, other nodes are told the result.
+     * A failure counts only if the retries confirm it, otherwise it is stored with its error
+     * but the endpoint stays online. A probe aborted at the round deadline leaves no result.
+     */
+    private boolean probe(MonitoredEndpoint e, Consumer<HttpUriRequest> requests) {
+        if (!cluster.isAssigned(e.getId())) {
+            return true;
+        }
+        int responseCode = 0;
+        int latency = -1;
+        boolean online;
+        String status = "";
+        ProbeError error = ProbeError.NONE;
+        long started = System.nanoTime();
+        RequestTimings timings = new RequestTimings();
+        HttpUriRequest request = request(e);
+        requests.accept(request);
+        try {
+            responseCode = check(e, request, timings, false);
+            latency = (int) ((System.nanoTime() - started) / 1000000);
+            e.recordLatency(latency);
+            online = responseCode == e.getExpectedResponseStatus();
+            if (!online) {
+                error = ProbeError.UNEXPECTED_STATUS;
+            }
+        } catch (ContentAssertionException ex) {
+            // assertions only run on the expected status, the response itself arrived in time
+            latency = (int) ((System.nanoTime() - started) / 1000000);
+            e.recordLatency(latency);
+            responseCode = e.getExpectedResponseStatus();
+            online = false;
+            status = ex.getMessage();
+            error = ProbeError.CONTENT_MISMATCH;
+        } catch (Exception ex) {
+            online = false; // tikrai, kad offline
+            status = ex.getMessage();
+            error = ProbeError.of(ex);
+        }
+        timings.finish();
+        // measured before the confirmation, whose retries must not count as latency
+        int elapsed = (int) ((System.nanoTime() - started) / 1000000);
+        // an aborted probe failed because of the deadline, not the endpoint, and gets no retries
+        if (request.isAborted() || Thread.currentThread().isInterrupted()) {
+            return false;
+        }
+        boolean confirmed = false;
+        if (!online) {
+            confirmed = confirmFailure(e);
+            if (!confirmed) {
+                online = true;
+                status = "";
+            }
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            return false;
+        }
+        long checked = System.currentTimeMillis();
+        Observation observation = new Observation(e.getId(), cluster.getNode(), checked, online, responseCode,
+                latency, status);
+        cluster.record(observation);
+        decide(e, observation, timings, confirmed && confirmer.isEnabled());
+
+        if (store != null) {
+            try {
+                store.append(checked, e.getId(), responseCode, error.getCode(), elapsed, online,
+                        timings.getDns(), timings.getConnect(), timings.getTls(), timings.getFirstByte());
+            } catch (IOException ex) {
+                LOG.error("Could not store probe result of {}: {}", e.getUrl(), ex.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sends the retries of a failed probe on new connections, so a dead pooled connection
+     * or a single lost packet does not take the endpoint offline.
+     */
+    private boolean confirmFailure(MonitoredEndpoint e) {
+        return confirmer.confirm(() -> request(e),
+                request -> check(e, request, new RequestTimings(), true) == e.getExpectedResponseStatus(),
+                Math.min(retryDeadline, e.getInterval() / 2));
+    }
+
+    /**
+     * Applies an observation made by another node, it has already been counted for the quorum.
+     * Endpoints probed by this node take it into account on their next probe, the others
+     * show the quorum decision and take their metrics from the probing nodes: every observed latency
+     * is recorded and the quorum decision is counted into the uptime once per probe interval,
+     * however many nodes probe the endpoint. The metrics are written under the probe state lock,
+     * which keeps them to one writer at a time.
+     */
+    private void observed(Observation observation) {
+        MonitoredEndpoint e = byId.get(observation.getEndpointId());
+        if (e == null || cluster.isAssigned(e.getId())) {
+            return;
+        }
+        synchronized (states.get(e)) {
+            EndpointStatus current = e.getCurrent();
+            boolean online = cluster.isOnline(e.getId(), current.isOnline());
+            String status = online == observation.isOnline() ? observation.getMessage() : current.getStatus();
+            e.setCurrent(new EndpointStatus(e, online, current.isFlapping(), status, observation.getChecked(), null));
+            changed.set(true);
+            if (observation.getLatency() >= 0) {
+                e.recordLatency(observation.getLatency());
+            }
+            if (observation.getChecked() - counted.get(e) >= e.getInterval() / 2) {
+                e.recordUptime(observation.getChecked(), online);
+                counted.put(e, observation.getChecked());
+            }
+        }
+    }
+
+    /**
+     * Moves the endpoint to its new state, decided by the quorum of its probing nodes
+     * or by the local probe itself when this node is alone. A failure confirmed by the retries
+     * counts as one confirmation of the probe state, so an endpoint is reported offline after
+     * one confirmed probe, or two while flapping.
+     */
+    private void decide(MonitoredEndpoint e, Observation observation, RequestTimings timings, boolean confirmed) {
+        boolean online = cluster.isOnline(e.getId(), observation.isOnline());
+        ProbeState state = states.get(e);
+        synchronized (state) {
+            e.recordUptime(observation.getChecked(), online);
+            counted.put(e, observation.getChecked());
+            state.update(online, confirmed && !online);
+            e.setCurrent(new EndpointStatus(e, state.isOnline(), state.isFlapping(), observation.getMessage(),
+                    observation.getChecked(), timings));
+        }
+    }
+
+    /**
+     * Publishes a new snapshot if any endpoint changed since the last one. Probe rounds finish up to
+     * once a tick, publishing at most once a second keeps the cost of building snapshots independent
+     * of how often they do.
+     */
+    private void publishChanged() {
+        if (changed.getAndSet(false)) {
+            publish();
+        }
+    }
+
+    /**
+     * Publishes a new snapshot made of the last complete result of every endpoint.
+     * Listeners are called in version order with the previous and the new snapshot.
+     */
+    private synchronized void publish() {
+        StatusSnapshot previous = snapshot.get();
+        List<EndpointStatus> statuses = new ArrayList<>(services.size());
+        for (MonitoredEndpoint e : services) {
+            statuses.add(e.getCurrent());
+        }
+        StatusSnapshot next = new StatusSnapshot(previous == null ? 1 : previous.getVersion() + 1, statuses);
+        snapshot.set(next);
+
+        for (BiConsumer<StatusSnapshot, StatusSnapshot> listener : listeners) {
+            try {
+                listener.accept(previous, next);
+            } catch (RuntimeException ex) {
+                LOG.error("Snapshot listener failed: {}", ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Adds a listener of published snapshots, it runs on the publishing thread and must not block.
+     *
+     * @param listener called with the previous and the new snapshot
+     */
+    public void addSnapshotListener(BiConsumer<StatusSnapshot, StatusSnapshot> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Counts stored probe results since the given time into the uptime windows, one pass over the store.
+     * Without a snapshot that is the last 90 days, with one only the results stored after it.
+     * Results not newer than the last probe an endpoint had counted when its state was taken are in
+     * the snapshot already and skipped.
+     */
+    private void restoreUptime(long from) {
+        long now = System.currentTimeMillis();
+        store.scan(from, now + 1, r -> {
+            MonitoredEndpoint e = byId.get(r.getEndpointId());
+            if (e != null && r.getTimestamp() > counted.get(e)) {
+                e.recordUptime(r.getTimestamp(), r.isOnline());
+                counted.put(e, r.getTimestamp());
+            }
+        });
+    }
+
+    /**
+     * Writes the state snapshot if a new status snapshot was published since the last one.
+     */
+    private void saveState() {
+        long version = snapshot.get().getVersion();
+        if (version == savedVersion) {
+            return;
+        }
+        try {
+            snapshotFile.write(this::writeState);
+            savedVersion = version;
+        } catch (IOException ex) {
+            LOG.error("Could not write snapshot {}: {}", snapshotFile.getPath(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Writes the last status, probe state, latency and uptime of every endpoint.
+     * Every endpoint is prefixed by its id and length, so endpoints removed from the configuration are skipped.
+     * An endpoint is taken under its probe state lock together with the time of the last probe counted
+     * into its uptime, the point from which its stored results are counted again on restore.
+     */
+    private void writeState(DataOutputStream out) throws IOException {
+        out.writeLong(System.currentTimeMillis());
+        out.writeInt(services.size());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        DataOutputStream entry = new DataOutputStream(bytes);
+        for (MonitoredEndpoint e : services) {
+            bytes.reset();
+            ProbeState state = states.get(e);
+            synchronized (state) {
+                EndpointStatus current = e.getCurrent();
+                String status = current.getStatus() == null ? "" : current.getStatus();
+                entry.writeBoolean(current.isOnline());
+                entry.writeBoolean(current.isFlapping());
+                entry.writeUTF(status.length() > MAX_STATUS_LENGTH ? status.substring(0, MAX_STATUS_LENGTH)
+                        : status);
+                entry.writeLong(current.getChecked() == null ? 0 : current.getChecked().getTime());
+                entry.writeBoolean(current.getTimings() != null);
+                if (current.getTimings() != null) {
+                    current.getTimings().writeTo(entry);
                 }
+                state.writeTo(entry);
+                e.writeMetricsTo(entry);
+                entry.writeLong(counted.get(e));
+            }
+            entry.flush();
+
+            out.writeInt(e.getId());
+            out.writeInt(bytes.size());
+            bytes.writeTo(out);
+        }
+    }
+
+    /**
+     * Reads the entries of the configured endpoints and applies them only once all of them were read.
+     * Every entry is tried on scratch objects first, so a bad snapshot leaves all endpoints as they were
+     * and their uptime is counted from the store alone. Snapshots of version 1 have no time of the last
+     * counted probe, their endpoints count the stored results from the time the snapshot was taken.
+     */
+    private void readState(DataInputStream in, int version) throws IOException {
+        long taken = in.readLong();
+        int count = in.readInt();
+        Map<MonitoredEndpoint, byte[]> entries = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            int id = in.readInt();
+            int length = in.readInt();
+            if (length < 0 || length > in.available()) {
+                throw new EOFException();
+            }
+            MonitoredEndpoint e = byId.get(id);
+            if (e == null) {
+                in.skipBytes(length);
+                continue;
             }
-        }, 0, 1000 * 60 * 5);
+            byte[] entry = new byte[length];
+            in.readFully(entry);
+            readEntry(entry, new MonitoredEndpoint(), new ProbeState(0, Integer.MAX_VALUE), version);
+            entries.put(e, entry);
+        }
+        long from = taken;
+        for (Map.Entry<MonitoredEndpoint, byte[]> entry : entries.entrySet()) {
+            long last = readEntry(entry.getValue(), entry.getKey(), states.get(entry.getKey()), version);
+            if (last == Long.MIN_VALUE) {
+                last = taken - 1;
+            }
+            counted.put(entry.getKey(), last);
+            if (last > 0) {
+                from = Math.min(from, last);
+            }
+        }
+        snapshotTaken = from;
+        LOG.info("Restored {} of {} endpoints from the snapshot of {}", entries.size(), services.size(), new Date(taken));
+    }
+
+    /**
+     * Reads an entry into the endpoint and its probe state.
+     *
+     * @return the time of the last probe counted into the uptime, Long.MIN_VALUE if the version has none
+     */
+    private static long readEntry(byte[] entry, MonitoredEndpoint e, ProbeState state, int version)
+            throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(entry));
+        boolean online = in.readBoolean();
+        boolean flapping = in.readBoolean();
+        String status = in.readUTF();
+        long checked = in.readLong();
+        RequestTimings timings = in.readBoolean() ? RequestTimings.readFrom(in) : null;
+        state.readFrom(in);
+        e.readMetricsFrom(in);
+        long last = version >= 2 ? in.readLong() : Long.MIN_VALUE;
+        e.setCurrent(new EndpointStatus(e, online, flapping, status, checked, timings));
+        return last;
     }
 
     /**
-     * Check some endpoint
-     * <p>
-     * TODO MORE ELABORATE CHECKS AND METHODS (post?)
+     * Check some endpoint, the body is inspected by its content assertions when the status is the expected one.
      *
-     * @param url of the service to be checked
-     * @return status online/offline
+     * @param endpoint the endpoint to be checked
+     * @param request  the request of the endpoint
+     * @param timings  the phase timings of the request
+     * @param fresh    whether the request must go over a new connection
+     * @return response status
+     * @throws ContentAssertionException if the body fails an assertion
      * @throws IOException
      */
-    private boolean check(String url, int expectedStatus) throws IOException {
-        URL u = new URL(url);
+    private int check(MonitoredEndpoint endpoint, HttpUriRequest request, RequestTimings timings,
+                      boolean fresh) throws IOException {
+        try (CloseableHttpResponse response = fresh ? transport.executeFresh(request, timings)
+                : transport.execute(request, timings)) {
+            int responseCode = response.getStatusLine().getStatusCode();
+            HttpEntity entity = response.getEntity();
+            if (entity != null && responseCode == endpoint.getExpectedResponseStatus()
+                    && !endpoint.getAssertions().isEmpty()) {
+                Charset charset = ContentType.getOrDefault(entity).getCharset();
+                BodyInspector.inspect(entity.getContent(), charset == null ? StandardCharsets.UTF_8 : charset,
+                        endpoint.getAssertions(), assertionLimit);
+            }
+            drain(entity);
+
+            LOG.debug("Checking {} {} > {}", endpoint.getMethod(), endpoint.getUrl(), responseCode);
+
+            return responseCode;
+        }
+    }
+
+    private HttpUriRequest request(MonitoredEndpoint endpoint) {
+        RequestBuilder builder = RequestBuilder.create(endpoint.getMethod()).setUri(endpoint.getUrl());
+        for (Map.Entry<String, String> header : endpoint.getHeaders().entrySet()) {
+            builder.addHeader(header.getKey(), header.getValue());
+        }
+        if (endpoint.getBody() != null) {
+            Header header = builder.getFirstHeader(HttpHeaders.CONTENT_TYPE);
+            ContentType contentType = header == null ? ContentType.TEXT_PLAIN : ContentType.parse(header.getValue());
+            if (contentType.getCharset() == null) {
+                contentType = contentType.withCharset(StandardCharsets.UTF_8);
+            }
+            builder.setEntity(new StringEntity(endpoint.getBody(), contentType));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Reads the body to the end so the connection can be kept alive,
+     * bodies longer than the drain limit are left unread and their connection is closed.
+     */
+    private void drain(HttpEntity entity) throws IOException {
+        if (entity == null || drainLimit <= 0) {
+            return;
+        }
+        InputStream in = entity.getContent();
+        byte[] buffer = new byte[4096];
+        long left = drainLimit;
+        int n;
+        while ((n = in.read(buffer, 0, (int) Math.min(buffer.length, left + 1))) != -1) {
+            left -= n;
+            if (left < 0) {
+                return;
+            }
+        }
+    }
 
-        HttpURLConnection con = (HttpURLConnection) u.openConnection();
-        con.setRequestMethod("GET");
-        con.setConnectTimeout(CONNECT_TIMEOUT);
-        con.setReadTimeout(READ_TIMEOUT);
-        con.setInstanceFollowRedirects(false);
+    /**
+     * Stops probing, closes the pooled connections, writes the last state snapshot and flushes stored probe results.
+     */
+    @PreDestroy
+    public void close() {
+        probeScheduler.stop();
+        probeEngine.shutdown();
+        confirmer.shutdown();
+        publisher.shutdownNow();
+        publishChanged();
+        try {
+            transport.close();
+        } catch (IOException e) {
+            LOG.error("Could not close HTTP transport: {}", e.getMessage());
+        }
+        if (snapshotWriter != null) {
+            snapshotWriter.shutdownNow();
+            saveState();
+        }
+        if (store != null) {
+            store.close();
+        }
+    }
 
-        int responseCode = con.getResponseCode();
-        con.disconnect();
+    /**
+     * Gets the latest status snapshot, safe to read from any thread without locking.
+     *
+     * @return the snapshot
+     */
+    public StatusSnapshot getSnapshot() {
+        return snapshot.get();
+    }
 
-        LOG.debug("Checking {} > {}", url, responseCode);
+    /**
+     * Gets stored probe results of one endpoint, oldest first, at most 10000 of them.
+     *
+     * @param endpointId the endpoint id
+     * @param from       inclusive start in milliseconds
+     * @param to         exclusive end in milliseconds
+     * @return the probe results, empty if results are not stored
+     */
+    public List<ProbeResult> getProbeResults(int endpointId, long from, long to) {
+        List<ProbeResult> results = new ArrayList<>();
+        if (store != null) {
+            store.scan(from, to, endpointId, r -> {
+                if (results.size() < MAX_RESULTS) {
+                    results.add(new ProbeResult(r));
+                }
+            });
+        }
+        return results;
+    }
 
-        return responseCode == expectedStatus;
+    /**
+     * Gets probe statistics.
+     *
+     * @return the probe statistics
+     */
+    public ProbeStatistics getProbeStatistics() {
+        return probeEngine.getStatistics();
     }
 
     /**
-     * Gets services.
+     * Gets statistics of the probe connection pool.
      *
-     * @return the services
+     * @return the connection statistics
      */
-    public List<MonitoredEndpoint> getServices() {
-        return services;
+    public TransportStatistics getConnectionStatistics() {
+        return transport.getStatistics();
     }
 
 }
@@ -0,0 +1,194 @@
+/*
+ * SnapshotFile.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.snapshot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Binary file holding the state of a service, so it can start with data instead of empty.
+ * <p>
+ * Layout: 16 byte header (magic, version, body length, CRC32 of the body) followed by the body.
+ * A snapshot is written to a temporary file first and moved over the old one,
+ * so readers see either the old or the new snapshot, never a half written one.
+ * Damaged snapshots and snapshots of newer versions are ignored.
+ */
+public class SnapshotFile {
+
+    private static Logger LOG = LoggerFactory.getLogger(SnapshotFile.class);
+
+    private final static int HEADER_SIZE = 16;
+
+    private final Path path;
+    private final int magic;
+    private final int version;
+
+    /**
+     * Writes the body of a snapshot.
+     */
+    @FunctionalInterface
+    public interface Writer {
+
+        /**
+         * Writes the state.
+         *
+         * @param out the output
+         * @throws IOException the io exception
+         */
+        void write(DataOutputStream out) throws IOException;
+
+    }
+
+    /**
+     * Reads the body of a snapshot.
+     */
+    @FunctionalInterface
+    public interface Reader {
+
+        /**
+         * Reads the state.
+         *
+         * @param in      the input
+         * @param version version of the snapshot
+         * @throws IOException the io exception
+         */
+        void read(DataInputStream in, int version) throws IOException;
+
+    }
+
+    /**
+     * Instantiates a new Snapshot file.
+     *
+     * @param path    the path
+     * @param magic   identifies the kind of snapshot
+     * @param version the version written, older versions are passed to the reader
+     */
+    public SnapshotFile(Path path, int magic, int version) {
+        this.path = path;
+        this.magic = magic;
+        this.version = version;
+    }
+
+    /**
+     * Writes a snapshot replacing the previous one.
+     *
+     * @param writer the writer of the body
+     * @throws IOException the io exception
+     */
+    public void write(Writer writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        }
+        byte[] body = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(magic).putInt(version).putInt(body.length).putInt((int) crc.getValue()).flip();
+
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(header);
+            ByteBuffer buffer = ByteBuffer.wrap(body);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the snapshot if there is a valid one.
+     *
+     * @param reader the reader of the body
+     * @return true if a snapshot was read
+     */
+    public boolean read(Reader reader) {
+        byte[] file;
+        try {
+            file = Files.readAllBytes(path);
+        } catch (NoSuchFileException ex) {
+            return false;
+        } catch (IOException ex) {
+            LOG.warn("Could not read snapshot {}: {}", path, ex.getMessage());
+            return false;
+        }
+
+        ByteBuffer header = ByteBuffer.wrap(file);
+        if (file.length < HEADER_SIZE || header.getInt() != magic) {
+            LOG.warn("Ignoring snapshot {}, not a snapshot of this kind", path);
+            return false;
+        }
+        int fileVersion = header.getInt();
+        int length = header.getInt();
+        int checksum = header.getInt();
+        if (fileVersion < 1 || fileVersion > version) {
+            LOG.warn("Ignoring snapshot {} of unsupported version {}", path, fileVersion);
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        if (length != file.length - HEADER_SIZE) {
+            LOG.warn("Ignoring truncated snapshot {}", path);
+            return false;
+        }
+        crc.update(file, HEADER_SIZE, length);
+        if ((int) crc.getValue() != checksum) {
+            LOG.warn("Ignoring damaged snapshot {}", path);
+            return false;
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(file, HEADER_SIZE, length))) {
+            reader.read(in, fileVersion);
+            return true;
+        } catch (IOException ex) {
+            LOG.warn("Could not read snapshot {}: {}", path, ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Gets path.
+     *
+     * @return the path
+     */
+    public Path getPath() {
+        return path;
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * ProbeRecord.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.store;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight view of one probe result stored in a segment.
+ * <p>
+ * Fields are read straight from the mapped segment, the view is moved from record to record
+ * during a scan and must not be kept after the visitor returns.
+ * <p>
+ * Version 1 records end after the flags, their phase timings read as -1.
+ */
+public class ProbeRecord {
+
+    final static int TIMESTAMP = 0;
+    final static int ENDPOINT = 8;
+    final static int STATUS = 12;
+    final static int ERROR = 14;
+    final static int LATENCY = 16;
+    final static int FLAGS = 20;
+    final static int DNS = 24;
+    final static int CONNECT = 28;
+    final static int TLS = 32;
+    final static int FIRST_BYTE = 36;
+
+    /**
+     * Size of one record in bytes.
+     */
+    final static int SIZE = 40;
+
+    final static int ONLINE = 1;
+
+    private ByteBuffer buffer;
+    private int offset;
+    private int size;
+
+    void moveTo(ByteBuffer buffer, int offset, int size) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    /**
+     * Gets timestamp in milliseconds.
+     *
+     * @return the timestamp
+     */
+    public long getTimestamp() {
+        return buffer.getLong(offset + TIMESTAMP);
+    }
+
+    /**
+     * Gets endpoint id.
+     *
+     * @return the endpoint id
+     */
+    public int getEndpointId() {
+        return buffer.getInt(offset + ENDPOINT);
+    }
+
+    /**
+     * Gets HTTP status, 0 if there was no response.
+     *
+     * @return the status
+     */
+    public int getStatus() {
+        return buffer.getShort(offset + STATUS);
+    }
+
+    /**
+     * Gets error code.
+     *
+     * @return the error
+     */
+    public int getError() {
+        return buffer.getShort(offset + ERROR);
+    }
+
+    /**
+     * Gets latency in milliseconds.
+     *
+     * @return the latency
+     */
+    public int getLatency() {
+        return buffer.getInt(offset + LATENCY);
+    }
+
+    /**
+     * Gets DNS lookup time in milliseconds, -1 if there was none.
+     *
+     * @return the dns
+     */
+    public int getDns() {
+        return phase(DNS);
+    }
+
+    /**
+     * Gets TCP connect time in milliseconds, -1 if a connection was reused.
+     *
+     * @return the connect
+     */
+    public int getConnect() {
+        return phase(CONNECT);
+    }
+
+    /**
+     * Gets TLS handshake time in milliseconds, -1 if there was none.
+     *
+     * @return the tls
+     */
+    public int getTls() {
+        return phase(TLS);
+    }
+
+    /**
+     * Gets time to the response headers in milliseconds, -1 if there was no response.
+     *
+     * @return the first byte
+     */
+    public int getFirstByte() {
+        return phase(FIRST_BYTE);
+    }
+
+    private int phase(int field) {
+        return field < size ? buffer.getInt(offset + field) : -1;
+    }
+
+    /**
+     * Is online boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isOnline() {
+        return (buffer.getInt(offset + FLAGS) & ONLINE) != 0;
+    }
+
+}
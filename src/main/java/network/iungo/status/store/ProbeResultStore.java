@@ -0,0 +1,232 @@
+/*
+ * ProbeResultStore.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * Append-only store of probe results in memory mapped segment files.
+ * <p>
+ * Every segment covers one time range (a day by default) and holds fixed size records,
+ * a new segment is started when the range is over or the segment is full.
+ * Records are kept in timestamp order, so range scans find their start by binary search
+ * and read the records in place without copying them to the heap.
+ * Segments older than the retention are deleted.
+ */
+public class ProbeResultStore implements Closeable {
+
+    private static Logger LOG = LoggerFactory.getLogger(ProbeResultStore.class);
+
+    private final static String PREFIX = "probes-";
+    private final static String SUFFIX = ".seg";
+
+    private final Path directory;
+    private final long segmentDuration;
+    private final int segmentCapacity;
+    private final long retention;
+
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    private Segment current;
+    private long lastTimestamp;
+
+    /**
+     * Opens the store, existing segments are mapped and appending continues in the newest one.
+     *
+     * @param directory       the directory
+     * @param segmentDuration time range of one segment in milliseconds
+     * @param segmentCapacity maximum number of records in one segment
+     * @param retention       segments older than this many milliseconds are deleted
+     * @throws IOException the io exception
+     */
+    public ProbeResultStore(Path directory, long segmentDuration, int segmentCapacity, long retention) throws IOException {
+        this.directory = directory;
+        this.segmentDuration = segmentDuration;
+        this.segmentCapacity = segmentCapacity;
+        this.retention = retention;
+
+        Files.createDirectories(directory);
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path p : stream) {
+                String name = p.getFileName().toString();
+                try {
+                    files.put(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())), p);
+                } catch (NumberFormatException e) {
+                    LOG.warn("Skipping unknown file {}", p);
+                }
+            }
+        }
+        for (Map.Entry<Long, Path> f : files.entrySet()) {
+            try {
+                Segment s = Segment.open(f.getValue(), f.getKey().equals(files.lastKey()));
+                segments.put(s.getStart(), s);
+            } catch (IOException e) {
+                LOG.warn("Skipping segment {}: {}", f.getValue(), e.getMessage());
+            }
+        }
+        if (!segments.isEmpty()) {
+            current = segments.lastEntry().getValue();
+            lastTimestamp = current.lastTimestamp();
+        }
+        LOG.info("Opened {} probe segments with {} records", segments.size(), getRecords());
+    }
+
+    /**
+     * Appends one probe result, timestamps earlier than the last appended one are moved forward
+     * to keep the records ordered.
+     *
+     * @param timestamp  the timestamp in milliseconds
+     * @param endpointId the endpoint id
+     * @param status     the HTTP status, 0 if there was no response
+     * @param error      the error code
+     * @param latency    the latency in milliseconds
+     * @param online     the online flag
+     * @param dns        the DNS lookup time in milliseconds, -1 if none
+     * @param connect    the connect time in milliseconds, -1 if none
+     * @param tls        the TLS handshake time in milliseconds, -1 if none
+     * @param firstByte  the time to the response headers in milliseconds, -1 if none
+     * @throws IOException if a new segment could not be created
+     */
+    public synchronized void append(long timestamp, int endpointId, int status, int error, int latency,
+                                    boolean online, int dns, int connect, int tls, int firstByte) throws IOException {
+        timestamp = Math.max(timestamp, lastTimestamp);
+        if (current == null || current.isFull() || !current.isWritable()
+                || align(timestamp) != align(current.getStart())) {
+            roll(timestamp);
+        }
+        current.append(timestamp, endpointId, status, error, latency, online ? ProbeRecord.ONLINE : 0,
+                dns, connect, tls, firstByte);
+        lastTimestamp = timestamp;
+    }
+
+    private void roll(long timestamp) throws IOException {
+        if (current != null && current.isWritable()) {
+            current.force();
+        }
+        long start = Math.max(timestamp, segments.isEmpty() ? timestamp : segments.lastKey() + 1);
+        current = Segment.create(directory.resolve(PREFIX + start + SUFFIX), start, segmentCapacity);
+        segments.put(start, current);
+        expire(timestamp);
+    }
+
+    private void expire(long now) {
+        Map.Entry<Long, Segment> first;
+        while ((first = segments.firstEntry()) != null) {
+            Long next = segments.higherKey(first.getKey());
+            if (next == null || next > now - retention) {
+                return;
+            }
+            segments.remove(first.getKey());
+            try {
+                Files.deleteIfExists(first.getValue().getPath());
+                LOG.info("Deleted expired segment {}", first.getValue().getPath());
+            } catch (IOException e) {
+                LOG.warn("Could not delete {}: {}", first.getValue().getPath(), e.getMessage());
+            }
+        }
+    }
+
+    private long align(long timestamp) {
+        return timestamp - Math.floorMod(timestamp, segmentDuration);
+    }
+
+    /**
+     * Visits stored records of all endpoints with timestamp in [from, to) in timestamp order.
+     * The visitor receives a reused flyweight which is valid only during the call.
+     *
+     * @param from    inclusive start in milliseconds
+     * @param to      exclusive end in milliseconds
+     * @param visitor the visitor
+     */
+    public void scan(long from, long to, Consumer<ProbeRecord> visitor) {
+        scan(from, to, true, 0, visitor);
+    }
+
+    /**
+     * Visits stored records of one endpoint with timestamp in [from, to) in timestamp order.
+     * The visitor receives a reused flyweight which is valid only during the call.
+     *
+     * @param from       inclusive start in milliseconds
+     * @param to         exclusive end in milliseconds
+     * @param endpointId the endpoint id
+     * @param visitor    the visitor
+     */
+    public void scan(long from, long to, int endpointId, Consumer<ProbeRecord> visitor) {
+        scan(from, to, false, endpointId, visitor);
+    }
+
+    private void scan(long from, long to, boolean allEndpoints, int endpointId, Consumer<ProbeRecord> visitor) {
+        Long first = segments.floorKey(from);
+        ProbeRecord record = new ProbeRecord();
+        for (Segment s : segments.tailMap(first == null ? from : first).values()) {
+            if (s.getStart() >= to) {
+                return;
+            }
+            s.scan(from, to, allEndpoints, endpointId, record, visitor);
+        }
+    }
+
+    /**
+     * Gets number of segments.
+     *
+     * @return the segments
+     */
+    public int getSegments() {
+        return segments.size();
+    }
+
+    /**
+     * Gets number of stored records.
+     *
+     * @return the records
+     */
+    public long getRecords() {
+        long records = 0;
+        for (Segment s : segments.values()) {
+            records += s.getCount();
+        }
+        return records;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (current != null && current.isWritable()) {
+            current.force();
+        }
+    }
+
+}
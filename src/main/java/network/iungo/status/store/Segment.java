@@ -0,0 +1,194 @@
+/*
+ * Segment.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.store;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * Memory mapped file of fixed size probe records ordered by timestamp.
+ * <p>
+ * Layout: 32 byte header (magic, version, record size, capacity, count, first timestamp)
+ * followed by the records. The record count in the header is written after the record itself,
+ * so a crash never exposes a half written record.
+ * Segments of older versions, which have shorter records, are read but never appended to.
+ */
+class Segment {
+
+    private final static int MAGIC = 0x50524253;
+    private final static int VERSION = 2;
+
+    private final static int HEADER_MAGIC = 0;
+    private final static int HEADER_VERSION = 4;
+    private final static int HEADER_RECORD_SIZE = 8;
+    private final static int HEADER_CAPACITY = 12;
+    private final static int HEADER_COUNT = 16;
+    private final static int HEADER_START = 24;
+    private final static int HEADER_SIZE = 32;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int recordSize;
+    private final int capacity;
+    private final long start;
+    private final boolean writable;
+
+    private volatile int count;
+
+    private Segment(Path path, MappedByteBuffer buffer, boolean writable) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        this.writable = writable;
+        int version = buffer.getInt(HEADER_VERSION);
+        if (buffer.getInt(HEADER_MAGIC) != MAGIC || version < 1 || version > VERSION) {
+            throw new IOException("Not a probe segment: " + path);
+        }
+        this.recordSize = buffer.getInt(HEADER_RECORD_SIZE);
+        if (recordSize < ProbeRecord.DNS || recordSize > ProbeRecord.SIZE) {
+            throw new IOException("Unsupported record size " + recordSize + ": " + path);
+        }
+        this.capacity = buffer.getInt(HEADER_CAPACITY);
+        this.count = buffer.getInt(HEADER_COUNT);
+        this.start = buffer.getLong(HEADER_START);
+        if (capacity < 0 || count < 0 || count > capacity
+                || HEADER_SIZE + (long) count * recordSize > buffer.capacity()
+                || writable && HEADER_SIZE + (long) capacity * recordSize > buffer.capacity()) {
+            throw new IOException("Record count " + count + " of " + capacity + " does not fit the file: " + path);
+        }
+    }
+
+    /**
+     * Creates a new empty segment.
+     */
+    static Segment create(Path path, long start, int capacity) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_SIZE + (long) capacity * ProbeRecord.SIZE);
+            buffer.putInt(HEADER_MAGIC, MAGIC);
+            buffer.putInt(HEADER_VERSION, VERSION);
+            buffer.putInt(HEADER_RECORD_SIZE, ProbeRecord.SIZE);
+            buffer.putInt(HEADER_CAPACITY, capacity);
+            buffer.putInt(HEADER_COUNT, 0);
+            buffer.putLong(HEADER_START, start);
+            return new Segment(path, buffer, true);
+        }
+    }
+
+    /**
+     * Opens an existing segment, the mapping outlives the closed file.
+     */
+    static Segment open(Path path, boolean writable) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), writable ? "rw" : "r")) {
+            if (file.length() < HEADER_SIZE) {
+                throw new IOException("Truncated probe segment: " + path);
+            }
+            return new Segment(path, file.getChannel().map(
+                    writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, 0, file.length()), writable);
+        }
+    }
+
+    boolean isWritable() {
+        return writable && recordSize == ProbeRecord.SIZE;
+    }
+
+    boolean isFull() {
+        return count >= capacity;
+    }
+
+    void append(long timestamp, int endpointId, int status, int error, int latency, int flags,
+                int dns, int connect, int tls, int firstByte) {
+        int offset = HEADER_SIZE + count * recordSize;
+        buffer.putLong(offset + ProbeRecord.TIMESTAMP, timestamp);
+        buffer.putInt(offset + ProbeRecord.ENDPOINT, endpointId);
+        buffer.putShort(offset + ProbeRecord.STATUS, (short) status);
+        buffer.putShort(offset + ProbeRecord.ERROR, (short) error);
+        buffer.putInt(offset + ProbeRecord.LATENCY, latency);
+        buffer.putInt(offset + ProbeRecord.FLAGS, flags);
+        buffer.putInt(offset + ProbeRecord.DNS, dns);
+        buffer.putInt(offset + ProbeRecord.CONNECT, connect);
+        buffer.putInt(offset + ProbeRecord.TLS, tls);
+        buffer.putInt(offset + ProbeRecord.FIRST_BYTE, firstByte);
+        buffer.putInt(HEADER_COUNT, count + 1);
+        count++;
+    }
+
+    /**
+     * Visits records with timestamp in [from, to) of one endpoint or of all of them,
+     * the first one is found by binary search.
+     */
+    void scan(long from, long to, boolean allEndpoints, int endpointId, ProbeRecord record,
+              Consumer<ProbeRecord> visitor) {
+        int n = count;
+        int low = 0;
+        int high = n;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamp(mid) < from) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < n; i++) {
+            int offset = HEADER_SIZE + i * recordSize;
+            if (buffer.getLong(offset + ProbeRecord.TIMESTAMP) >= to) {
+                return;
+            }
+            if (allEndpoints || buffer.getInt(offset + ProbeRecord.ENDPOINT) == endpointId) {
+                record.moveTo(buffer, offset, recordSize);
+                visitor.accept(record);
+            }
+        }
+    }
+
+    private long timestamp(int i) {
+        return buffer.getLong(HEADER_SIZE + i * recordSize + ProbeRecord.TIMESTAMP);
+    }
+
+    long lastTimestamp() {
+        return count == 0 ? start : timestamp(count - 1);
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    long getStart() {
+        return start;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+}
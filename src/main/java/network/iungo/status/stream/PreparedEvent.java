@@ -0,0 +1,79 @@
+/*
+ * PreparedEvent.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.stream;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Event serialized once in the server-sent events format, then written as it is to any number of clients.
+ */
+final class PreparedEvent {
+
+    private final byte[] frame;
+
+    private PreparedEvent(CharSequence frame) {
+        this.frame = frame.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Prepares an event.
+     *
+     * @param id   the event id, null for none
+     * @param name the event name
+     * @param data the data, every line is sent as a data field
+     * @return the event
+     */
+    static PreparedEvent event(String id, String name, String data) {
+        StringBuilder frame = new StringBuilder(data.length() + 32);
+        if (id != null) {
+            frame.append("id:").append(id).append('\n');
+        }
+        frame.append("event:").append(name).append('\n');
+        for (String line : data.split("\r\n|\r|\n", -1)) {
+            frame.append("data:").append(line).append('\n');
+        }
+        return new PreparedEvent(frame.append('\n'));
+    }
+
+    /**
+     * Prepares a comment, ignored by browsers but keeping the connection busy.
+     *
+     * @param comment the comment, a single line
+     * @return the event
+     */
+    static PreparedEvent comment(String comment) {
+        return new PreparedEvent(":" + comment + "\n\n");
+    }
+
+    /**
+     * Gets the event as written to the connection.
+     *
+     * @return the frame
+     */
+    byte[] getFrame() {
+        return frame;
+    }
+
+}
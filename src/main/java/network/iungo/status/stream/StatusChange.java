@@ -0,0 +1,89 @@
+/*
+ * StatusChange.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.stream;
+
+import network.iungo.status.domain.EndpointStatus;
+
+import java.util.Date;
+
+/**
+ * Event sent when an endpoint goes online or offline, or starts or stops flapping.
+ */
+public class StatusChange {
+
+    private final int id;
+    private final boolean online;
+    private final boolean flapping;
+    private final Date checked;
+
+    /**
+     * Instantiates a new Status change.
+     *
+     * @param status the new status
+     */
+    StatusChange(EndpointStatus status) {
+        this.id = status.getId();
+        this.online = status.isOnline();
+        this.flapping = status.isFlapping();
+        this.checked = status.getChecked();
+    }
+
+    /**
+     * Gets id.
+     *
+     * @return the id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Is online boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isOnline() {
+        return online;
+    }
+
+    /**
+     * Is flapping boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isFlapping() {
+        return flapping;
+    }
+
+    /**
+     * Gets checked.
+     *
+     * @return the checked
+     */
+    public Date getChecked() {
+        return checked;
+    }
+
+}
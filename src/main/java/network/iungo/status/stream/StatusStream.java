@@ -0,0 +1,246 @@
+/*
+ * StatusStream.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import network.iungo.status.domain.EndpointStatus;
+import network.iungo.status.domain.StatusSnapshot;
+import network.iungo.status.metrics.LatencySummary;
+import network.iungo.status.service.MonitoringService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes status changes to connected browsers as server-sent events.
+ * <p>
+ * Every published snapshot is compared with the previous one, only endpoints that went
+ * online or offline, started or stopped flapping, or whose latency percentiles moved are sent.
+ * Each event is serialized once in its wire format and queued to every client.
+ * Clients are written by a small pool of senders, a client whose write blocks longer than the send timeout
+ * is disconnected and the pool gets a thread more until that write returns, so slow clients
+ * never hold up the others.
+ * <p>
+ * Events: {@code version} with the current snapshot version right after connecting,
+ * {@code status} with a {@link StatusChange} and {@code latency} with a {@link LatencyChange},
+ * both carrying the snapshot version as their event id.
+ */
+@Service
+public class StatusStream {
+
+    private static Logger LOG = LoggerFactory.getLogger(StatusStream.class);
+
+    private final MonitoringService monitoringService;
+    private final ObjectMapper mapper;
+    private final int maxClients;
+    private final int buffer;
+    private final int senderThreads;
+    private final long sendTimeout;
+    private int stalled;
+
+    private final Set<StreamClient> clients = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connected = new AtomicInteger();
+
+    private final ThreadPoolExecutor senders;
+    private final ScheduledExecutorService heartbeat;
+
+    /**
+     * Instantiates a new Status stream.
+     *
+     * @param monitoringService the monitoring service
+     * @param properties        the stream properties
+     * @param mapper            the object mapper
+     */
+    @Autowired
+    public StatusStream(MonitoringService monitoringService, StreamProperties properties, ObjectMapper mapper) {
+        this.monitoringService = monitoringService;
+        this.mapper = mapper;
+        this.maxClients = properties.getMaxClients();
+        this.buffer = properties.getBuffer();
+        this.senderThreads = properties.getSenders();
+        this.sendTimeout = TimeUnit.MILLISECONDS.toNanos(properties.getSendTimeout());
+
+        senders = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory("StreamSender-"));
+        heartbeat = Executors.newSingleThreadScheduledExecutor(threadFactory("StreamHeartbeat-"));
+        heartbeat.scheduleAtFixedRate(() -> broadcast(PreparedEvent.comment("")),
+                properties.getHeartbeat(), properties.getHeartbeat(), TimeUnit.MILLISECONDS);
+        long watch = Math.max(1, properties.getSendTimeout() / 2);
+        heartbeat.scheduleWithFixedDelay(this::watch, watch, watch, TimeUnit.MILLISECONDS);
+
+        monitoringService.addSnapshotListener(this::published);
+    }
+
+    /**
+     * Connects a new client.
+     *
+     * @return the emitter of the client writing server-sent events, null if the maximum number of clients is connected
+     */
+    public ResponseBodyEmitter subscribe() {
+        if (connected.incrementAndGet() > maxClients) {
+            connected.decrementAndGet();
+            return null;
+        }
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(0L);
+        StreamClient client = new StreamClient(emitter, buffer, senders, this::closed, this::stalled);
+        clients.add(client);
+        emitter.onCompletion(client::close);
+        emitter.onTimeout(client::close);
+        emitter.onError(ex -> client.close());
+
+        long version = monitoringService.getSnapshot().getVersion();
+        client.offer(PreparedEvent.event(null, "version", Long.toString(version)));
+        return emitter;
+    }
+
+    private void closed(StreamClient client) {
+        if (clients.remove(client)) {
+            connected.decrementAndGet();
+        }
+    }
+
+    /**
+     * Disconnects clients whose running send has taken longer than the send timeout.
+     */
+    private void watch() {
+        long now = System.nanoTime();
+        for (StreamClient client : clients) {
+            if (client.abandon(now, sendTimeout)) {
+                LOG.debug("Stream client blocked a send for longer than {} ms, disconnected",
+                        TimeUnit.NANOSECONDS.toMillis(sendTimeout));
+            }
+        }
+    }
+
+    /**
+     * Resizes the senders to make up for the threads blocked in written off sends.
+     */
+    private synchronized void stalled(int change) {
+        stalled += change;
+        int size = senderThreads + stalled;
+        if (change > 0) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+    }
+
+    private void published(StatusSnapshot previous, StatusSnapshot next) {
+        if (previous == null || clients.isEmpty()) {
+            return;
+        }
+        List<EndpointStatus> before = previous.getServices();
+        List<EndpointStatus> after = next.getServices();
+        String id = Long.toString(next.getVersion());
+        List<PreparedEvent> events = new ArrayList<>();
+        for (int i = 0; i < after.size(); i++) {
+            EndpointStatus a = before.get(i);
+            EndpointStatus b = after.get(i);
+            if (a == b) {
+                continue;
+            }
+            if (a.isOnline() != b.isOnline() || a.isFlapping() != b.isFlapping()) {
+                events.add(event(id, "status", new StatusChange(b)));
+            }
+            if (moved(a.getLatency(), b.getLatency())) {
+                events.add(event(id, "latency", new LatencyChange(b.getId(), b.getLatency())));
+            }
+        }
+        for (PreparedEvent event : events) {
+            broadcast(event);
+        }
+    }
+
+    private static boolean moved(LatencySummary a, LatencySummary b) {
+        return a.getP50() != b.getP50() || a.getP90() != b.getP90() || a.getP99() != b.getP99()
+                || a.getMax() != b.getMax();
+    }
+
+    private PreparedEvent event(String id, String name, Object data) {
+        try {
+            return PreparedEvent.event(id, name, mapper.writeValueAsString(data));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private void broadcast(PreparedEvent event) {
+        for (StreamClient client : clients) {
+            client.offer(event);
+        }
+    }
+
+    /**
+     * Gets number of connected clients.
+     *
+     * @return the clients
+     */
+    public int getClients() {
+        return connected.get();
+    }
+
+    /**
+     * Disconnects all clients.
+     */
+    @PreDestroy
+    public void close() {
+        heartbeat.shutdownNow();
+        for (StreamClient client : clients) {
+            client.close();
+        }
+        senders.shutdown();
+        try {
+            senders.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        senders.shutdownNow();
+    }
+
+    private static CustomizableThreadFactory threadFactory(String prefix) {
+        CustomizableThreadFactory factory = new CustomizableThreadFactory(prefix);
+        factory.setDaemon(true);
+        return factory;
+    }
+
+}
@@ -0,0 +1,193 @@
+/*
+ * StreamClient.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.stream;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * One connected stream client with its own bounded queue of events.
+ * <p>
+ * Publishers only offer events to the queue, the events are written by one of the sender threads.
+ * At most one sender works on a client at a time, so events arrive in order.
+ * A client whose queue is full is disconnected, it reconnects and catches up from the full snapshot.
+ * <p>
+ * A write blocked on a client which stopped reading holds its sender until the container gives up on it.
+ * A send running longer than the send timeout is written off: the client is disconnected and the
+ * senders are told to make up for the blocked thread until its write returns.
+ * The emitter is completed by a sender, never by the closing thread, which could wait behind a blocked write.
+ */
+class StreamClient implements Runnable {
+
+    private final static int RUNNING = 0;
+    private final static int STALLED = 1;
+    private final static int RELEASED = 2;
+
+    private final ResponseBodyEmitter emitter;
+    private final BlockingQueue<PreparedEvent> queue;
+    private final Executor sender;
+    private final Consumer<StreamClient> closed;
+    private final IntConsumer stalls;
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean open = new AtomicBoolean(true);
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private final AtomicInteger stall = new AtomicInteger(RUNNING);
+
+    private volatile long sendStarted;
+    private volatile boolean sending;
+
+    /**
+     * Instantiates a new Stream client.
+     *
+     * @param emitter the emitter of the client connection
+     * @param buffer  the maximum number of queued events
+     * @param sender  the executor writing events
+     * @param closed  called once when the client is closed
+     * @param stalls  called with 1 when a blocked send is written off and with -1 when it returns
+     */
+    StreamClient(ResponseBodyEmitter emitter, int buffer, Executor sender, Consumer<StreamClient> closed,
+                 IntConsumer stalls) {
+        this.emitter = emitter;
+        this.queue = new ArrayBlockingQueue<>(buffer);
+        this.sender = sender;
+        this.closed = closed;
+        this.stalls = stalls;
+    }
+
+    /**
+     * Queues an event, never blocks.
+     *
+     * @param event the serialized event
+     */
+    void offer(PreparedEvent event) {
+        if (!open.get()) {
+            return;
+        }
+        if (!queue.offer(event)) {
+            close();
+            return;
+        }
+        schedule();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                sender.execute(this);
+            } catch (RejectedExecutionException ex) {
+                scheduled.set(false);
+                open.set(false);
+                complete();
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            PreparedEvent event;
+            while (open.get() && (event = queue.poll()) != null) {
+                send(event);
+            }
+        } catch (IOException | IllegalStateException ex) {
+            close();
+        } finally {
+            scheduled.set(false);
+        }
+        if (!open.get()) {
+            complete();
+        } else if (!queue.isEmpty()) {
+            schedule();
+        }
+    }
+
+    private void send(PreparedEvent event) throws IOException {
+        sendStarted = System.nanoTime();
+        sending = true;
+        try {
+            emitter.send(event.getFrame(), MediaType.APPLICATION_OCTET_STREAM);
+        } finally {
+            sending = false;
+            if (stall.compareAndSet(STALLED, RELEASED)) {
+                stalls.accept(-1);
+            }
+        }
+    }
+
+    /**
+     * Writes off the running send if it started more than the timeout ago, the client is closed.
+     *
+     * @param now     the current {@link System#nanoTime()}
+     * @param timeout the send timeout in nanoseconds
+     * @return true if the send was written off
+     */
+    boolean abandon(long now, long timeout) {
+        if (!sending || now - sendStarted < timeout || !stall.compareAndSet(RUNNING, STALLED)) {
+            return false;
+        }
+        stalls.accept(1);
+        close();
+        // the send may have returned before it was marked
+        if (!sending && stall.compareAndSet(STALLED, RELEASED)) {
+            stalls.accept(-1);
+        }
+        return true;
+    }
+
+    /**
+     * Drops queued events and has a sender complete the connection.
+     */
+    void close() {
+        if (!open.compareAndSet(true, false)) {
+            return;
+        }
+        queue.clear();
+        closed.accept(this);
+        schedule();
+    }
+
+    private void complete() {
+        if (!completed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            emitter.complete();
+        } catch (RuntimeException ex) {
+            // the connection is already gone
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * StreamProperties.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.stream;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The type Stream properties.
+ */
+@ConfigurationProperties(prefix = "stream")
+@Configuration
+public class StreamProperties {
+
+    private int maxClients = 10000;
+    private int buffer = 64;
+    private int senders = 4;
+    private long sendTimeout = 10 * 1000;
+    private long heartbeat = 25 * 1000;
+
+    /**
+     * Gets maximum number of connected stream clients, further clients are turned away.
+     *
+     * @return the max clients
+     */
+    public int getMaxClients() {
+        return maxClients;
+    }
+
+    /**
+     * Sets max clients.
+     *
+     * @param maxClients the max clients
+     */
+    public void setMaxClients(int maxClients) {
+        this.maxClients = maxClients;
+    }
+
+    /**
+     * Gets number of events queued for one client, a client falling further behind is disconnected.
+     *
+     * @return the buffer
+     */
+    public int getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Sets buffer.
+     *
+     * @param buffer the buffer
+     */
+    public void setBuffer(int buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Gets number of threads writing events to clients.
+     *
+     * @return the senders
+     */
+    public int getSenders() {
+        return senders;
+    }
+
+    /**
+     * Sets senders.
+     *
+     * @param senders the senders
+     */
+    public void setSenders(int senders) {
+        this.senders = senders;
+    }
+
+    /**
+     * Gets time in milliseconds one event may take to write, a client blocking longer is disconnected.
+     *
+     * @return the send timeout
+     */
+    public long getSendTimeout() {
+        return sendTimeout;
+    }
+
+    /**
+     * Sets send timeout.
+     *
+     * @param sendTimeout the send timeout
+     */
+    public void setSendTimeout(long sendTimeout) {
+        this.sendTimeout = sendTimeout;
+    }
+
+    /**
+     * Gets interval in milliseconds of comments keeping idle connections open.
+     *
+     * @return the heartbeat
+     */
+    public long getHeartbeat() {
+        return heartbeat;
+    }
+
+    /**
+     * Sets heartbeat.
+     *
+     * @param heartbeat the heartbeat
+     */
+    public void setHeartbeat(long heartbeat) {
+        this.heartbeat = heartbeat;
+    }
+
+}
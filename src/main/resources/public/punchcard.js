@@ -23,6 +23,8 @@ var border = chart.append('rect')
 
 load();
 
+d3.select('#range').on('change', load);
+
 var weekdays = {
     0: "Monday",
     1: "Tuesday",
@@ -35,7 +37,7 @@ var weekdays = {
 
 function load() {
 
-    d3.json("/commits", function (j) {
+    d3.json("/commits" + range(d3.select('#range').property('value')), function (j) {
         var labelsX = [];
         var data = [];
         for (var i = 0; i < 24; i++) {
@@ -51,6 +53,22 @@ function load() {
     })
 }
 
+function range(days) {
+    if (!days) {
+        return "";
+    }
+    var from = new Date();
+    from.setDate(from.getDate() - days + 1);
+    return "?from=" + isoDate(from) + "&to=" + isoDate(new Date());
+}
+
+function isoDate(d) {
+    var pad = function (n) {
+        return n < 10 ? "0" + n : n
+    };
+    return d.getFullYear() + "-" + pad(d.getMonth() + 1) + "-" + pad(d.getDate())
+}
+
 function update(data, labelsX) {
 
     var allValues = Array.prototype.concat.apply([], data.map(function (d) {
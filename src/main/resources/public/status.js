@@ -0,0 +1,53 @@
+var version = parseInt($('#services').data('version'));
+
+if (window.EventSource) {
+    var stream = new EventSource('/services/stream');
+
+    // sent on every (re)connect, anything missed in between is fetched as a whole
+    stream.addEventListener('version', function (e) {
+        if (parseInt(e.data) !== version) {
+            reload();
+        }
+    });
+
+    stream.addEventListener('status', function (e) {
+        version = parseInt(e.lastEventId);
+        showStatus(JSON.parse(e.data));
+    });
+
+    stream.addEventListener('latency', function (e) {
+        version = parseInt(e.lastEventId);
+        var change = JSON.parse(e.data);
+        showLatency(change.id, change.latency);
+    });
+}
+
+function reload() {
+    $.getJSON('/services', function (snapshot) {
+        version = snapshot.version;
+        snapshot.services.forEach(function (s) {
+            showStatus(s);
+            showLatency(s.id, s.latency);
+        });
+    });
+}
+
+function showStatus(s) {
+    var service = $('#service-' + s.id);
+    service.toggleClass('green', s.online).toggleClass('red', !s.online);
+    service.find('.state')
+        .toggleClass('green', s.online).toggleClass('red', !s.online)
+        .html(s.online ? '<i class="check icon"></i> ONLINE' : '<i class="times icon"></i> OFFLINE');
+    service.find('.flapping').toggle(s.flapping);
+    if (s.checked) {
+        service.find('.time').text('Checked ' + new Date(s.checked).toLocaleTimeString());
+    }
+}
+
+function showLatency(id, latency) {
+    if (!latency || latency.empty) {
+        return;
+    }
+    $('#service-' + id).find('.latency').html('p50 ' + latency.p50 + ' ms &middot; p90 ' + latency.p90
+        + ' ms &middot; p99 ' + latency.p99 + ' ms &middot; max ' + latency.max + ' ms');
+}
@@ -0,0 +1,95 @@
+/*
+ * PageDecoderTest.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.bitbucket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import network.iungo.status.bitbucket.response.commits.Commit;
+import network.iungo.status.bitbucket.response.commits.Commits;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The type Page decoder test.
+ */
+class PageDecoderTest {
+
+    private final static String PAGE = "{\"pagelen\": 30, \"values\": ["
+            + "{\"hash\": \"a1\", \"date\": \"2018-08-30T10:15:00+03:00\", \"type\": \"commit\","
+            + " \"author\": {\"raw\": \"MP <mp@iungo.network>\"}, \"parents\": [{\"hash\": \"b2\"}]},"
+            + "{\"hash\": \"b2\", \"date\": \"2018-08-29T23:00:00+00:00\", \"message\": \"\u0104\u017euolas\\nline\"},"
+            + "{\"hash\": \"c3\", \"date\": \"2018-08-28T00:30:00+00:00\"}"
+            + "], \"next\": \"https://api.bitbucket.org/2.0/repositories/iungo/core/commits?page=2\"}";
+
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void valuesAreStreamed() throws Exception {
+        List<Commit> commits = new ArrayList<>();
+        Commits page = PageDecoder.decode(body(), mapper, Commit.class, new Commits(), commits::add);
+
+        assertEquals(3, commits.size());
+        assertEquals("a1", commits.get(0).getHash());
+        assertEquals(OffsetDateTime.parse("2018-08-30T07:15:00Z").toInstant(), commits.get(0).getDate().toInstant());
+        assertEquals("\u0104\u017euolas\nline", commits.get(1).getMessage());
+        assertEquals("MP <mp@iungo.network>", commits.get(0).getAuthor().getRaw());
+        assertNull(commits.get(0).getAuthor().getUser());
+        assertEquals("30", page.getPageLength());
+        assertEquals("https://api.bitbucket.org/2.0/repositories/iungo/core/commits?page=2", page.getNext());
+        assertNull(page.getValues());
+    }
+
+    @Test
+    void consumerStopsThePage() throws Exception {
+        List<String> hashes = new ArrayList<>();
+        Commits page = PageDecoder.decode(body(), mapper, Commit.class, new Commits(), c -> {
+            hashes.add(c.getHash());
+            return !c.getHash().equals("b2");
+        });
+        assertEquals(2, hashes.size());
+        assertNull(page.getNext());
+    }
+
+    @Test
+    void nextLinkIsToldWhenParsed() throws Exception {
+        List<String> links = new ArrayList<>();
+        PageDecoder.decode(body(), mapper, Commit.class, new Commits(), c -> true, links::add);
+        assertEquals(1, links.size());
+        assertEquals("https://api.bitbucket.org/2.0/repositories/iungo/core/commits?page=2", links.get(0));
+    }
+
+    private static InputStream body() {
+        return new ByteArrayInputStream(PAGE.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
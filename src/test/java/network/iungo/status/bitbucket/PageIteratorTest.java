@@ -0,0 +1,182 @@
+/*
+ * PageIteratorTest.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.bitbucket;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The type Page iterator test.
+ */
+class PageIteratorTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void valuesOfAllPagesAreReadInOrder() {
+        PageIterator<String> values = new PageIterator<>("page-1", (url, sink) -> {
+            int n = Integer.parseInt(url.substring(5));
+            for (int i = 0; i < 3; i++) {
+                sink.accept(url + "/" + i);
+            }
+            return n < 5 ? "page-" + (n + 1) : null;
+        }, executor, 10, 10000);
+
+        List<String> read = new ArrayList<>();
+        while (values.hasNext()) {
+            read.add(values.next());
+        }
+        assertEquals(15, read.size());
+        assertEquals("page-1/0", read.get(0));
+        assertEquals("page-5/2", read.get(14));
+        assertEquals(5, values.getRequested());
+        assertFalse(values.isTruncated());
+        assertNull(values.getResumeUrl());
+    }
+
+    @Test
+    void nextPageIsRequestedWhileThePreviousIsConsumed() throws InterruptedException {
+        CountDownLatch secondRequested = new CountDownLatch(1);
+        PageIterator<String> values = new PageIterator<>("page-1", (url, sink) -> {
+            if (url.equals("page-2")) {
+                secondRequested.countDown();
+                sink.accept("page-2/0");
+                return null;
+            }
+            for (int i = 0; i < 3; i++) {
+                Thread.sleep(50);
+                sink.accept(url + "/" + i);
+            }
+            sink.next("page-2");
+            Thread.sleep(200);
+            return "page-2";
+        }, executor, 10, 10000);
+
+        assertTrue(values.hasNext());
+        assertEquals("page-1/0", values.next());
+        // the consumer is still on the first value of page 1 when page 2 goes out
+        assertTrue(secondRequested.await(2, TimeUnit.SECONDS));
+        assertEquals(2, values.getRequested());
+
+        List<String> read = new ArrayList<>();
+        while (values.hasNext()) {
+            read.add(values.next());
+        }
+        assertEquals(3, read.size());
+        assertEquals("page-2/0", read.get(2));
+    }
+
+    @Test
+    void pageStoppedAfterItsNextLinkDropsTheFollowingPage() {
+        PageIterator<String> values = new PageIterator<>("page-1", (url, sink) -> {
+            sink.accept(url);
+            sink.next("page-2");
+            return null;
+        }, executor, 1, 10000);
+
+        List<String> read = new ArrayList<>();
+        while (values.hasNext()) {
+            read.add(values.next());
+        }
+        assertEquals(1, read.size());
+        assertFalse(values.isTruncated());
+        assertNull(values.getResumeUrl());
+    }
+
+    @Test
+    void failedPageThrows() {
+        PageIterator<String> values = new PageIterator<>("page", (url, sink) -> {
+            throw new IllegalArgumentException("broken");
+        }, executor, 10, 10000);
+        assertThrows(IllegalStateException.class, values::hasNext);
+    }
+
+    @Test
+    void limitsTruncate() {
+        PageIterator<String> values = new PageIterator<>("page", (url, sink) -> {
+            sink.accept(url);
+            return url;
+        }, executor, 3, 10000);
+        int read = 0;
+        while (values.hasNext()) {
+            values.next();
+            read++;
+        }
+        assertEquals(3, read);
+        assertTrue(values.isTruncated());
+        assertEquals("page", values.getResumeUrl());
+
+        values = new PageIterator<>("page", (url, sink) -> {
+            Thread.sleep(1000);
+            sink.accept(url);
+            return url;
+        }, executor, 3, 100);
+        long started = System.nanoTime();
+        assertFalse(values.hasNext());
+        assertTrue(values.isTruncated());
+        assertTrue(System.nanoTime() - started >= 900L * 1000 * 1000);
+        assertEquals("page", values.getResumeUrl());
+    }
+
+    @Test
+    void stoppedFetchIsOverBeforeTheIterationEnds() {
+        AtomicBoolean rejected = new AtomicBoolean();
+        AtomicBoolean over = new AtomicBoolean();
+        AtomicBoolean interrupted = new AtomicBoolean();
+        PageIterator<String> values = new PageIterator<>("page", (url, sink) -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException ex) {
+                interrupted.set(true);
+            }
+            rejected.set(!sink.accept(url));
+            over.set(true);
+            return url;
+        }, executor, 3, 100);
+
+        assertFalse(values.hasNext());
+        assertTrue(values.isTruncated());
+        assertTrue(over.get());
+        assertTrue(rejected.get());
+        assertFalse(interrupted.get());
+        assertEquals(1, values.getRequested());
+    }
+
+}
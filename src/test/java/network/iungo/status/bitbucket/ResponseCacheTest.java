@@ -0,0 +1,84 @@
+/*
+ * ResponseCacheTest.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.bitbucket;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The type Response cache test.
+ */
+class ResponseCacheTest {
+
+    @Test
+    void keepsOnlyResponsesWithValidators() {
+        ResponseCache cache = new ResponseCache(1000);
+        cache.put("a", "\"1\"", null, "A", 10);
+        cache.put("b", null, "Thu, 30 Aug 2018 10:15:00 GMT", "B", 10);
+        cache.put("c", null, null, "C", 10);
+        assertEquals("\"1\"", cache.get("a").getEtag());
+        assertEquals("B", cache.get("b").getValue());
+        assertNull(cache.get("c"));
+
+        cache.put("a", null, null, "A2", 10);
+        assertNull(cache.get("a"));
+        assertEquals(10, cache.getStatistics().getBytes());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        ResponseCache cache = new ResponseCache(100);
+        cache.put("a", "1", null, "A", 40);
+        cache.put("b", "2", null, "B", 40);
+        cache.get("a");
+        cache.put("c", "3", null, "C", 40);
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+
+        cache.put("d", "4", null, "D", 101);
+        assertNull(cache.get("d"));
+
+        CacheStatistics statistics = cache.getStatistics();
+        assertEquals(2, statistics.getEntries());
+        assertEquals(80, statistics.getBytes());
+        assertEquals(1, statistics.getEvictions());
+    }
+
+    @Test
+    void hitRatio() {
+        ResponseCache cache = new ResponseCache(0);
+        assertEquals(0, cache.getStatistics().getHitRatio());
+        cache.put("a", "1", null, "A", 1);
+        assertNull(cache.get("a"));
+        cache.miss();
+        cache.hit();
+        cache.hit();
+        cache.hit();
+        assertEquals(0.75, cache.getStatistics().getHitRatio(), 1e-9);
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * TokenBucketTest.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.bitbucket;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The type Token bucket test.
+ */
+class TokenBucketTest {
+
+    @Test
+    void burstThenRate() throws Exception {
+        TokenBucket bucket = new TokenBucket(5, 50);
+        long started = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            bucket.acquire();
+        }
+        assertTrue(millisSince(started) < 50);
+
+        started = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            bucket.acquire();
+        }
+        assertTrue(millisSince(started) >= 80);
+    }
+
+    @Test
+    void rateFollowsTheReportedLimit() throws Exception {
+        TokenBucket bucket = new TokenBucket(2, 1);
+        bucket.update(1000, 10000);
+        assertEquals(100, bucket.getRate(), 0.01);
+
+        bucket.update(0, 200);
+        long started = System.nanoTime();
+        bucket.acquire();
+        assertTrue(millisSince(started) >= 150);
+        assertTrue(millisSince(started) < 800);
+        assertEquals(1, bucket.getRate(), 0.01);
+    }
+
+    private static long millisSince(long started) {
+        return (System.nanoTime() - started) / 1000000;
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * ClusterServiceTest.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The type Cluster service test.
+ */
+class ClusterServiceTest {
+
+    private static final List<Observation> OBSERVATIONS = Collections.singletonList(
+            new Observation(1, "http://localhost:1", 1000, false, 0, -1, "refused"));
+
+    private static ClusterProperties properties(String secret, String... peers) {
+        ClusterProperties properties = new ClusterProperties();
+        properties.setUrl("http://localhost:0");
+        properties.setPeers(Arrays.asList(peers));
+        properties.setSecret(secret);
+        properties.setHeartbeat(60000);
+        return properties;
+    }
+
+    @Test
+    void aloneAcceptsNoObservations() {
+        ClusterService cluster = new ClusterService(properties(""));
+        AtomicInteger received = new AtomicInteger();
+        cluster.setReceiver(o -> received.incrementAndGet());
+
+        assertFalse(cluster.receive(OBSERVATIONS, ""));
+        assertFalse(cluster.receive(OBSERVATIONS, null));
+        assertEquals(0, received.get());
+        assertTrue(cluster.isOnline(1, true));
+    }
+
+    @Test
+    void peersRequireSecret() {
+        assertThrows(IllegalArgumentException.class, () -> new ClusterService(properties("", "http://localhost:1")));
+    }
+
+    @Test
+    void acceptsOnlyMatchingSecret() {
+        ClusterService cluster = new ClusterService(properties("secret", "http://localhost:1"));
+        try {
+            AtomicInteger received = new AtomicInteger();
+            cluster.setReceiver(o -> received.incrementAndGet());
+
+            assertFalse(cluster.receive(OBSERVATIONS, null));
+            assertFalse(cluster.receive(OBSERVATIONS, ""));
+            assertFalse(cluster.receive(OBSERVATIONS, "secreT"));
+            assertFalse(cluster.receive(OBSERVATIONS, "secret2"));
+            assertEquals(0, received.get());
+
+            assertTrue(cluster.receive(OBSERVATIONS, "secret"));
+            assertEquals(1, received.get());
+        } finally {
+            cluster.close();
+        }
+    }
+
+}
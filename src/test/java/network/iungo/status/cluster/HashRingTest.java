@@ -0,0 +1,72 @@
+/*
+ * HashRingTest.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The type Hash ring test.
+ */
+class HashRingTest {
+
+    @Test
+    void keysAreSpreadAndOwnersDistinct() {
+        HashRing ring = new HashRing(Arrays.asList("http://a", "http://b", "http://c"), 64);
+        Map<String, Integer> primaries = new HashMap<>();
+        for (int key = 0; key < 3000; key++) {
+            List<String> owners = ring.owners(key, 2);
+            assertEquals(2, owners.size());
+            assertNotEquals(owners.get(0), owners.get(1));
+            primaries.merge(owners.get(0), 1, Integer::sum);
+        }
+        for (int count : primaries.values()) {
+            assertTrue(count > 600 && count < 1400, "unbalanced " + primaries);
+        }
+        assertEquals(3, ring.owners(1, 5).size());
+    }
+
+    @Test
+    void joiningNodeMovesFewKeys() {
+        HashRing before = new HashRing(Arrays.asList("http://a", "http://b", "http://c"), 64);
+        HashRing after = new HashRing(Arrays.asList("http://a", "http://b", "http://c", "http://d"), 64);
+        int moved = 0;
+        for (int key = 0; key < 4000; key++) {
+            String owner = after.owners(key, 1).get(0);
+            if (!owner.equals(before.owners(key, 1).get(0))) {
+                assertEquals("http://d", owner);
+                moved++;
+            }
+        }
+        assertTrue(moved > 600 && moved < 1500, "moved " + moved);
+    }
+
+}
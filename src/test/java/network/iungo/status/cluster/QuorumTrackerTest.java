@@ -0,0 +1,64 @@
+/*
+ * QuorumTrackerTest.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The type Quorum tracker test.
+ */
+class QuorumTrackerTest {
+
+    @Test
+    void offlineNeedsQuorumOfFreshVotes() {
+        QuorumTracker tracker = new QuorumTracker(60000);
+        List<String> owners = Arrays.asList("a", "b", "c");
+        long now = 1000000;
+
+        assertTrue(tracker.isOnline(1, owners, 2, now, true));
+
+        tracker.record(new Observation(1, "a", now, false, 0, -1, "refused"));
+        assertTrue(tracker.isOnline(1, owners, 2, now, false));
+
+        tracker.record(new Observation(1, "b", now - 120000, false, 0, -1, "refused"));
+        assertTrue(tracker.isOnline(1, owners, 2, now, false));
+
+        tracker.record(new Observation(1, "b", now, false, 0, -1, "refused"));
+        assertFalse(tracker.isOnline(1, owners, 2, now, true));
+
+        tracker.record(new Observation(1, "b", now - 1, true, 200, 10, ""));
+        assertFalse(tracker.isOnline(1, owners, 2, now, true));
+
+        tracker.record(new Observation(1, "d", now, false, 0, -1, "not an owner"));
+        tracker.record(new Observation(1, "a", now + 1, true, 200, 10, ""));
+        assertTrue(tracker.isOnline(1, owners, 2, now + 1, false));
+    }
+
+}
@@ -0,0 +1,178 @@
+/*
+ * CommitCubeTest.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.commits;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The type Commit cube test.
+ */
+class CommitCubeTest {
+
+    private final static String[] REPOSITORIES = {"status", "node", "wallet"};
+    private final static String[] AUTHORS = {"Ann", "Bob", "Cid", "Dee"};
+    private final static int[] ZONES = {0, 3600, 7200, -18000, 32400};
+
+    @Test
+    void matchesAScanForEveryFilter() {
+        Random random = new Random(11);
+        int count = 5000;
+        OffsetDateTime[] times = new OffsetDateTime[count];
+        String[] repositories = new String[count];
+        String[] authors = new String[count];
+        CommitCube cube = new CommitCube();
+        for (int i = 0; i < count; i++) {
+            ZoneOffset zone = ZoneOffset.ofTotalSeconds(ZONES[random.nextInt(ZONES.length)]);
+            times[i] = OffsetDateTime.of(LocalDateTime.ofEpochSecond(1500000000L + random.nextInt(400 * 86400),
+                    0, ZoneOffset.UTC), zone);
+            repositories[i] = REPOSITORIES[random.nextInt(REPOSITORIES.length)];
+            authors[i] = AUTHORS[random.nextInt(AUTHORS.length)];
+            assertTrue(cube.add(repositories[i], authors[i], times[i].toEpochSecond(),
+                    zone.getTotalSeconds()));
+        }
+        assertTrue(cube.size() < count);
+
+        for (int q = 0; q < 100; q++) {
+            CommitQuery query = new CommitQuery();
+            if (random.nextBoolean()) {
+                query.setRepo(REPOSITORIES[random.nextInt(REPOSITORIES.length)]);
+            }
+            if (random.nextBoolean()) {
+                query.setAuthor(AUTHORS[random.nextInt(AUTHORS.length)]);
+            }
+            if (random.nextInt(4) == 0) {
+                query.setZone(ZoneOffset.ofTotalSeconds(ZONES[random.nextInt(ZONES.length)]));
+            }
+            if (random.nextBoolean()) {
+                query.setFrom(LocalDate.ofEpochDay(1500000000L / 86400 + random.nextInt(400)));
+                query.setTo(query.getFrom().plusDays(random.nextInt(60)));
+            }
+            if (random.nextBoolean()) {
+                query.setTz(ZoneOffset.ofHours(random.nextInt(25) - 12));
+            }
+            assertArrayEquals(scan(query, times, repositories, authors), cube.query(query));
+        }
+    }
+
+    @Test
+    void rollupsDoNotGrowWithDays() {
+        CommitCube cube = new CommitCube();
+        for (int day = 0; day < 1000; day++) {
+            cube.add("status", "Ann", 1500000000L + day * 86400L, 3600);
+        }
+        cube.add("status", "Bob", 1500000000L, 3600);
+        assertEquals(2, cube.size());
+
+        CommitQuery query = new CommitQuery();
+        query.setAuthor("Ann");
+        query.setFrom(LocalDate.ofEpochDay(1500000000L / 86400 + 10));
+        query.setTo(query.getFrom().plusDays(6));
+        int total = 0;
+        for (int[] hours : cube.query(query)) {
+            total += Arrays.stream(hours).sum();
+        }
+        assertEquals(7, total);
+    }
+
+    @Test
+    void commitsAddedBetweenRangeQueriesAreCounted() {
+        Random random = new Random(5);
+        int count = 2000;
+        OffsetDateTime[] times = new OffsetDateTime[count];
+        String[] repositories = new String[count];
+        String[] authors = new String[count];
+        CommitCube cube = new CommitCube();
+        for (int i = 0; i < count; i++) {
+            // newest first, as a sync reads them, with a few days repeated out of order
+            ZoneOffset zone = ZoneOffset.ofTotalSeconds(ZONES[random.nextInt(ZONES.length)]);
+            long epochSecond = 1500000000L + (count - i) * 20000L + random.nextInt(3 * 86400);
+            times[i] = OffsetDateTime.of(LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC), zone);
+            repositories[i] = REPOSITORIES[random.nextInt(REPOSITORIES.length)];
+            authors[i] = AUTHORS[random.nextInt(AUTHORS.length)];
+            assertTrue(cube.add(repositories[i], authors[i], times[i].toEpochSecond(), zone.getTotalSeconds()));
+
+            if (i % 250 == 249) {
+                CommitQuery query = new CommitQuery();
+                query.setAuthor(AUTHORS[random.nextInt(AUTHORS.length)]);
+                query.setFrom(LocalDate.ofEpochDay(1500000000L / 86400 + random.nextInt(400)));
+                query.setTo(query.getFrom().plusDays(random.nextInt(120)));
+                query.setTz(ZoneOffset.ofHours(random.nextInt(25) - 12));
+                assertArrayEquals(scan(query, Arrays.copyOf(times, i + 1), Arrays.copyOf(repositories, i + 1),
+                        Arrays.copyOf(authors, i + 1)), cube.query(query));
+            }
+        }
+    }
+
+    @Test
+    void unknownValuesMatchNothing() {
+        CommitCube cube = new CommitCube();
+        cube.add("status", "Ann", 1530000000L, 0);
+        CommitQuery query = new CommitQuery();
+        query.setAuthor("Bob");
+        assertArrayEquals(new int[7][24], cube.query(query));
+        query.setAuthor(null);
+        query.setZone(ZoneOffset.ofHours(1));
+        assertArrayEquals(new int[7][24], cube.query(query));
+    }
+
+    @Test
+    void fractionalViewerOffsetsUseTheMiddleOfTheHour() {
+        CommitCube cube = new CommitCube();
+        OffsetDateTime time = OffsetDateTime.parse("2018-07-02T10:05:00+05:30");
+        cube.add("status", "Ann", time.toEpochSecond(), time.getOffset().getTotalSeconds());
+        CommitQuery query = new CommitQuery();
+        query.setTz(ZoneOffset.UTC);
+        assertEquals(1, cube.query(query)[0][5]);
+    }
+
+    private static int[][] scan(CommitQuery query, OffsetDateTime[] times, String[] repositories, String[] authors) {
+        int[][] counts = new int[7][24];
+        for (int i = 0; i < times.length; i++) {
+            if (query.getRepo() != null && !query.getRepo().equals(repositories[i])
+                    || query.getAuthor() != null && !query.getAuthor().equals(authors[i])
+                    || query.getZone() != null && !query.getZone().equals(times[i].getOffset())) {
+                continue;
+            }
+            LocalDateTime local = query.getTz() == null ? times[i].toLocalDateTime()
+                    : times[i].withOffsetSameInstant(query.getTz()).toLocalDateTime();
+            if (query.getFrom() != null && local.toLocalDate().isBefore(query.getFrom())
+                    || query.getTo() != null && local.toLocalDate().isAfter(query.getTo())) {
+                continue;
+            }
+            counts[local.getDayOfWeek().getValue() - 1][local.getHour()]++;
+        }
+        return counts;
+    }
+
+}
@@ -0,0 +1,182 @@
+/*
+ * CommitLogTest.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.commits;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The type Commit log test.
+ */
+class CommitLogTest {
+
+    private final static String A = "0123456789abcdef0123456789abcdef01234567";
+    private final static String B = "fedcba9876543210fedcba9876543210fedcba98";
+
+    @Test
+    void replaysAppendedRecords() throws Exception {
+        Path path = Files.createTempDirectory("commits").resolve("commits.log");
+        try (CommitLog log = CommitLog.open(path, new Recorder())) {
+            log.appendCommit("status", "Ann", A, 1530000000L, 7200);
+            log.appendCommit("status", "Bob", B, 1530000100L, -18000);
+            log.appendCursor("status", A, 1530000000L, 7200, 42);
+            log.flush();
+            log.appendCommit("node", "", A, 1, 0);
+        }
+
+        Recorder recorder = new Recorder();
+        try (CommitLog log = CommitLog.open(path, recorder)) {
+            log.appendCommit("wallet", "Ann", B, 2, 3600);
+        }
+        assertEquals("[commit status Ann " + A + " 1530000000 7200, commit status Bob " + B + " 1530000100 -18000,"
+                + " cursor status " + A + " 1530000000 7200 42, commit node  " + A + " 1 0]", recorder.toString());
+
+        recorder = new Recorder();
+        CommitLog.open(path, recorder).close();
+        assertEquals(5, recorder.records.size());
+        assertEquals("commit wallet Ann " + B + " 2 3600", recorder.records.get(4));
+    }
+
+    @Test
+    void replaysBackfillState() throws Exception {
+        Path path = Files.createTempDirectory("commits").resolve("commits.log");
+        try (CommitLog log = CommitLog.open(path, new Recorder())) {
+            log.appendCursor("status", A, 1, 0, 42);
+            log.appendBackfill("status", "https://example.com/commits?page=3", B);
+            log.appendBackfill("node", "https://example.com/commits?page=2", null);
+            log.appendBackfill("status", null, null);
+        }
+        Recorder recorder = new Recorder();
+        CommitLog.open(path, recorder).close();
+        assertEquals("[cursor status " + A + " 1 0 42, backfill status https://example.com/commits?page=3 " + B + ","
+                + " backfill node https://example.com/commits?page=2 null, backfill status null null]", recorder.toString());
+    }
+
+    @Test
+    void cutsIncompleteAndDamagedRecords() throws Exception {
+        Path path = Files.createTempDirectory("commits").resolve("commits.log");
+        try (CommitLog log = CommitLog.open(path, new Recorder())) {
+            log.appendCommit("status", "Ann", A, 1, 0);
+            log.appendCommit("status", "Ann", B, 2, 0);
+        }
+        long complete = Files.size(path);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(complete - 3);
+        }
+
+        Recorder recorder = new Recorder();
+        CommitLog.open(path, recorder).close();
+        assertEquals(1, recorder.records.size());
+        long cut = Files.size(path);
+        assertTrue(cut < complete - 3);
+
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(cut - 6);
+            file.write(file.read() ^ 1);
+        }
+        recorder = new Recorder();
+        try (CommitLog log = CommitLog.open(path, recorder)) {
+            assertTrue(recorder.records.isEmpty());
+            log.appendCommit("status", "Cid", B, 3, 0);
+        }
+        recorder = new Recorder();
+        CommitLog.open(path, recorder).close();
+        assertEquals("[commit status Cid " + B + " 3 0]", recorder.toString());
+    }
+
+    @Test
+    void rejectsOtherFiles() throws Exception {
+        Path path = Files.createTempFile("commits", ".log");
+        Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+        assertThrows(IOException.class, () -> CommitLog.open(path, new Recorder()));
+    }
+
+    @Test
+    void copiesAStore() throws Exception {
+        Path path = Files.createTempDirectory("commits").resolve("commits.log");
+        CommitStore store = new CommitStore(false);
+        store.add("status", "Ann", A, 100, 3600, null);
+        store.add("node", "Bob", B, 200, -3600, null);
+        try (CommitLog log = CommitLog.open(path, new Recorder())) {
+            store.writeTo(log);
+        }
+        Recorder recorder = new Recorder();
+        CommitLog.open(path, recorder).close();
+        assertEquals("[commit status Ann " + A + " 100 3600, commit node Bob " + B + " 200 -3600]", recorder.toString());
+    }
+
+    @Test
+    void authorsPastTheIdsShareTheOtherName() throws Exception {
+        Path path = Files.createTempDirectory("commits").resolve("commits.log");
+        try (CommitLog log = CommitLog.open(path, new Recorder())) {
+            for (int i = 0; i < 70000; i++) {
+                log.appendCommit("status", "a" + i, String.format("%040x", i), i, 0);
+            }
+        }
+
+        Recorder recorder = new Recorder();
+        CommitLog.open(path, recorder).close();
+        assertEquals(70000, recorder.records.size());
+        assertEquals("commit status a40000 " + String.format("%040x", 40000) + " 40000 0",
+                recorder.records.get(40000));
+        assertTrue(recorder.records.get(65534).startsWith("commit status " + CommitStore.OTHER + " "));
+        assertTrue(recorder.records.get(69999).startsWith("commit status " + CommitStore.OTHER + " "));
+    }
+
+    private static class Recorder implements CommitLog.Visitor {
+
+        private final List<String> records = new ArrayList<>();
+
+        @Override
+        public void commit(String repository, String author, String hash, long epochSecond, int offsetSeconds) {
+            records.add("commit " + repository + " " + author + " " + hash + " " + epochSecond + " " + offsetSeconds);
+        }
+
+        @Override
+        public void cursor(String repository, String hash, long epochSecond, int offsetSeconds, long synced) {
+            records.add("cursor " + repository + " " + hash + " " + epochSecond + " " + offsetSeconds + " " + synced);
+        }
+
+        @Override
+        public void backfill(String repository, String url, String until) {
+            records.add("backfill " + repository + " " + url + " " + until);
+        }
+
+        @Override
+        public String toString() {
+            return records.toString();
+        }
+
+    }
+
+}
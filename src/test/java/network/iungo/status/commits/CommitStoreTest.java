@@ -0,0 +1,142 @@
+/*
+ * CommitStoreTest.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.commits;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The type Commit store test.
+ */
+class CommitStoreTest {
+
+    @Test
+    void addsEveryHashOnce() {
+        CommitStore store = new CommitStore(true);
+        String hash = "0123456789abcdef0123456789ABCDEF01234567";
+        assertTrue(store.add("status", "Ann", hash, 1530000000L, 7200, "first"));
+        assertFalse(store.add("other", "Bob", hash.toLowerCase(), 1530000001L, 0, "again"));
+        assertTrue(store.contains(hash.toLowerCase()));
+        assertEquals(1, store.size());
+        assertEquals(hash.toLowerCase(), store.getHash(0));
+        assertEquals("first", store.getMessage(0));
+        assertEquals("status", store.getRepository(0));
+        assertEquals("Ann", store.getAuthor(0));
+    }
+
+    @Test
+    void rejectsMalformedHashes() {
+        CommitStore store = new CommitStore(false);
+        assertFalse(CommitStore.isHash("abc"));
+        assertFalse(CommitStore.isHash("g123456789abcdef0123456789abcdef01234567"));
+        assertFalse(store.contains("abc"));
+        assertThrows(IllegalArgumentException.class, () -> store.add("status", "Ann", "abc", 0, 0, null));
+    }
+
+    @Test
+    void growsPastTheInitialCapacity() {
+        CommitStore store = new CommitStore(false);
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(store.add("r" + (i % 3), "a" + (i % 5), hash(i), i, 3600, "m" + i));
+        }
+        assertEquals(5000, store.size());
+        for (int i = 0; i < 5000; i += 7) {
+            assertTrue(store.contains(hash(i)));
+            assertEquals(hash(i), store.getHash(i));
+            assertNull(store.getMessage(i));
+        }
+        assertFalse(store.contains(hash(5000)));
+
+        List<Long> seconds = new ArrayList<>();
+        store.forEach((epochSecond, offsetSeconds, repository, author) -> {
+            assertEquals(3600, offsetSeconds);
+            assertEquals(epochSecond % 3, repository);
+            assertEquals(epochSecond % 5, author);
+            seconds.add(epochSecond);
+        });
+        assertEquals(5000, seconds.size());
+        assertEquals(4999L, (long) seconds.get(4999));
+    }
+
+    @Test
+    void roundTrip() throws IOException {
+        CommitStore store = new CommitStore(false);
+        store.add("a", "x", hash(1), 100, -16200, null);
+        store.add("b", "y", hash(2), 200, 19800, null);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        store.writeTo(new DataOutputStream(bytes));
+
+        CommitStore restored = new CommitStore(false);
+        restored.add("b", "y", hash(3), 300, 0, null);
+        restored.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), true);
+
+        assertEquals(3, restored.size());
+        assertTrue(restored.contains(hash(1)));
+        assertTrue(restored.contains(hash(2)));
+        assertEquals(2, restored.getRepositories());
+        assertEquals(2, restored.getAuthors());
+
+        List<String> visited = new ArrayList<>();
+        restored.forEach((epochSecond, offsetSeconds, repository, author) ->
+                visited.add(epochSecond + "/" + offsetSeconds + "/" + restored.getRepository(repository)
+                        + "/" + restored.getAuthor(author)));
+        assertEquals("[300/0/b/y, 100/-16200/a/x, 200/19800/b/y]", visited.toString());
+    }
+
+    @Test
+    void authorsPastTheIdsShareTheOtherName() throws IOException {
+        CommitStore store = new CommitStore(false);
+        for (int i = 0; i < 70000; i++) {
+            assertTrue(store.add("status", "a" + i, hash(i), i, 0, null));
+        }
+        assertEquals(65535, store.getAuthors());
+        assertEquals("a40000", store.getAuthor(40000));
+        assertEquals(CommitStore.OTHER, store.getAuthor(65534));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        store.writeTo(new DataOutputStream(bytes));
+        CommitStore restored = new CommitStore(false);
+        restored.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), true);
+
+        List<String> authors = new ArrayList<>();
+        restored.forEach((epochSecond, offsetSeconds, repository, author) -> authors.add(restored.getAuthor(author)));
+        assertEquals(70000, authors.size());
+        assertEquals("a40000", authors.get(40000));
+        assertEquals("a65533", authors.get(65533));
+        assertEquals(CommitStore.OTHER, authors.get(65534));
+        assertEquals(CommitStore.OTHER, authors.get(69999));
+    }
+
+    private static String hash(int i) {
+        return String.format("%040x", i * 0x9e3779b97f4a7c15L & Long.MAX_VALUE);
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * PunchcardIndexTest.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.commits;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The type Punchcard index test.
+ */
+class PunchcardIndexTest {
+
+    @Test
+    void answersRangesLikeAScan() {
+        Random random = new Random(7);
+        int count = 3000;
+        long[] seconds = new long[count];
+        int[] offsets = new int[count];
+        PunchcardIndex index = new PunchcardIndex();
+        long now = 1530000000L;
+        for (int i = 0; i < count; i++) {
+            seconds[i] = now + (i % 2 == 0 ? -1 : 1) * (long) random.nextInt(5 * 365 * 86400);
+            offsets[i] = (random.nextInt(49) - 24) * 1800;
+            index.add(seconds[i], offsets[i]);
+        }
+
+        long today = now / 86400;
+        for (int q = 0; q < 200; q++) {
+            long from = today - 2000 + random.nextInt(4000);
+            long to = from + random.nextInt(400);
+            assertArrayEquals(scan(seconds, offsets, from, to), index.query(from, to));
+        }
+        assertArrayEquals(scan(seconds, offsets, Long.MIN_VALUE, Long.MAX_VALUE),
+                index.query(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    void emptyAndOutsideRanges() {
+        PunchcardIndex index = new PunchcardIndex();
+        assertArrayEquals(new int[7][24], index.query(Long.MIN_VALUE, Long.MAX_VALUE));
+
+        long monday = LocalDateTime.of(2018, 7, 2, 0, 30).toEpochSecond(ZoneOffset.UTC);
+        index.add(monday, 0);
+        assertEquals(1, index.query(17714, 17714)[0][0]);
+        assertArrayEquals(new int[7][24], index.query(17715, 20000));
+        assertArrayEquals(new int[7][24], index.query(-5000, 17713));
+        assertArrayEquals(new int[7][24], index.query(17714, 17713));
+    }
+
+    private static int[][] scan(long[] seconds, int[] offsets, long from, long to) {
+        int[][] counts = new int[7][24];
+        for (int i = 0; i < seconds.length; i++) {
+            LocalDateTime local = LocalDateTime.ofEpochSecond(seconds[i], 0, ZoneOffset.ofTotalSeconds(offsets[i]));
+            long day = local.toLocalDate().toEpochDay();
+            if (day >= from && day <= to) {
+                counts[local.getDayOfWeek().getValue() - 1][local.getHour()]++;
+            }
+        }
+        return counts;
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * PunchcardTest.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.commits;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The type Punchcard test.
+ */
+class PunchcardTest {
+
+    @Test
+    void countsInLocalTime() {
+        Punchcard punchcard = new Punchcard();
+        add(punchcard, "2018-07-02T00:15:00+02:00");
+        add(punchcard, "2018-07-01T23:59:59Z");
+        add(punchcard, "2018-07-01T22:30:00-05:30");
+        add(punchcard, "1969-12-31T23:00:00Z");
+        assertArrayEquals(new int[24], punchcard.get()[0]);
+
+        punchcard.publish();
+        int[][] counts = punchcard.get();
+        assertEquals(1, counts[0][0]);
+        assertEquals(1, counts[6][23]);
+        assertEquals(1, counts[6][22]);
+        assertEquals(1, counts[2][23]);
+    }
+
+    @Test
+    void publishedCopyStaysUnchanged() throws Exception {
+        Punchcard punchcard = new Punchcard();
+        punchcard.publish();
+        int[][] before = punchcard.get();
+
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            threads.execute(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    punchcard.add(i * 3600L, 0);
+                }
+            });
+        }
+        threads.shutdown();
+        assertTrue(threads.awaitTermination(10, TimeUnit.SECONDS));
+
+        punchcard.publish();
+        int total = 0;
+        for (int[] day : punchcard.get()) {
+            for (int hour : day) {
+                total += hour;
+            }
+        }
+        assertEquals(4000, total);
+        assertEquals(0, before[3][0]);
+    }
+
+    private static void add(Punchcard punchcard, String date) {
+        OffsetDateTime time = OffsetDateTime.parse(date);
+        punchcard.add(time.toEpochSecond(), time.getOffset().getTotalSeconds());
+    }
+
+}
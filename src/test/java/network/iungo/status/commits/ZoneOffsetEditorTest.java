@@ -0,0 +1,57 @@
+/*
+ * ZoneOffsetEditorTest.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.commits;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DateTimeException;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The type Zone offset editor test.
+ */
+class ZoneOffsetEditorTest {
+
+    @Test
+    void readsPlusDecodedToSpace() {
+        ZoneOffsetEditor editor = new ZoneOffsetEditor();
+        editor.setAsText(" 02:00");
+        assertEquals(ZoneOffset.ofHours(2), editor.getValue());
+        editor.setAsText("+05:30");
+        assertEquals(ZoneOffset.ofHoursMinutes(5, 30), editor.getValue());
+        editor.setAsText("03:00");
+        assertEquals(ZoneOffset.ofHours(3), editor.getValue());
+        editor.setAsText("-05:00");
+        assertEquals(ZoneOffset.ofHours(-5), editor.getValue());
+        editor.setAsText("Z");
+        assertEquals(ZoneOffset.UTC, editor.getValue());
+        editor.setAsText("");
+        assertNull(editor.getValue());
+        assertThrows(DateTimeException.class, () -> editor.setAsText("later"));
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * LatencyHistogramTest.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The type Latency histogram test.
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsCoverValuesWithBoundedError() {
+        for (long v = 0; v < 100000; v += 7) {
+            int i = LatencyHistogram.index(v);
+            assertTrue(i >= 0 && i < LatencyHistogram.BUCKETS);
+            long upper = LatencyHistogram.upperBound(i);
+            assertTrue(upper >= v, "upper bound of " + v);
+            assertTrue(upper - v <= Math.max(1, v / 8), "error of " + v);
+        }
+    }
+
+    @Test
+    void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        histogram.record(5000);
+
+        long[] counts = new long[LatencyHistogram.BUCKETS];
+        long max = histogram.addTo(counts);
+        assertEquals(5000, max);
+        long p50 = LatencyHistogram.percentile(counts, 101, max, 50);
+        assertTrue(p50 >= 51 && p50 <= 57, "p50 " + p50);
+        long p99 = LatencyHistogram.percentile(counts, 101, max, 99);
+        assertTrue(p99 >= 100 && p99 <= 111, "p99 " + p99);
+        assertEquals(5000, LatencyHistogram.percentile(counts, 101, max, 100));
+    }
+
+    @Test
+    void rollingWindowsForgetOldSlices() {
+        RollingLatencyHistogram rolling = new RollingLatencyHistogram();
+        long now = 10L * 24 * 60 * 60 * 1000;
+        rolling.record(100, now);
+        assertEquals(1, rolling.getSummary("5m", now).getCount());
+        assertEquals(0, rolling.getSummary("5m", now + 10 * 60 * 1000).getCount());
+        assertEquals(1, rolling.getSummary("1h", now + 10 * 60 * 1000).getCount());
+        assertEquals(100, rolling.getSummary("24h", now + 2 * 60 * 60 * 1000).getP50());
+    }
+
+}
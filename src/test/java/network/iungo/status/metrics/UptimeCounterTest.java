@@ -0,0 +1,65 @@
+/*
+ * UptimeCounterTest.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The type Uptime counter test.
+ */
+class UptimeCounterTest {
+
+    private final static long HOUR = 60 * 60 * 1000;
+    private final static long DAY = 24 * HOUR;
+
+    @Test
+    void windowsDropOldBuckets() {
+        UptimeCounter counter = new UptimeCounter();
+        long now = 1000 * DAY;
+        counter.record(now - 40 * DAY, false);
+        counter.record(now - 10 * DAY, false);
+        counter.record(now - 2 * HOUR, true);
+        counter.record(now, true);
+
+        List<UptimeSummary> summaries = counter.getSummaries(now);
+        assertEquals("24h", summaries.get(0).getWindow());
+        assertEquals(2, summaries.get(0).getTotal());
+        assertEquals("100.00%", summaries.get(1).getPercentage());
+        assertEquals(3, summaries.get(2).getTotal());
+        assertEquals(1, summaries.get(3).getTotal() - summaries.get(2).getTotal());
+        assertEquals("50.00%", summaries.get(3).getPercentage());
+
+        List<UptimeSummary> days = counter.getDays(now);
+        assertEquals(UptimeCounter.DAYS, days.size());
+        assertEquals("up", days.get(days.size() - 1).getLevel());
+        assertEquals("down", days.get(days.size() - 11).getLevel());
+        assertEquals("none", days.get(0).getLevel());
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * ProbeConfirmerTest.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.monitoring;
+
+import org.apache.http.client.methods.HttpGet;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The type Probe confirmer test.
+ */
+class ProbeConfirmerTest {
+
+    @Test
+    void failureNeedsEnoughFailedRetries() {
+        ProbeConfirmer confirmer = new ProbeConfirmer(3, 2, 3);
+        AtomicInteger sent = new AtomicInteger();
+        try {
+            assertTrue(confirmer.confirm(() -> new HttpGet("http://localhost/"),
+                    r -> sent.incrementAndGet() == 1, 1000));
+            assertTrue(confirmer.confirm(() -> new HttpGet("http://localhost/"), r -> {
+                throw new IllegalStateException("lost");
+            }, 1000));
+            assertFalse(confirmer.confirm(() -> new HttpGet("http://localhost/"), r -> true, 1000));
+        } finally {
+            confirmer.shutdown();
+        }
+    }
+
+    @Test
+    void hangingRetriesFailAtTheDeadline() {
+        ProbeConfirmer confirmer = new ProbeConfirmer(3, 2, 3);
+        try {
+            long started = System.nanoTime();
+            assertTrue(confirmer.confirm(() -> new HttpGet("http://localhost/"), r -> {
+                Thread.sleep(5000);
+                return true;
+            }, 200));
+            assertTrue(System.nanoTime() - started < 2000L * 1000 * 1000);
+        } finally {
+            confirmer.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * ProbeStateTest.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The type Probe state test.
+ */
+class ProbeStateTest {
+
+    @Test
+    void failureIsConfirmedQuickly() {
+        ProbeState state = new ProbeState(5000, 4);
+        state.update(true);
+        assertEquals(60000, state.nextInterval(60000));
+
+        state.update(false);
+        assertEquals(ProbeState.State.SUSPECT, state.getState());
+        assertTrue(state.isOnline());
+        assertEquals(5000, state.nextInterval(60000));
+
+        state.update(false);
+        assertEquals(ProbeState.State.DOWN, state.getState());
+        assertFalse(state.isOnline());
+
+        state.update(true);
+        assertFalse(state.isOnline());
+        state.update(true);
+        assertTrue(state.isOnline());
+    }
+
+    @Test
+    void failureConfirmedByRetriesCountsOnce() {
+        ProbeState state = new ProbeState(5000, 4);
+        state.update(true);
+        state.update(false, true);
+        assertEquals(ProbeState.State.DOWN, state.getState());
+        assertFalse(state.isOnline());
+
+        state.update(true);
+        state.update(true);
+        assertTrue(state.isOnline());
+
+        for (int i = 0; i < 12; i++) {
+            state.update(i % 2 == 0);
+        }
+        assertTrue(state.isFlapping());
+        if (!state.isOnline()) {
+            state.update(true);
+            state.update(true);
+            state.update(true);
+            state.update(true);
+        }
+        assertTrue(state.isOnline());
+        state.update(false, true);
+        assertTrue(state.isOnline());
+        state.update(false, true);
+        assertFalse(state.isOnline());
+    }
+
+    @Test
+    void healthyEndpointsBackOff() {
+        ProbeState state = new ProbeState(5000, 4);
+        for (int i = 0; i < 40; i++) {
+            state.update(true);
+        }
+        assertEquals(240000, state.nextInterval(60000));
+        state.update(false);
+        assertEquals(5000, state.nextInterval(60000));
+    }
+
+    @Test
+    void flappingIsDamped() {
+        ProbeState state = new ProbeState(5000, 4);
+        for (int i = 0; i < 12; i++) {
+            state.update(i % 2 == 0);
+        }
+        assertTrue(state.isFlapping());
+        assertEquals(60000, state.nextInterval(60000));
+        boolean online = state.isOnline();
+        state.update(!online);
+        state.update(!online);
+        assertEquals(online, state.isOnline());
+
+        for (int i = 0; i < 21; i++) {
+            state.update(true);
+        }
+        assertFalse(state.isFlapping());
+        assertTrue(state.isOnline());
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * TimingWheelTest.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The type Timing wheel test.
+ */
+class TimingWheelTest {
+
+    @Test
+    void firesAfterRequestedTicks() {
+        TimingWheel<String> wheel = new TimingWheel<>(8);
+        TimingWheel.Timeout<String> near = new TimingWheel.Timeout<>("near");
+        TimingWheel.Timeout<String> far = new TimingWheel.Timeout<>("far");
+        wheel.schedule(near, 3);
+        wheel.schedule(far, 8 * 2 + 3);
+
+        List<Long> fired = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            wheel.advance(v -> {
+                values.add(v);
+                fired.add(wheel.getTick());
+            });
+        }
+
+        assertEquals(2, values.size());
+        assertEquals("near", values.get(0));
+        assertEquals(3L, (long) fired.get(0));
+        assertEquals("far", values.get(1));
+        assertEquals(19L, (long) fired.get(1));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void rescheduleMovesAndCancelRemoves() {
+        TimingWheel<String> wheel = new TimingWheel<>(4);
+        TimingWheel.Timeout<String> a = new TimingWheel.Timeout<>("a");
+        TimingWheel.Timeout<String> b = new TimingWheel.Timeout<>("b");
+        wheel.schedule(a, 1);
+        wheel.schedule(b, 1);
+        wheel.schedule(a, 2);
+        wheel.cancel(b);
+        assertFalse(b.isScheduled());
+        assertEquals(1, wheel.size());
+
+        List<String> values = new ArrayList<>();
+        wheel.advance(values::add);
+        assertTrue(values.isEmpty());
+        wheel.advance(values::add);
+        assertEquals("a", values.get(0));
+        assertFalse(a.isScheduled());
+    }
+
+}
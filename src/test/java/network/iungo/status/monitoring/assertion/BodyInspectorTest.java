@@ -0,0 +1,121 @@
+/*
+ * BodyInspectorTest.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.monitoring.assertion;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The type Body inspector test.
+ */
+class BodyInspectorTest {
+
+    @Test
+    void matchesAcrossChunkBoundaries() throws IOException {
+        String body = "{\"status\":{\"db\":\"ok\",\"nodes\":[1,2,3]},\"text\":\"\u017ealia \u0161viesa\"}";
+
+        inspect(body, assertion(ContentAssertion.Type.SUBSTRING, "\"db\":\"ok\"", null));
+        inspect(body, assertion(ContentAssertion.Type.REGEX, "\u017eal[a-z]a\\s+\u0161v", null));
+        inspect(body, assertion(ContentAssertion.Type.JSON_POINTER, "/status/db", "ok"));
+        inspect(body, assertion(ContentAssertion.Type.JSON_POINTER, "/status/nodes/2", "3"));
+        inspect(body, assertion(ContentAssertion.Type.JSON_POINTER, "/status/nodes", null));
+        inspect(body, assertion(ContentAssertion.Type.MAX_SIZE, "100", null));
+
+        assertThrows(ContentAssertionException.class,
+                () -> inspect(body, assertion(ContentAssertion.Type.SUBSTRING, "\"db\":\"down\"", null)));
+        assertThrows(ContentAssertionException.class,
+                () -> inspect(body, assertion(ContentAssertion.Type.JSON_POINTER, "/status/db", "down")));
+        assertThrows(ContentAssertionException.class,
+                () -> inspect(body, assertion(ContentAssertion.Type.JSON_POINTER, "/status/cache", null)));
+        assertThrows(ContentAssertionException.class,
+                () -> inspect(body, assertion(ContentAssertion.Type.MAX_SIZE, "10", null)));
+        assertThrows(ContentAssertionException.class,
+                () -> inspect("<html>", assertion(ContentAssertion.Type.JSON_POINTER, "/status", null)));
+    }
+
+    @Test
+    void anchorsAndLookbehindsSeeAcrossChunks() throws IOException {
+        String body = "{\"status\":{\"db\":\"ok\",\"nodes\":[1,2,3]}}";
+
+        inspect(body, assertion(ContentAssertion.Type.REGEX, "^\\{\"status\"", null));
+        inspect(body, assertion(ContentAssertion.Type.REGEX, "(?<=\\{\")status", null));
+        inspect(body, assertion(ContentAssertion.Type.REGEX, "(?<=\"db\":)\"ok\"", null));
+        inspect(body, assertion(ContentAssertion.Type.REGEX, "\\]\\}\\}$", null));
+
+        assertThrows(ContentAssertionException.class,
+                () -> inspect(body, assertion(ContentAssertion.Type.REGEX, "^tat", null)));
+        assertThrows(ContentAssertionException.class,
+                () -> inspect(body, assertion(ContentAssertion.Type.REGEX, "\\btus", null)));
+        assertThrows(ContentAssertionException.class,
+                () -> inspect(body, assertion(ContentAssertion.Type.REGEX, "\\d$", null)));
+    }
+
+    @Test
+    void stopsReadingOnceDecided() throws IOException {
+        byte[] body = new byte[1024 * 1024];
+        Arrays.fill(body, (byte) 'x');
+        System.arraycopy("healthy".getBytes(StandardCharsets.US_ASCII), 0, body, 100, 7);
+        ByteArrayInputStream in = new ByteArrayInputStream(body);
+
+        BodyInspector.inspect(in, StandardCharsets.UTF_8,
+                Arrays.asList(assertion(ContentAssertion.Type.SUBSTRING, "healthy", null)), body.length);
+        assertTrue(in.available() > body.length - 16 * 1024);
+
+        ContentAssertionException ex = assertThrows(ContentAssertionException.class,
+                () -> BodyInspector.inspect(new ByteArrayInputStream(body), StandardCharsets.UTF_8,
+                        Arrays.asList(assertion(ContentAssertion.Type.SUBSTRING, "missing", null)), 4096));
+        assertTrue(ex.getMessage().endsWith("within 4096 bytes"));
+    }
+
+    private static ContentAssertion assertion(ContentAssertion.Type type, String value, String expected) {
+        ContentAssertion assertion = new ContentAssertion();
+        assertion.setType(type);
+        assertion.setValue(value);
+        assertion.setExpected(expected);
+        assertion.compile();
+        return assertion;
+    }
+
+    /**
+     * Feeds the body three bytes at a time so every match spans several chunks.
+     */
+    private static void inspect(String body, ContentAssertion assertion) throws IOException {
+        InputStream in = new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 3));
+            }
+        };
+        BodyInspector.inspect(in, StandardCharsets.UTF_8, Arrays.asList(assertion), 1 << 20);
+    }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * MonitoringServiceTest.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.service;
+
+import com.sun.net.httpserver.HttpServer;
+import network.iungo.status.cluster.ClusterProperties;
+import network.iungo.status.cluster.ClusterService;
+import network.iungo.status.cluster.Observation;
+import network.iungo.status.domain.MonitoredEndpoint;
+import network.iungo.status.monitoring.MonitoringProperties;
+import network.iungo.status.snapshot.SnapshotProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The type Monitoring service test.
+ */
+class MonitoringServiceTest {
+
+    private HttpServer peer;
+    private String peerUrl;
+
+    @BeforeEach
+    void startPeer() throws IOException {
+        peer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        peer.createContext("/", exchange -> {
+            byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        peer.start();
+        peerUrl = "http://localhost:" + peer.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopPeer() {
+        peer.stop(0);
+    }
+
+    private MonitoringProperties properties(Path store, long interval) {
+        MonitoredEndpoint e = new MonitoredEndpoint();
+        e.setId(7);
+        e.setUrl(peerUrl + "/");
+        e.setExpectedResponseStatus(200);
+        e.setInterval(interval);
+        MonitoringProperties properties = new MonitoringProperties();
+        properties.setStoreDirectory(store.toString());
+        properties.setEndpoints(Collections.singletonList(e));
+        return properties;
+    }
+
+    private static SnapshotProperties snapshots(Path directory, long interval) {
+        SnapshotProperties snapshots = new SnapshotProperties();
+        snapshots.setDirectory(directory.toString());
+        snapshots.setInterval(interval);
+        return snapshots;
+    }
+
+    @Test
+    void restoreCountsEveryProbeOnce() throws IOException, InterruptedException {
+        Path store = Files.createTempDirectory("probes");
+        Path snapshots = Files.createTempDirectory("snapshots");
+        Path crashed = Files.createTempDirectory("crashed");
+        ClusterService cluster = new ClusterService(new ClusterProperties());
+        MonitoringService service = new MonitoringService(properties(store, 200), cluster, snapshots(snapshots, 300));
+        try {
+            Path snapshot = snapshots.resolve("monitoring.snapshot");
+            for (int i = 0; i < 50 && !Files.exists(snapshot); i++) {
+                Thread.sleep(100);
+            }
+            Thread.sleep(500);
+            // a snapshot taken while probes go on, as left by a node which stopped without saving
+            Files.copy(snapshot, crashed.resolve("monitoring.snapshot"));
+            Thread.sleep(1000);
+        } finally {
+            service.close();
+        }
+
+        MonitoringProperties properties = properties(store, 3600 * 1000);
+        MonitoredEndpoint e = properties.getEndpoints().get(0);
+        MonitoringService restored = new MonitoringService(properties, cluster, snapshots(crashed, 60 * 1000));
+        try {
+            int probes = restored.getProbeResults(e.getId(), 0, System.currentTimeMillis() + 1).size();
+            assertTrue(probes > 5);
+            assertEquals(probes, e.getUptimes().get(0).getTotal());
+        } finally {
+            restored.close();
+        }
+    }
+
+    @Test
+    void nonOwnerRecordsMetricsOfObservations() throws InterruptedException {
+        ClusterProperties clusterProperties = new ClusterProperties();
+        clusterProperties.setUrl("http://localhost:1");
+        clusterProperties.setPeers(Collections.singletonList(peerUrl));
+        clusterProperties.setSecret("secret");
+        clusterProperties.setHeartbeat(100);
+        clusterProperties.setReplication(1);
+        ClusterService cluster = new ClusterService(clusterProperties);
+        MonitoringService service = null;
+        try {
+            for (int i = 0; i < 50 && cluster.getStatus().getMembers().size() < 2; i++) {
+                Thread.sleep(100);
+            }
+            assertEquals(2, cluster.getStatus().getMembers().size());
+            int id = 1;
+            while (cluster.isAssigned(id)) {
+                id++;
+            }
+
+            MonitoredEndpoint e = new MonitoredEndpoint();
+            e.setId(id);
+            e.setUrl(peerUrl + "/");
+            e.setExpectedResponseStatus(200);
+            e.setInterval(60 * 1000);
+            MonitoringProperties properties = new MonitoringProperties();
+            properties.setStoreDirectory("");
+            properties.setEndpoints(Collections.singletonList(e));
+            SnapshotProperties snapshots = new SnapshotProperties();
+            snapshots.setDirectory("");
+            service = new MonitoringService(properties, cluster, snapshots);
+
+            long published = service.getSnapshot().getVersion();
+            long now = System.currentTimeMillis();
+            assertTrue(cluster.receive(Arrays.asList(
+                    new Observation(id, peerUrl, now - 120 * 1000, true, 200, 120, ""),
+                    new Observation(id, peerUrl, now - 119 * 1000, true, 200, 80, ""),
+                    new Observation(id, peerUrl, now - 60 * 1000, false, 0, -1, "refused")), "secret"));
+
+            assertEquals(2, e.getLatency().getCount());
+            assertEquals(2, e.getUptimes().get(0).getTotal());
+            assertEquals(1, e.getUptimes().get(0).getUp());
+            assertFalse(e.getCurrent().isOnline());
+
+            // the observations are coalesced into the next periodic snapshot
+            for (int i = 0; i < 30 && service.getSnapshot().getVersion() == published; i++) {
+                Thread.sleep(100);
+            }
+            assertTrue(service.getSnapshot().getVersion() > published);
+            assertTrue(service.getSnapshot().getVersion() <= published + 2);
+            assertFalse(service.getSnapshot().getServices().get(0).isOnline());
+        } finally {
+            if (service != null) {
+                service.close();
+            }
+            cluster.close();
+        }
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * SnapshotFileTest.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.snapshot;
+
+import network.iungo.status.metrics.UptimeCounter;
+import network.iungo.status.metrics.UptimeSummary;
+import org.junit.jupiter.api.Test;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The type Snapshot file test.
+ */
+class SnapshotFileTest {
+
+    private final static long DAY = 24 * 60 * 60 * 1000;
+
+    @Test
+    void writeAndRead() throws Exception {
+        Path path = Files.createTempDirectory("snapshots").resolve("test.snapshot");
+        long now = 1000 * DAY;
+        UptimeCounter counter = new UptimeCounter();
+        counter.record(now - 10 * DAY, false);
+        counter.record(now, true);
+
+        SnapshotFile file = new SnapshotFile(path, 0x54455354, 2);
+        file.write(out -> {
+            out.writeUTF("uptime");
+            counter.writeTo(out);
+        });
+
+        UptimeCounter restored = new UptimeCounter();
+        assertTrue(file.read((in, version) -> {
+            assertEquals(2, version);
+            assertEquals("uptime", in.readUTF());
+            restored.readFrom(in);
+        }));
+        List<UptimeSummary> summaries = restored.getSummaries(now);
+        assertEquals(1, summaries.get(0).getTotal());
+        assertEquals("50.00%", summaries.get(2).getPercentage());
+
+        assertFalse(new SnapshotFile(path, 0x54455354, 1).read((in, version) -> fail("newer version read")));
+        assertFalse(new SnapshotFile(path, 0x4f544852, 2).read((in, version) -> fail("other kind read")));
+    }
+
+    @Test
+    void damagedSnapshotIsIgnored() throws Exception {
+        Path dir = Files.createTempDirectory("snapshots");
+        SnapshotFile file = new SnapshotFile(dir.resolve("test.snapshot"), 0x54455354, 1);
+        assertFalse(file.read((in, version) -> fail("missing snapshot read")));
+
+        file.write(out -> out.writeLong(42));
+        try (RandomAccessFile raf = new RandomAccessFile(file.getPath().toFile(), "rw")) {
+            raf.seek(20);
+            raf.write(1);
+        }
+        assertFalse(file.read((in, version) -> fail("damaged snapshot read")));
+        assertFalse(Files.exists(dir.resolve("test.snapshot.tmp")));
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * ProbeResultStoreTest.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.RandomAccessFile;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The type Probe result store test.
+ */
+class ProbeResultStoreTest {
+
+    private final static long DAY = 24 * 60 * 60 * 1000;
+
+    @Test
+    void appendScanAndReopen() throws Exception {
+        Path dir = Files.createTempDirectory("probes");
+        long t0 = 100 * DAY;
+
+        ProbeResultStore store = new ProbeResultStore(dir, DAY, 4, 365 * DAY);
+        for (int i = 0; i < 10; i++) {
+            store.append(t0 + i * 1000, i % 2, 200, 0, 10 + i, true, i == 0 ? 3 : -1, i < 2 ? 4 : -1, i < 2 ? 5 : -1, 9);
+        }
+        store.append(t0 + DAY, 1, 0, 2, 10000, false, 1, -1, -1, -1);
+        assertEquals(4, store.getSegments());
+        store.close();
+
+        store = new ProbeResultStore(dir, DAY, 4, 365 * DAY);
+        assertEquals(11, store.getRecords());
+
+        List<Integer> latencies = new ArrayList<>();
+        store.scan(t0 + 2000, t0 + 8000, 1, r -> latencies.add(r.getLatency()));
+        assertEquals(3, latencies.size());
+        assertEquals(13, (int) latencies.get(0));
+        assertEquals(17, (int) latencies.get(2));
+
+        List<int[]> phases = new ArrayList<>();
+        store.scan(t0, t0 + 2000, r -> phases.add(new int[]{r.getDns(), r.getConnect(), r.getTls(), r.getFirstByte()}));
+        assertArrayEquals(new int[]{3, 4, 5, 9}, phases.get(0));
+        assertArrayEquals(new int[]{-1, 4, 5, 9}, phases.get(1));
+
+        List<Integer> errors = new ArrayList<>();
+        store.scan(t0 + DAY, t0 + 2 * DAY, r -> {
+            assertFalse(r.isOnline());
+            errors.add(r.getError());
+        });
+        assertEquals(1, errors.size());
+        assertEquals(2, (int) errors.get(0));
+
+        store.append(t0 + DAY + 1, 1, 200, 0, 5, true, -1, -1, -1, 4);
+        assertEquals(12, store.getRecords());
+        store.close();
+    }
+
+    @Test
+    void scansNegativeIdsOnlyForThatEndpoint() throws Exception {
+        Path dir = Files.createTempDirectory("probes");
+        ProbeResultStore store = new ProbeResultStore(dir, DAY, 16, 365 * DAY);
+        store.append(DAY, -7, 200, 0, 1, true, -1, -1, -1, 1);
+        store.append(DAY + 1, 3, 200, 0, 2, true, -1, -1, -1, 1);
+
+        List<Integer> latencies = new ArrayList<>();
+        store.scan(0, 2 * DAY, -7, r -> latencies.add(r.getLatency()));
+        assertEquals(1, latencies.size());
+        assertEquals(1, (int) latencies.get(0));
+        store.close();
+    }
+
+    @Test
+    void skipsSegmentWithCountBeyondFile() throws Exception {
+        Path dir = Files.createTempDirectory("probes");
+        ProbeResultStore store = new ProbeResultStore(dir, DAY, 4, 365 * DAY);
+        store.append(DAY, 1, 200, 0, 1, true, -1, -1, -1, 1);
+        store.close();
+
+        Path segment;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            segment = files.iterator().next();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(16);
+            file.writeInt(1000);
+        }
+
+        store = new ProbeResultStore(dir, DAY, 4, 365 * DAY);
+        assertEquals(0, store.getSegments());
+        store.close();
+    }
+
+    @Test
+    void expiresOldSegments() throws Exception {
+        Path dir = Files.createTempDirectory("probes");
+        ProbeResultStore store = new ProbeResultStore(dir, DAY, 16, 2 * DAY);
+        for (int day = 0; day < 5; day++) {
+            store.append(day * DAY, 1, 200, 0, 1, true, -1, -1, -1, 1);
+        }
+        assertEquals(3, store.getSegments());
+        store.close();
+    }
+
+}
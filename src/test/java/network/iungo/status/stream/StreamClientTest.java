@@ -0,0 +1,138 @@
+/*
+ * StreamClientTest.java
+ *
+ * Copyright (c) 2018 IUNGO (https://iungo.network)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package network.iungo.status.stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The type Stream client test.
+ */
+class StreamClientTest {
+
+    @Test
+    void slowClientIsDisconnected() {
+        List<Runnable> pending = new ArrayList<>();
+        AtomicInteger closed = new AtomicInteger();
+        StreamClient client = new StreamClient(new ResponseBodyEmitter(0L), 4, pending::add,
+                c -> closed.incrementAndGet(), n -> {
+                });
+
+        PreparedEvent event = PreparedEvent.event(null, "status", "{}");
+        for (int i = 0; i < 4; i++) {
+            client.offer(event);
+        }
+        assertEquals(1, pending.size());
+        assertEquals(0, closed.get());
+
+        client.offer(event);
+        assertEquals(1, closed.get());
+        client.offer(event);
+        client.close();
+        assertEquals(1, closed.get());
+    }
+
+    @Test
+    void blockedSendIsWrittenOff() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch unblock = new CountDownLatch(1);
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(0L) {
+            @Override
+            public void send(Object object, MediaType mediaType) throws IOException {
+                writing.countDown();
+                try {
+                    unblock.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException("Broken pipe");
+            }
+        };
+        AtomicInteger closed = new AtomicInteger();
+        AtomicInteger stalled = new AtomicInteger();
+        ExecutorService sender = Executors.newSingleThreadExecutor();
+        try {
+            StreamClient client = new StreamClient(emitter, 4, sender, c -> closed.incrementAndGet(),
+                    stalled::addAndGet);
+            client.offer(PreparedEvent.comment(""));
+            writing.await();
+
+            long timeout = TimeUnit.SECONDS.toNanos(10);
+            assertFalse(client.abandon(System.nanoTime(), timeout));
+            assertTrue(client.abandon(System.nanoTime() + timeout, timeout));
+            assertFalse(client.abandon(System.nanoTime() + timeout, timeout));
+            assertEquals(1, closed.get());
+            assertEquals(1, stalled.get());
+
+            unblock.countDown();
+            sender.shutdown();
+            assertTrue(sender.awaitTermination(5, TimeUnit.SECONDS));
+            assertEquals(0, stalled.get());
+            assertEquals(1, closed.get());
+        } finally {
+            sender.shutdownNow();
+        }
+    }
+
+    @Test
+    void eventIsSerializedOnce() {
+        assertEquals("id:7\nevent:status\ndata:{\ndata:}\n\n",
+                new String(PreparedEvent.event("7", "status", "{\n}").getFrame(), StandardCharsets.UTF_8));
+        assertEquals(":\n\n", new String(PreparedEvent.comment("").getFrame(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void eventsAreSentInOrderByOneSender() {
+        List<Runnable> pending = new ArrayList<>();
+        AtomicInteger closed = new AtomicInteger();
+        StreamClient client = new StreamClient(new ResponseBodyEmitter(0L), 4, pending::add,
+                c -> closed.incrementAndGet(), n -> {
+                });
+
+        PreparedEvent event = PreparedEvent.event(null, "status", "{}");
+        client.offer(event);
+        client.offer(event);
+        assertEquals(1, pending.size());
+
+        pending.remove(0).run();
+        client.offer(event);
+        assertEquals(1, pending.size());
+        assertEquals(0, closed.get());
+    }
+
+}